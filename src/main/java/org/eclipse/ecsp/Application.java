@@ -23,8 +23,11 @@ import com.codahale.metrics.jvm.GarbageCollectorMetricSet;
 import com.codahale.metrics.jvm.MemoryUsageGaugeSet;
 import com.codahale.metrics.jvm.ThreadStatesGaugeSet;
 import jakarta.servlet.ServletContext;
+import org.eclipse.ecsp.constants.Constants;
+import org.eclipse.ecsp.metrics.JvmMetricsExports;
 import org.eclipse.ecsp.utils.logger.IgniteLogger;
 import org.eclipse.ecsp.utils.logger.IgniteLoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.Banner.Mode;
 import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
@@ -101,16 +104,20 @@ public class Application extends SpringBootServletInitializer {
      * This method create add Metrics Gauges for prometheus below metrics gauges.<br/>
      * <b>api-gc</b>
      * <b>api-memory</b>
-     * <b>api-threads</b>
+     * <b>api-threads</b><br/>
+     * The gauges are skipped when metrics.jvm.exports is prometheus.
      *
+     * @param jvmExports metric system collecting the JVM metrics, see {@link JvmMetricsExports}
      * @return com.codahale.metrics.MetricRegistry
      */
     @Bean
-    public MetricRegistry metricRegistry() {
+    public MetricRegistry metricRegistry(@Value("${metrics.jvm.exports:both}") String jvmExports) {
         MetricRegistry registry = new MetricRegistry();
-        registry.register("api-gc", new GarbageCollectorMetricSet());
-        registry.register("api-memory", new MemoryUsageGaugeSet());
-        registry.register("api-threads", new ThreadStatesGaugeSet());
+        if (JvmMetricsExports.from(jvmExports).dropwizard()) {
+            registry.register(Constants.GC_METRICS_PREFIX, new GarbageCollectorMetricSet());
+            registry.register(Constants.MEMORY_METRICS_PREFIX, new MemoryUsageGaugeSet());
+            registry.register(Constants.THREAD_METRICS_PREFIX, new ThreadStatesGaugeSet());
+        }
         return registry;
     }
 }
\ No newline at end of file
@@ -0,0 +1,181 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.configurations;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.http2.config.H2Config;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.util.Timeout;
+import org.eclipse.ecsp.metrics.HttpClientPoolCollector;
+import org.eclipse.ecsp.utils.logger.IgniteLogger;
+import org.eclipse.ecsp.utils.logger.IgniteLoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import java.net.URISyntaxException;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * spring configuration class for a non blocking, pooled {@link CloseableHttpAsyncClient} bean, next to the
+ * {@link RestTemplateConfig} one, for concurrent downstream calls without a thread per call.<br/>
+ * Created when rest.client.async.enabled is true. The pool is sized per route with
+ * rest.client.async.max.conn.per.route and per route overrides (<i>http://host:port=connections</i>).
+ * With the NEGOTIATE version policy HTTP/2 is used when the server offers it over TLS, FORCE_HTTP_2 also
+ * uses it over cleartext; HTTP/2 multiplexes up to rest.client.async.h2.max.concurrent.streams requests
+ * over one connection per route.<br/>
+ * The pool is exposed through {@link HttpClientPoolCollector} with client async when metrics.enabled is true,
+ * until the context is closed.
+ *
+ * @author abhishekkumar
+ */
+@Configuration("apiCommonAsyncHttpClientConfig")
+@ConditionalOnProperty(name = "rest.client.async.enabled", havingValue = "true")
+public class AsyncHttpClientConfig {
+    private static final IgniteLogger LOGGER = IgniteLoggerFactory.getLogger(AsyncHttpClientConfig.class);
+
+    private static final String POOL_NAME = "async";
+    private static final String ROUTE_SEPARATOR = "=";
+    private static final String OVERRIDES_PROPERTY = "rest.client.async.max.conn.per.route.overrides";
+
+    @Value("${rest.client.async.connection.timeout:3000}")
+    private int connectionTimeout;
+    @Value("${rest.client.async.response.timeout:3000}")
+    private int responseTimeout;
+    @Value("${rest.client.async.connection.request.timeout:3000}")
+    private int connectionRequestTimeout;
+
+    @Value("${rest.client.async.max.conn.total:200}")
+    private int maxConnTotal;
+    @Value("${rest.client.async.max.conn.per.route:50}")
+    private int maxConnPerRoute;
+    @Value("${rest.client.async.max.conn.per.route.overrides:}")
+    private String[] maxConnPerRouteOverrides;
+
+    @Value("${rest.client.async.http.version.policy:NEGOTIATE}")
+    private String versionPolicy;
+    @Value("${rest.client.async.h2.max.concurrent.streams:100}")
+    private int maxConcurrentStreams;
+    @Value("${rest.client.async.io.threads:0}")
+    private int ioThreads;
+
+    @Value("${metrics.enabled:false}")
+    private boolean metricsEnabled;
+
+    /**
+     * creating the connection pool of the async client.
+     *
+     * @return {@link PoolingAsyncClientConnectionManager}
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    public PoolingAsyncClientConnectionManager asyncConnectionManager() {
+        PoolingAsyncClientConnectionManager connectionManager = PoolingAsyncClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(maxConnTotal)
+            .setMaxConnPerRoute(maxConnPerRoute)
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(connectionTimeout))
+                .setSocketTimeout(Timeout.ofMilliseconds(responseTimeout))
+                .build())
+            .setDefaultTlsConfig(TlsConfig.custom()
+                .setVersionPolicy(HttpVersionPolicy.valueOf(versionPolicy.trim().toUpperCase(Locale.ROOT)))
+                .build())
+            .build();
+        for (String override : maxConnPerRouteOverrides) {
+            if (!override.isBlank()) {
+                setMaxPerRoute(connectionManager, override);
+            }
+        }
+        if (metricsEnabled) {
+            HttpClientPoolCollector.register(POOL_NAME, connectionManager);
+        }
+        LOGGER.info("Async http client pool: max total {}, max per route {}, overrides {}, version policy {}",
+            maxConnTotal, maxConnPerRoute, Arrays.toString(maxConnPerRouteOverrides), versionPolicy);
+        return connectionManager;
+    }
+
+    /**
+     * unexposes the pool, the connection manager is closed by its destroy method.
+     */
+    @PreDestroy
+    public void unregisterPool() {
+        if (metricsEnabled) {
+            HttpClientPoolCollector.unregister(POOL_NAME);
+        }
+    }
+
+    private static void setMaxPerRoute(PoolingAsyncClientConnectionManager connectionManager, String override) {
+        int separator = override.lastIndexOf(ROUTE_SEPARATOR);
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid " + OVERRIDES_PROPERTY + " entry " + override
+                + ", expected http://host:port=connections");
+        }
+        HttpRoute route = new HttpRoute(parseHost(override.substring(0, separator).trim()));
+        try {
+            connectionManager.setMaxPerRoute(route, Integer.parseInt(override.substring(separator + 1).trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + OVERRIDES_PROPERTY + " entry " + override, e);
+        }
+    }
+
+    private static HttpHost parseHost(String host) {
+        try {
+            return HttpHost.create(host);
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Invalid route " + host, e);
+        }
+    }
+
+    /**
+     * creating the started {@link CloseableHttpAsyncClient} bean if missing.
+     *
+     * @param connectionManager connection pool of the client
+     * @return CloseableHttpAsyncClient object
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    public CloseableHttpAsyncClient asyncHttpClient(PoolingAsyncClientConnectionManager connectionManager) {
+        CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(connectionRequestTimeout))
+                .setResponseTimeout(Timeout.ofMilliseconds(responseTimeout))
+                .build())
+            .setIOReactorConfig(IOReactorConfig.custom()
+                .setIoThreadCount(ioThreads > 0 ? ioThreads : Runtime.getRuntime().availableProcessors())
+                .build())
+            .setH2Config(H2Config.custom().setMaxConcurrentStreams(maxConcurrentStreams).build())
+            .build();
+        client.start();
+        return client;
+    }
+}
@@ -0,0 +1,81 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.configurations;
+
+import jakarta.annotation.PostConstruct;
+import org.eclipse.ecsp.utils.JsonUtils;
+import org.eclipse.ecsp.utils.logger.IgniteLogger;
+import org.eclipse.ecsp.utils.logger.IgniteLoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ClassUtils;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * spring configuration class for the {@link JsonUtils} ObjectMapper: optional Blackbird accessors
+ * and warm up of the (de)serializers of the hot types at startup.
+ *
+ * @author abhishekkumar
+ */
+@Configuration("apiCommonJsonConfig")
+public class JsonConfig {
+
+    private static final IgniteLogger LOGGER = IgniteLoggerFactory.getLogger(JsonConfig.class);
+
+    @Value("${json.blackbird.enabled:false}")
+    private boolean blackbirdEnabled;
+    @Value("#{'${json.warmup.types:}'.split(',')}")
+    private String[] warmupTypes;
+
+    /**
+     * registers Blackbird if enabled and warms up the configured types.
+     */
+    @PostConstruct
+    public void init() {
+        if (blackbirdEnabled) {
+            JsonUtils.enableBlackbird();
+        }
+        List<Class<?>> types = resolveTypes();
+        if (!types.isEmpty()) {
+            JsonUtils.warmUp(types.toArray(new Class<?>[0]));
+        }
+    }
+
+    private List<Class<?>> resolveTypes() {
+        List<Class<?>> types = new ArrayList<>();
+        if (warmupTypes == null) {
+            return types;
+        }
+        ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+        for (String name : warmupTypes) {
+            if (name.isBlank()) {
+                continue;
+            }
+            try {
+                types.add(ClassUtils.forName(name.trim(), classLoader));
+            } catch (ClassNotFoundException | LinkageError e) {
+                // warm up is an optimization, a stale entry must not prevent the startup
+                LOGGER.warn("Json warm up type {} not found, skipping it", name.trim());
+            }
+        }
+        return types;
+    }
+}
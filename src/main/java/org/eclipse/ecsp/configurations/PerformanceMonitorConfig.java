@@ -0,0 +1,112 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.configurations;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.eclipse.ecsp.annotations.Monitored;
+import org.eclipse.ecsp.metrics.PerformanceMonitorAspect;
+import org.eclipse.ecsp.utils.logger.IgniteLogger;
+import org.eclipse.ecsp.utils.logger.IgniteLoggerFactory;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.ClassFilter;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.aop.aspectj.AspectJExpressionPointcut;
+import org.springframework.aop.aspectj.MethodInvocationProceedingJoinPoint;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.function.SingletonSupplier;
+import java.lang.reflect.Modifier;
+import java.util.function.Supplier;
+
+/**
+ * spring configuration class which applies {@link PerformanceMonitorAspect} to the application beans.<br/>
+ * The pointcut is selected at startup by performance.pointcut.mode
+ * <ul>
+ * <li>annotation (default) - classes or methods annotated with {@link Monitored}</li>
+ * <li>expression - methods matching performance.pointcut.expression</li>
+ * </ul>
+ * The classes of the metrics and configurations packages, the monitor and its collaborators, are never
+ * advised. Nothing is registered, and no bean is proxied, when both metrics.enabled and
+ * performance.monitoring.enabled are false.
+ *
+ * @author abhishekkumar
+ */
+@Configuration
+@ConditionalOnExpression(PerformanceMonitorAspect.MONITORING_ENABLED_EXPRESSION)
+public class PerformanceMonitorConfig {
+    private static final IgniteLogger LOGGER = IgniteLoggerFactory.getLogger(PerformanceMonitorConfig.class);
+
+    private static final String EXPRESSION_MODE = "expression";
+    private static final String METRICS_PACKAGE = "org.eclipse.ecsp.metrics";
+    private static final String CONFIGURATIONS_PACKAGE = "org.eclipse.ecsp.configurations";
+
+    @Value("${performance.pointcut.mode:annotation}")
+    private String pointcutMode;
+
+    @Value("${performance.pointcut.expression:execution(* org.eclipse.ecsp..*.*(..))}")
+    private String pointcutExpression;
+
+    /**
+     * creates the advisor which routes the matched method invocations through {@link PerformanceMonitorAspect}.
+     *
+     * <p>The aspect is resolved on first invocation, so it and its dependencies are not created while
+     * the auto proxy creator collects advisors.
+     *
+     * @param aspectProvider performance monitor
+     * @return {@link Advisor} for the configured pointcut mode
+     */
+    @Bean
+    public Advisor performanceMonitorAdvisor(ObjectProvider<PerformanceMonitorAspect> aspectProvider) {
+        Supplier<PerformanceMonitorAspect> aspect = SingletonSupplier.of(aspectProvider::getObject);
+        MethodInterceptor interceptor = invocation ->
+            aspect.get().monitor(new MethodInvocationProceedingJoinPoint((ProxyMethodInvocation) invocation));
+        return new DefaultPointcutAdvisor(pointcut(), interceptor);
+    }
+
+    private Pointcut pointcut() {
+        ComposablePointcut pointcut;
+        if (EXPRESSION_MODE.equalsIgnoreCase(pointcutMode.trim())) {
+            LOGGER.info("Performance monitoring methods matching {}", pointcutExpression);
+            AspectJExpressionPointcut expressionPointcut = new AspectJExpressionPointcut();
+            expressionPointcut.setExpression(pointcutExpression);
+            pointcut = new ComposablePointcut((Pointcut) expressionPointcut);
+        } else {
+            LOGGER.info("Performance monitoring classes and methods annotated with @Monitored");
+            pointcut = new ComposablePointcut(new AnnotationMatchingPointcut(Monitored.class, true))
+                .union(AnnotationMatchingPointcut.forMethodAnnotation(Monitored.class));
+        }
+        // final classes cannot be proxied by CGLIB, and the monitor and its collaborators (sampler, slo
+        // tracker, exporters) must not advise themselves
+        ClassFilter proxyable = clazz -> !Modifier.isFinal(clazz.getModifiers())
+            && !inPackage(clazz, METRICS_PACKAGE) && !inPackage(clazz, CONFIGURATIONS_PACKAGE);
+        return pointcut.intersection(proxyable);
+    }
+
+    private static boolean inPackage(Class<?> clazz, String packageName) {
+        String name = clazz.getPackageName();
+        return name.equals(packageName) || name.startsWith(packageName + ".");
+    }
+}
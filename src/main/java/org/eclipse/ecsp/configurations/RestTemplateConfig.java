@@ -18,11 +18,17 @@
 
 package org.eclipse.ecsp.configurations;
 
+import jakarta.annotation.PreDestroy;
 import org.apache.hc.client5.http.config.RequestConfig;
 import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
 import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
 import org.apache.hc.core5.http.io.SocketConfig;
+import org.apache.hc.core5.io.CloseMode;
 import org.apache.hc.core5.util.Timeout;
+import org.eclipse.ecsp.metrics.HttpClientPoolCollector;
+import org.eclipse.ecsp.metrics.InstrumentedHttpClientConnectionManager;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
@@ -31,12 +37,19 @@ import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 /**
- * spring configuration class for {@link RestTemplate} bean configuration and creation.
+ * spring configuration class for {@link RestTemplate} bean configuration and creation.<br/>
+ * When metrics.enabled is true the connection pool is exposed through {@link HttpClientPoolCollector} with
+ * client rest_template, until the context is closed, and the wait for a pooled connection is timed. A positive
+ * rest.client.leak.detection.threshold.millis logs connections held longer than the threshold with the stack
+ * of the thread that leased them, see {@link InstrumentedHttpClientConnectionManager}. The connection manager,
+ * and with it the leak detector thread, is closed with the context.
  *
  * @author abhishekkumar
  */
 @Configuration("apiCommonRestTemplateConfig")
 public class RestTemplateConfig {
+    private static final String POOL_NAME = "rest_template";
+
     @Value("${rest.client.read.timeout:3000}")
     private int readTimeout;
     @Value("${rest.client.connection.timeout:3000}")
@@ -49,6 +62,13 @@ public class RestTemplateConfig {
     @Value("${rest.client.max.conn.per.route:2}")
     private int maxConnPerRoute;
 
+    @Value("${rest.client.leak.detection.threshold.millis:0}")
+    private long leakDetectionThresholdMillis;
+    @Value("${metrics.enabled:false}")
+    private boolean metricsEnabled;
+
+    private HttpClientConnectionManager connectionManager;
+
     /**
      * creating {@link RestTemplate} bean if missing.
      *
@@ -65,17 +85,45 @@ public class RestTemplateConfig {
                                         .setResponseTimeout(Timeout.ofMilliseconds(connectionRequestTimeout))
                                         .build()
                                 )
-                                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
-                                        .setMaxConnPerRoute(maxConnPerRoute)
-                                        .setMaxConnTotal(maxConnTotal)
-                                        .setDefaultSocketConfig(SocketConfig.custom()
-                                                .setSoTimeout(Timeout.ofMilliseconds(readTimeout))
-                                                .build())
-                                        .build())
+                                .setConnectionManager(createConnectionManager())
                                 .build()
                 );
         httpRequestFactory.setConnectTimeout(connectionTimeout);
         httpRequestFactory.setConnectionRequestTimeout(connectionRequestTimeout);
         return new RestTemplate(httpRequestFactory);
     }
+
+    private HttpClientConnectionManager createConnectionManager() {
+        PoolingHttpClientConnectionManager pool = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnPerRoute(maxConnPerRoute)
+                .setMaxConnTotal(maxConnTotal)
+                .setDefaultSocketConfig(SocketConfig.custom()
+                        .setSoTimeout(Timeout.ofMilliseconds(readTimeout))
+                        .build())
+                .build();
+        if (metricsEnabled) {
+            HttpClientPoolCollector.register(POOL_NAME, pool);
+        }
+        if (!metricsEnabled && leakDetectionThresholdMillis <= 0) {
+            connectionManager = pool;
+        } else {
+            connectionManager = new InstrumentedHttpClientConnectionManager(POOL_NAME, pool, metricsEnabled,
+                    leakDetectionThresholdMillis);
+        }
+        return connectionManager;
+    }
+
+    /**
+     * unexposes the pool and closes the connection manager, stopping its leak detector, when the context is
+     * closed.
+     */
+    @PreDestroy
+    public void closePool() {
+        if (metricsEnabled) {
+            HttpClientPoolCollector.unregister(POOL_NAME);
+        }
+        if (connectionManager != null) {
+            connectionManager.close(CloseMode.GRACEFUL);
+        }
+    }
 }
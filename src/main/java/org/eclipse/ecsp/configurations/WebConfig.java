@@ -57,6 +57,24 @@ public class WebConfig implements WebMvcConfigurer {
     @Value("#{'${processing.duration.buckets:0.05,0.1,0.2,0.3,0.4,0.7,1,2.5,5,10}'.split(',')}")
     private double[] apiProcessingDurationBuckets;
 
+    @Value("${metrics.native.histograms.enabled:false}")
+    private boolean nativeHistogramsEnabled;
+
+    @Value("${metrics.native.histograms.initial.schema:5}")
+    private int nativeHistogramInitialSchema;
+
+    @Value("${metrics.native.histograms.max.buckets:160}")
+    private int nativeHistogramMaxBuckets;
+
+    @Value("${metrics.slo.enabled:false}")
+    private boolean sloEnabled;
+
+    @Value("${metrics.slo.routes:}")
+    private String sloRoutes;
+
+    @Value("${metrics.jfr.enabled:false}")
+    private boolean jfrEnabled;
+
     @Autowired
     private PlatformHeaderInterceptor platformHeaderInterceptor;
 
@@ -97,6 +115,12 @@ public class WebConfig implements WebMvcConfigurer {
         filter.setApiProcessingDurationBuckets(apiProcessingDurationBuckets);
         filter.setNodeName(nodeName);
         filter.setMetricsEnabled(metricsEnabled);
+        filter.setNativeHistogramsEnabled(nativeHistogramsEnabled);
+        filter.setNativeHistogramInitialSchema(nativeHistogramInitialSchema);
+        filter.setNativeHistogramMaxBuckets(nativeHistogramMaxBuckets);
+        filter.setSloEnabled(sloEnabled);
+        filter.setSloRoutes(sloRoutes);
+        filter.setJfrEnabled(jfrEnabled);
         FilterRegistrationBean<MetricsFilter> mfrb = new FilterRegistrationBean<>(filter);
         mfrb.setEnabled(metricsEnabled);
         mfrb.setOrder(Ordered.HIGHEST_PRECEDENCE);
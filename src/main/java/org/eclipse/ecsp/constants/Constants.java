@@ -29,6 +29,21 @@ public class Constants {
     }
     
 
+    /**
+     * Name prefix of the JVM garbage collector metrics in the Dropwizard registry.
+     */
+    public static final String GC_METRICS_PREFIX = "api-gc";
+
+    /**
+     * Name prefix of the JVM memory metrics in the Dropwizard registry.
+     */
+    public static final String MEMORY_METRICS_PREFIX = "api-memory";
+
+    /**
+     * Name prefix of the JVM thread state metrics in the Dropwizard registry.
+     */
+    public static final String THREAD_METRICS_PREFIX = "api-threads";
+
     /**
      * DEFAULT.
      */
@@ -196,4 +211,14 @@ public class Constants {
      * ERROR_NULL_OBJECT_ID.
      */
     public static final String ERROR_NULL_OBJECT_ID = "Object ID must not be null or empty.";
-}
\ No newline at end of file
+
+    /**
+     * ERROR_INVALID_CURSOR.
+     */
+    public static final String ERROR_INVALID_CURSOR = "Invalid pagination cursor.";
+
+    /**
+     * ERROR_INVALID_PAGE_SIZE.
+     */
+    public static final String ERROR_INVALID_PAGE_SIZE = "Page size must be between 1 and 2147483646.";
+}
@@ -25,6 +25,7 @@ import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
 import org.apache.kafka.common.errors.NotLeaderOrFollowerException;
 import org.eclipse.ecsp.entities.IgniteEvent;
+import org.eclipse.ecsp.metrics.jfr.KafkaPublishEvent;
 import org.eclipse.ecsp.transform.GenericIgniteEventTransformer;
 import org.eclipse.ecsp.utils.logger.IgniteLogger;
 import org.eclipse.ecsp.utils.logger.IgniteLoggerFactory;
@@ -32,6 +33,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
@@ -60,6 +62,9 @@ public class KafkaService {
     @Value("${kafka.producer.synchronous.push:false}")
     private boolean isSynchronousPublish;
 
+    @Value("${metrics.jfr.enabled:false}")
+    private boolean jfrEnabled;
+
     private final GenericIgniteEventTransformer eventTransformer;
 
     private final Producer<byte[], byte[]> producer;
@@ -139,29 +144,62 @@ public class KafkaService {
     private void sendToSinkTopic(String key, IgniteEvent igniteEvent, String onTopic)
             throws ExecutionException {
         LOGGER.debug("Sending key:{} and value:{} to topic:{}", key, igniteEvent, onTopic);
-        Future<RecordMetadata> response = producer.send(
-                new ProducerRecord<>(onTopic, key.getBytes(StandardCharsets.UTF_8),
-                        eventTransformer.toBlob(igniteEvent)));
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] value = eventTransformer.toBlob(igniteEvent);
+        KafkaPublishEvent event = jfrEnabled ? new KafkaPublishEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        Future<RecordMetadata> response = null;
+        try {
+            response = producer.send(new ProducerRecord<>(onTopic, keyBytes, value));
 
-        if (!isSynchronousPublish) {
-            while (!response.isDone()) {
+            if (!isSynchronousPublish) {
+                while (!response.isDone()) {
+                    try {
+                        Thread.sleep(KAFKA_PUBLISH_WAIT_MS);
+                    } catch (InterruptedException exp) {
+                        // restore the interrupt status and move on
+                        LOGGER.warn(
+                                "Interrupted while waiting for response from Kafka for the vehicleId: {} exception: ",
+                                igniteEvent.getVehicleId(),
+                                exp);
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                if (response.isDone()) {
+                    handleResponse(key, igniteEvent, onTopic, response);
+                }
+            } else {
+                handleAsycResponse(key, igniteEvent, onTopic, response);
+            }
+        } finally {
+            if (event != null) {
+                commit(event, onTopic, keyBytes.length + (long) (value == null ? 0 : value.length), response);
+            }
+        }
+    }
+
+    private static void commit(KafkaPublishEvent event, String onTopic, long bytes,
+                               Future<RecordMetadata> response) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.setTopic(onTopic);
+            event.setBytes(bytes);
+            if (response != null && response.isDone()) {
                 try {
-                    Thread.sleep(KAFKA_PUBLISH_WAIT_MS);
-                } catch (InterruptedException exp) {
-                    // restore the interrupt status and move on
-                    LOGGER.warn(
-                            "Interrupted while waiting for response from Kafka for the vehicleId: {} exception: ",
-                            igniteEvent.getVehicleId(),
-                            exp);
+                    RecordMetadata metadata = response.get();
+                    event.setPartition(metadata.partition());
+                    event.setOffset(metadata.offset());
+                    event.setAcknowledged(true);
+                } catch (ExecutionException | CancellationException e) {
+                    // failed publish, recorded as not acknowledged
+                } catch (InterruptedException e) {
                     Thread.currentThread().interrupt();
-                    return;
                 }
             }
-            if (response.isDone()) {
-                handleResponse(key, igniteEvent, onTopic, response);
-            }
-        } else {
-            handleAsycResponse(key, igniteEvent, onTopic, response);
+            event.commit();
         }
     }
 
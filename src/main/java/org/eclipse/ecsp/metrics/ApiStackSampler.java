@@ -0,0 +1,226 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.metrics;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.eclipse.ecsp.utils.logger.IgniteLogger;
+import org.eclipse.ecsp.utils.logger.IgniteLoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Low frequency, in process stack sampler for request threads.<br/>
+ * {@link PerformanceMonitorAspect} tags a thread with the api pattern it is serving, every interval the
+ * stacks of the tagged threads are captured in one {@link ThreadMXBean} call (wall clock, all thread states)
+ * and aggregated in the collapsed stack format <i>api;root frame;...;leaf frame count</i> understood by
+ * flame graph tools. At most max stacks distinct stacks are kept, further new stacks are counted under
+ * <i>api;[truncated]</i>.
+ *
+ * @author abhishekkumar
+ */
+@Component
+@ConditionalOnProperty("performance.profiler.enabled")
+public class ApiStackSampler {
+
+    /**
+     * Frame recorded for the samples of new stacks once max stacks is reached.
+     */
+    public static final String TRUNCATED_FRAME = "[truncated]";
+
+    private static final IgniteLogger LOGGER = IgniteLoggerFactory.getLogger(ApiStackSampler.class);
+
+    private static final char FRAME_SEPARATOR = ';';
+
+    private final ThreadMXBean threadMxBean = ManagementFactory.getThreadMXBean();
+    private final Map<Long, String> taggedThreads = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> stacks = new ConcurrentHashMap<>();
+    private final LongAdder samples = new LongAdder();
+    private final long intervalMillis;
+    private final int maxDepth;
+    private final int maxStacks;
+
+    private ScheduledExecutorService executor;
+
+    /**
+     * Creates the sampler, sampling starts after construction by the container.
+     *
+     * @param intervalMillis sampling interval in milliseconds, 100 samples at 10 Hz
+     * @param maxDepth       maximum number of frames captured per stack
+     * @param maxStacks      maximum number of distinct stacks kept
+     */
+    public ApiStackSampler(@Value("${performance.profiler.interval.millis:100}") long intervalMillis,
+                           @Value("${performance.profiler.max.depth:64}") int maxDepth,
+                           @Value("${performance.profiler.max.stacks:10000}") int maxStacks) {
+        this.intervalMillis = intervalMillis;
+        this.maxDepth = maxDepth;
+        this.maxStacks = maxStacks;
+    }
+
+    /**
+     * starts sampling on a daemon thread.
+     */
+    @PostConstruct
+    public void start() {
+        LOGGER.info("Starting api stack sampler, interval {} ms, max depth {}, max stacks {}",
+            intervalMillis, maxDepth, maxStacks);
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "api-stack-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(this::sampleSafely, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * stops sampling.
+     */
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            LOGGER.info("Stopping api stack sampler");
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Tags the current thread with the api it is serving.
+     *
+     * @param api api pattern
+     * @return the previous tag of the thread, to be passed to {@link #restore(String)}
+     */
+    public String tag(String api) {
+        return taggedThreads.put(Thread.currentThread().getId(), api);
+    }
+
+    /**
+     * Restores the tag of the current thread returned by {@link #tag(String)}.
+     *
+     * @param previous previous tag, null removes the tag
+     */
+    public void restore(String previous) {
+        if (previous == null) {
+            taggedThreads.remove(Thread.currentThread().getId());
+        } else {
+            taggedThreads.put(Thread.currentThread().getId(), previous);
+        }
+    }
+
+    private void sampleSafely() {
+        try {
+            sample();
+        } catch (RuntimeException e) {
+            // an exception would cancel the schedule
+            LOGGER.error("Error sampling api stacks", e);
+        }
+    }
+
+    /**
+     * captures the stacks of all tagged threads once.
+     */
+    void sample() {
+        if (taggedThreads.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(taggedThreads.keySet());
+        long[] threadIds = new long[ids.size()];
+        for (int i = 0; i < threadIds.length; i++) {
+            threadIds[i] = ids.get(i);
+        }
+        ThreadInfo[] infos = threadMxBean.getThreadInfo(threadIds, maxDepth);
+        for (ThreadInfo info : infos) {
+            // the thread may have finished its request (or died) since the ids were read
+            String api = info == null ? null : taggedThreads.get(info.getThreadId());
+            if (api != null && info.getStackTrace().length > 0) {
+                record(api, info.getStackTrace());
+            }
+        }
+        samples.increment();
+    }
+
+    private void record(String api, StackTraceElement[] frames) {
+        StringBuilder key = new StringBuilder(api);
+        for (int i = frames.length - 1; i >= 0; i--) {
+            key.append(FRAME_SEPARATOR).append(frames[i].getClassName()).append('.')
+                .append(frames[i].getMethodName());
+        }
+        String stack = key.toString();
+        LongAdder counter = stacks.get(stack);
+        if (counter == null) {
+            // only the sampler thread adds stacks, so the bound is exact
+            if (stacks.size() >= maxStacks) {
+                stack = api + FRAME_SEPARATOR + TRUNCATED_FRAME;
+            }
+            counter = stacks.computeIfAbsent(stack, k -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    /**
+     * Number of sampling rounds that found at least one tagged thread.
+     *
+     * @return sample count
+     */
+    public long getSampleCount() {
+        return samples.sum();
+    }
+
+    /**
+     * Writes the aggregated stacks in the collapsed stack format, one <i>stack count</i> line per stack.
+     *
+     * @param writer output
+     * @param api    only stacks of this api if not null
+     * @throws IOException if writing fails
+     */
+    public void writeCollapsed(Writer writer, String api) throws IOException {
+        String prefix = api == null ? null : api + FRAME_SEPARATOR;
+        for (Map.Entry<String, LongAdder> entry : stacks.entrySet()) {
+            if (prefix == null || entry.getKey().startsWith(prefix)) {
+                writer.write(entry.getKey());
+                writer.write(' ');
+                writer.write(Long.toString(entry.getValue().sum()));
+                writer.write('\n');
+            }
+        }
+        writer.flush();
+    }
+
+    /**
+     * discards the aggregated stacks.
+     */
+    public void reset() {
+        stacks.clear();
+        samples.reset();
+    }
+}
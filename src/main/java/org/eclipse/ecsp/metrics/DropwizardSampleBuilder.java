@@ -0,0 +1,100 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.metrics;
+
+import com.codahale.metrics.MetricRegistry;
+import io.prometheus.client.Collector;
+import io.prometheus.client.Collector.MetricFamilySamples.Sample;
+import io.prometheus.client.dropwizard.DropwizardExports;
+import io.prometheus.client.dropwizard.samplebuilder.DefaultSampleBuilder;
+import io.prometheus.client.dropwizard.samplebuilder.SampleBuilder;
+import org.eclipse.ecsp.constants.Constants;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maps Dropwizard metric names to Prometheus names and labels for {@link DropwizardExports}.<br/>
+ * Legacy timers <i>api=&lt;api&gt;,method=&lt;method&gt;</i> become
+ * legacy_api_method_duration_seconds{api, method} and the garbage collector gauges
+ * <i>api-gc.&lt;collector&gt;.count|time</i> become api_gc_count|time{collector}.
+ * Other names are sanitized by {@link DefaultSampleBuilder}.
+ *
+ * @author abhishekkumar
+ */
+public class DropwizardSampleBuilder implements SampleBuilder {
+
+    /**
+     * Prometheus name of the legacy timers.
+     */
+    public static final String LEGACY_TIMER_NAME = "legacy_api_method_duration_seconds";
+
+    private static final String API_PREFIX = "api=";
+    private static final String METHOD_SEPARATOR = ",method=";
+    private static final String GC_PREFIX = Constants.GC_METRICS_PREFIX + ".";
+    private static final List<String> LEGACY_LABEL_NAMES = List.of("api", "method");
+    private static final List<String> GC_LABEL_NAMES = List.of("collector");
+
+    private final SampleBuilder fallback = new DefaultSampleBuilder();
+
+    /**
+     * Registers a bridge collector for the registry with the default Prometheus registry.
+     *
+     * @param registry Dropwizard registry to expose
+     * @return the registered collector
+     */
+    public static DropwizardExports register(MetricRegistry registry) {
+        return new DropwizardExports(registry, new DropwizardSampleBuilder()).register();
+    }
+
+    @Override
+    public Sample createSample(String dropwizardName, String nameSuffix, List<String> additionalLabelNames,
+                               List<String> additionalLabelValues, double value) {
+        String suffix = nameSuffix == null ? "" : nameSuffix;
+        int methodIndex = dropwizardName.indexOf(METHOD_SEPARATOR);
+        if (dropwizardName.startsWith(API_PREFIX) && methodIndex > 0) {
+            String api = dropwizardName.substring(API_PREFIX.length(), methodIndex);
+            String method = dropwizardName.substring(methodIndex + METHOD_SEPARATOR.length());
+            return sample(LEGACY_TIMER_NAME + suffix, LEGACY_LABEL_NAMES, List.of(api, method),
+                additionalLabelNames, additionalLabelValues, value);
+        }
+        int gaugeIndex = dropwizardName.lastIndexOf('.');
+        if (dropwizardName.startsWith(GC_PREFIX) && gaugeIndex > GC_PREFIX.length()) {
+            String collector = dropwizardName.substring(GC_PREFIX.length(), gaugeIndex);
+            String name = Collector.sanitizeMetricName(Constants.GC_METRICS_PREFIX + "_"
+                + dropwizardName.substring(gaugeIndex + 1));
+            return sample(name + suffix, GC_LABEL_NAMES, List.of(collector),
+                additionalLabelNames, additionalLabelValues, value);
+        }
+        return fallback.createSample(dropwizardName, nameSuffix, additionalLabelNames, additionalLabelValues,
+            value);
+    }
+
+    private static Sample sample(String name, List<String> labelNames, List<String> labelValues,
+                                 List<String> additionalLabelNames, List<String> additionalLabelValues,
+                                 double value) {
+        List<String> names = new ArrayList<>(labelNames);
+        List<String> values = new ArrayList<>(labelValues);
+        if (additionalLabelNames != null) {
+            names.addAll(additionalLabelNames);
+            values.addAll(additionalLabelValues);
+        }
+        return new Sample(name, names, values, value);
+    }
+}
@@ -0,0 +1,212 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.metrics;
+
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.Snapshot;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramIterationValue;
+import org.HdrHistogram.Recorder;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Dropwizard {@link Reservoir} backed by an HdrHistogram {@link Recorder}.<br/>
+ * Values (nanoseconds) are recorded lock free into the active interval histogram of the recorder.
+ * Readers swap the interval out and fold it into a ring of preallocated slot histograms,
+ * so the snapshot always covers the configured window with bounded memory and accurate
+ * high percentiles (p99, p999).
+ *
+ * @author abhishekkumar
+ */
+public class HdrHistogramReservoir implements Reservoir {
+
+    private static final long LOWEST_DISCERNIBLE_NANOS = 1000L;
+
+    private final Recorder recorder;
+    private final Histogram[] slots;
+    private final Histogram windowHistogram;
+    private final long highestTrackableNanos;
+    private final long slotNanos;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+
+    private Histogram intervalHistogram;
+    private int currentSlot;
+    private long currentSlotStart;
+
+    /**
+     * Creates a reservoir that tracks values up to highestTrackableNanos with the given precision.
+     *
+     * @param highestTrackableNanos highest value (nanoseconds) the histogram can hold, larger values are clamped
+     * @param significantDigits     number of significant value digits (0-5)
+     * @param windowSeconds         time window covered by {@link #getSnapshot()}
+     * @param slotCount             number of slots the window is divided into
+     */
+    public HdrHistogramReservoir(long highestTrackableNanos, int significantDigits, long windowSeconds,
+                                 int slotCount) {
+        this.highestTrackableNanos = highestTrackableNanos;
+        this.recorder = new Recorder(LOWEST_DISCERNIBLE_NANOS, highestTrackableNanos, significantDigits);
+        this.windowHistogram = newHistogram(significantDigits);
+        this.slots = new Histogram[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            slots[i] = newHistogram(significantDigits);
+        }
+        this.slotNanos = Math.max(1L, TimeUnit.SECONDS.toNanos(windowSeconds) / slotCount);
+        this.currentSlotStart = System.nanoTime();
+    }
+
+    private Histogram newHistogram(int significantDigits) {
+        return new Histogram(LOWEST_DISCERNIBLE_NANOS, highestTrackableNanos, significantDigits);
+    }
+
+    @Override
+    public int size() {
+        return (int) Math.min(count.sum(), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void update(long value) {
+        recorder.recordValue(Math.min(Math.max(value, 0L), highestTrackableNanos));
+        count.increment();
+        sum.add(value);
+    }
+
+    /**
+     * Total number of recorded values since creation.
+     *
+     * @return count of recorded values
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Sum of all recorded values (nanoseconds) since creation.
+     *
+     * @return sum of recorded values
+     */
+    public long getSum() {
+        return sum.sum();
+    }
+
+    @Override
+    public synchronized Snapshot getSnapshot() {
+        intervalHistogram = recorder.getIntervalHistogram(intervalHistogram);
+        rotate(System.nanoTime());
+        slots[currentSlot].add(intervalHistogram);
+        windowHistogram.reset();
+        for (Histogram slot : slots) {
+            windowHistogram.add(slot);
+        }
+        return new HdrSnapshot(windowHistogram.copy());
+    }
+
+    private void rotate(long now) {
+        long elapsedSlots = (now - currentSlotStart) / slotNanos;
+        if (elapsedSlots <= 0) {
+            return;
+        }
+        int toClear = (int) Math.min(elapsedSlots, slots.length);
+        for (int i = 0; i < toClear; i++) {
+            currentSlot = (currentSlot + 1) % slots.length;
+            slots[currentSlot].reset();
+        }
+        currentSlotStart += elapsedSlots * slotNanos;
+    }
+
+    /**
+     * Dropwizard {@link Snapshot} view over a copied HdrHistogram.
+     */
+    static class HdrSnapshot extends Snapshot {
+
+        private static final double PERCENT = 100.0D;
+
+        private final Histogram histogram;
+
+        HdrSnapshot(Histogram histogram) {
+            this.histogram = histogram;
+        }
+
+        @Override
+        public double getValue(double quantile) {
+            return histogram.getValueAtPercentile(quantile * PERCENT);
+        }
+
+        /**
+         * Returns one value per non empty histogram bucket instead of every raw sample,
+         * the raw samples are not retained by the histogram.
+         */
+        @Override
+        public long[] getValues() {
+            long[] values = new long[countRecordedBuckets()];
+            int i = 0;
+            for (HistogramIterationValue value : histogram.recordedValues()) {
+                values[i++] = value.getValueIteratedTo();
+            }
+            return values;
+        }
+
+        private int countRecordedBuckets() {
+            int buckets = 0;
+            for (HistogramIterationValue ignored : histogram.recordedValues()) {
+                buckets++;
+            }
+            return buckets;
+        }
+
+        @Override
+        public int size() {
+            return (int) Math.min(histogram.getTotalCount(), Integer.MAX_VALUE);
+        }
+
+        @Override
+        public long getMax() {
+            return histogram.getMaxValue();
+        }
+
+        @Override
+        public double getMean() {
+            return histogram.getMean();
+        }
+
+        @Override
+        public long getMin() {
+            return histogram.getMinValue();
+        }
+
+        @Override
+        public double getStdDev() {
+            return histogram.getStdDeviation();
+        }
+
+        @Override
+        public void dump(OutputStream output) {
+            try (PrintWriter out = new PrintWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8))) {
+                for (HistogramIterationValue value : histogram.recordedValues()) {
+                    out.printf("%d %d%n", value.getValueIteratedTo(), value.getCountAtValueIteratedTo());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.metrics;
+
+import com.codahale.metrics.Snapshot;
+import io.prometheus.client.Collector;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Prometheus summary collector whose quantiles are computed from {@link HdrHistogramReservoir}s,
+ * one per label set.<br/>
+ * Exposes name{quantile="..."}, name_count and name_sum in seconds.
+ *
+ * @author abhishekkumar
+ */
+public class HdrLatencyCollector extends Collector {
+
+    /**
+     * Quantiles exported for every label set.
+     */
+    private static final double[] QUANTILES = {0.5, 0.75, 0.9, 0.95, 0.99, 0.999};
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0D;
+
+    private static final String QUANTILE_LABEL = "quantile";
+
+    private final String name;
+    private final String help;
+    private final List<String> labelNames;
+    private final List<String> quantileLabelNames;
+    private final Supplier<HdrHistogramReservoir> reservoirFactory;
+    private final Map<List<String>, HdrHistogramReservoir> children = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the collector, call {@link #register()} to expose it.
+     *
+     * @param name             metric name
+     * @param help             metric help text
+     * @param reservoirFactory creates the reservoir for a new label set
+     * @param labelNames       label names
+     */
+    public HdrLatencyCollector(String name, String help, Supplier<HdrHistogramReservoir> reservoirFactory,
+                               String... labelNames) {
+        this.name = name;
+        this.help = help;
+        this.reservoirFactory = reservoirFactory;
+        this.labelNames = List.of(labelNames);
+        List<String> names = new ArrayList<>(this.labelNames);
+        names.add(QUANTILE_LABEL);
+        this.quantileLabelNames = List.copyOf(names);
+    }
+
+    /**
+     * Records a duration for the given label values.
+     *
+     * @param durationNanos duration in nanoseconds
+     * @param labelValues   label values, in the order of the label names
+     */
+    public void record(long durationNanos, String... labelValues) {
+        children.computeIfAbsent(Arrays.asList(labelValues), k -> reservoirFactory.get()).update(durationNanos);
+    }
+
+    @Override
+    public List<MetricFamilySamples> collect() {
+        List<MetricFamilySamples.Sample> samples = new ArrayList<>();
+        for (Map.Entry<List<String>, HdrHistogramReservoir> child : children.entrySet()) {
+            List<String> labelValues = child.getKey();
+            HdrHistogramReservoir reservoir = child.getValue();
+            Snapshot snapshot = reservoir.getSnapshot();
+            for (double quantile : QUANTILES) {
+                List<String> values = new ArrayList<>(labelValues);
+                values.add(doubleToGoString(quantile));
+                samples.add(new MetricFamilySamples.Sample(name, quantileLabelNames, values,
+                    snapshot.getValue(quantile) / NANOS_PER_SECOND));
+            }
+            samples.add(new MetricFamilySamples.Sample(name + "_count", labelNames, labelValues,
+                reservoir.getCount()));
+            samples.add(new MetricFamilySamples.Sample(name + "_sum", labelNames, labelValues,
+                reservoir.getSum() / NANOS_PER_SECOND));
+        }
+        return List.of(new MetricFamilySamples(name, Type.SUMMARY, help, samples));
+    }
+}
@@ -0,0 +1,127 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.metrics;
+
+import io.prometheus.client.Collector;
+import io.prometheus.client.CollectorRegistry;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.core5.pool.ConnPoolControl;
+import org.apache.hc.core5.pool.PoolStats;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Prometheus collector of the connection pools of the http clients, classic or async, read at scrape time.
+ *
+ * <p>Exported metrics, all labeled with client and route ({@link #routeName(HttpRoute)}, total for the whole
+ * pool)
+ * <ul>
+ * <li>http_client_pool_connections - Gauge of connections with state leased, available or pending
+ * (requests waiting for a connection)</li>
+ * <li>http_client_pool_max_connections - Gauge of the maximum number of connections</li>
+ * </ul>
+ *
+ * @author abhishekkumar
+ */
+public final class HttpClientPoolCollector extends Collector {
+
+    private static final HttpClientPoolCollector INSTANCE = new HttpClientPoolCollector();
+
+    private static final String TOTAL_ROUTE = "total";
+    private static final List<String> LABEL_NAMES = List.of("client", "route");
+    private static final List<String> STATE_LABEL_NAMES = List.of("client", "route", "state");
+
+    private final Map<String, ConnPoolControl<HttpRoute>> pools = new ConcurrentHashMap<>();
+    private volatile boolean registered;
+
+    private HttpClientPoolCollector() {
+    }
+
+    /**
+     * Exposes the pool under the client name, a pool registered again under the same name replaces the
+     * previous one. The collector is registered in the default registry with the first pool.
+     *
+     * @param client client label value
+     * @param pool   connection manager of the client
+     */
+    public static void register(String client, ConnPoolControl<HttpRoute> pool) {
+        INSTANCE.pools.put(client, pool);
+        synchronized (INSTANCE) {
+            if (!INSTANCE.registered) {
+                INSTANCE.register(CollectorRegistry.defaultRegistry);
+                INSTANCE.registered = true;
+            }
+        }
+    }
+
+    /**
+     * Stops exposing the pool of the client, e.g. when its connection manager is closed.
+     *
+     * @param client client label value
+     */
+    public static void unregister(String client) {
+        INSTANCE.pools.remove(client);
+    }
+
+    @Override
+    public List<MetricFamilySamples> collect() {
+        List<MetricFamilySamples.Sample> connections = new ArrayList<>();
+        List<MetricFamilySamples.Sample> max = new ArrayList<>();
+        for (Map.Entry<String, ConnPoolControl<HttpRoute>> pool : pools.entrySet()) {
+            addSamples(connections, max, pool.getKey(), TOTAL_ROUTE, pool.getValue().getTotalStats());
+            for (HttpRoute route : pool.getValue().getRoutes()) {
+                addSamples(connections, max, pool.getKey(), routeName(route), pool.getValue().getStats(route));
+            }
+        }
+        return List.of(
+            new MetricFamilySamples("http_client_pool_connections", Type.GAUGE,
+                "Connections of the http client pool by state", connections),
+            new MetricFamilySamples("http_client_pool_max_connections", Type.GAUGE,
+                "Maximum connections of the http client pool", max));
+    }
+
+    /**
+     * Route label value, the target host followed by the proxy for proxied routes, e.g.
+     * https://example.com:443 via http://proxy:3128. The scheme of the target tells secure routes, so direct
+     * and proxied routes to the same host have distinct label values.
+     *
+     * @param route route of the pool
+     * @return route label value
+     */
+    public static String routeName(HttpRoute route) {
+        String target = route.getTargetHost().toURI();
+        return route.getProxyHost() == null ? target : target + " via " + route.getProxyHost().toURI();
+    }
+
+    private static void addSamples(List<MetricFamilySamples.Sample> connections,
+                                   List<MetricFamilySamples.Sample> max, String client, String route,
+                                   PoolStats stats) {
+        connections.add(new MetricFamilySamples.Sample("http_client_pool_connections", STATE_LABEL_NAMES,
+            List.of(client, route, "leased"), stats.getLeased()));
+        connections.add(new MetricFamilySamples.Sample("http_client_pool_connections", STATE_LABEL_NAMES,
+            List.of(client, route, "available"), stats.getAvailable()));
+        connections.add(new MetricFamilySamples.Sample("http_client_pool_connections", STATE_LABEL_NAMES,
+            List.of(client, route, "pending"), stats.getPending()));
+        max.add(new MetricFamilySamples.Sample("http_client_pool_max_connections", LABEL_NAMES,
+            List.of(client, route), stats.getMax()));
+    }
+}
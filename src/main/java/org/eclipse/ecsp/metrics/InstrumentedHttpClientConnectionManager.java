@@ -0,0 +1,257 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.metrics;
+
+import io.prometheus.client.Counter;
+import io.prometheus.client.Histogram;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.eclipse.ecsp.utils.logger.IgniteLogger;
+import org.eclipse.ecsp.utils.logger.IgniteLoggerFactory;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link HttpClientConnectionManager} decorating a {@link PoolingHttpClientConnectionManager} to time the
+ * wait for a pooled connection and, optionally, to detect leaked connections.
+ *
+ * <p>Exported metrics, labeled with client and route (see {@link HttpClientPoolCollector#routeName(HttpRoute)})
+ * <ul>
+ * <li>http_client_pool_lease_wait_seconds - Histogram of the time from the lease request to a connection
+ * being handed out, or the lease failing</li>
+ * <li>http_client_pool_leaked_connections_total - Counter of connections held longer than the leak
+ * threshold</li>
+ * </ul>
+ * With a positive leak threshold every leased connection is tracked with the stack of the thread leasing it,
+ * connections not released within the threshold are logged once with that stack. Capturing the stack costs
+ * a stack walk per lease, leak detection is meant to be switched on while chasing a leak. The time a connection
+ * is held starts when it is handed out, not when it is requested.
+ *
+ * @author abhishekkumar
+ */
+public class InstrumentedHttpClientConnectionManager implements HttpClientConnectionManager {
+
+    private static final IgniteLogger LOGGER =
+        IgniteLoggerFactory.getLogger(InstrumentedHttpClientConnectionManager.class);
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0D;
+
+    private final String client;
+    private final PoolingHttpClientConnectionManager delegate;
+    private final boolean leaseWaitMetrics;
+    private final long leakThresholdNanos;
+    private final Map<ConnectionEndpoint, Lease> leases = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService leakDetector;
+
+    /**
+     * Creates the decorator, the leak detector runs on a daemon thread every leakThresholdMillis.
+     *
+     * @param client              client label value
+     * @param delegate            decorated connection manager
+     * @param leaseWaitMetrics    whether the lease wait histogram is recorded
+     * @param leakThresholdMillis time a connection can be held before it is reported, 0 disables leak detection
+     */
+    public InstrumentedHttpClientConnectionManager(String client, PoolingHttpClientConnectionManager delegate,
+                                                   boolean leaseWaitMetrics, long leakThresholdMillis) {
+        this.client = client;
+        this.delegate = delegate;
+        this.leaseWaitMetrics = leaseWaitMetrics;
+        this.leakThresholdNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(leakThresholdMillis, 0L));
+        if (leakThresholdMillis > 0) {
+            LOGGER.info("Enabling connection leak detection for http client {} with threshold {} ms",
+                client, leakThresholdMillis);
+            leakDetector = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "http-client-leak-detector-" + client);
+                thread.setDaemon(true);
+                return thread;
+            });
+            leakDetector.scheduleWithFixedDelay(this::detectLeaksSafely, leakThresholdMillis, leakThresholdMillis,
+                TimeUnit.MILLISECONDS);
+        } else {
+            leakDetector = null;
+        }
+    }
+
+    /**
+     * This method is a getter for delegate.
+     *
+     * @return PoolingHttpClientConnectionManager
+     */
+    public PoolingHttpClientConnectionManager getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+        long start = System.nanoTime();
+        LeaseRequest request = delegate.lease(id, route, requestTimeout, state);
+        return new LeaseRequest() {
+            @Override
+            public ConnectionEndpoint get(Timeout timeout)
+                throws InterruptedException, ExecutionException, TimeoutException {
+                try {
+                    ConnectionEndpoint endpoint = request.get(timeout);
+                    if (leakDetector != null) {
+                        // held from now on, the wait for the connection is not part of the lease
+                        leases.put(endpoint, new Lease(route, System.nanoTime()));
+                    }
+                    return endpoint;
+                } finally {
+                    if (leaseWaitMetrics) {
+                        Metrics.LEASE_WAIT.labels(client, HttpClientPoolCollector.routeName(route))
+                            .observe((System.nanoTime() - start) / NANOS_PER_SECOND);
+                    }
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return request.cancel();
+            }
+        };
+    }
+
+    @Override
+    public void release(ConnectionEndpoint endpoint, Object newState, TimeValue validDuration) {
+        leases.remove(endpoint);
+        delegate.release(endpoint, newState, validDuration);
+    }
+
+    @Override
+    public void connect(ConnectionEndpoint endpoint, TimeValue timeout, HttpContext context) throws IOException {
+        delegate.connect(endpoint, timeout, context);
+    }
+
+    @Override
+    public void upgrade(ConnectionEndpoint endpoint, HttpContext context) throws IOException {
+        delegate.upgrade(endpoint, context);
+    }
+
+    @Override
+    public void close(CloseMode closeMode) {
+        stopLeakDetector();
+        delegate.close(closeMode);
+    }
+
+    @Override
+    public void close() throws IOException {
+        stopLeakDetector();
+        delegate.close();
+    }
+
+    private void stopLeakDetector() {
+        if (leakDetector != null) {
+            leakDetector.shutdownNow();
+        }
+    }
+
+    private void detectLeaksSafely() {
+        try {
+            detectLeaks();
+        } catch (RuntimeException e) {
+            LOGGER.error("Error detecting leaked connections", e);
+        }
+    }
+
+    /**
+     * Reports the connections held longer than the leak threshold that were not reported yet.
+     *
+     * @return number of newly reported connections
+     */
+    public int detectLeaks() {
+        long now = System.nanoTime();
+        int leaked = 0;
+        for (Lease lease : leases.values()) {
+            long heldNanos = now - lease.start;
+            if (heldNanos >= leakThresholdNanos && lease.reported.compareAndSet(false, true)) {
+                leaked++;
+                String route = HttpClientPoolCollector.routeName(lease.route);
+                Metrics.LEAKED.labels(client, route).inc();
+                LOGGER.warn("Connection of http client {} to {} held for {} ms without being released, possible leak",
+                    client, route, TimeUnit.NANOSECONDS.toMillis(heldNanos), lease.stack);
+            }
+        }
+        return leaked;
+    }
+
+    /**
+     * Number of connections currently tracked by the leak detector.
+     *
+     * @return leased connections not released yet
+     */
+    public int getTrackedLeases() {
+        return leases.size();
+    }
+
+    /**
+     * Connection lease tracked by the leak detector.
+     */
+    private static final class Lease {
+        private final HttpRoute route;
+        private final long start;
+        private final Throwable stack;
+        private final AtomicBoolean reported = new AtomicBoolean();
+
+        private Lease(HttpRoute route, long start) {
+            this.route = route;
+            this.start = start;
+            this.stack = new Throwable("Connection leased by thread " + Thread.currentThread().getName());
+        }
+    }
+
+    /**
+     * Metrics shared by all the instrumented connection managers, registered on first use.
+     */
+    private static final class Metrics {
+        private static final double[] LEASE_WAIT_BUCKETS = {
+            0.0005, 0.001, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5
+        };
+
+        private static final Histogram LEASE_WAIT = Histogram.build()
+            .name("http_client_pool_lease_wait_seconds")
+            .help("Time waited for a connection from the http client pool")
+            .labelNames("client", "route")
+            .buckets(LEASE_WAIT_BUCKETS)
+            .register();
+
+        private static final Counter LEAKED = Counter.build()
+            .name("http_client_pool_leaked_connections_total")
+            .help("Connections held longer than the leak detection threshold")
+            .labelNames("client", "route")
+            .register();
+
+        private Metrics() {
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.metrics;
+
+import java.util.Locale;
+
+/**
+ * Which metric system collects the JVM metrics (gc, memory, threads).<br/>
+ * Both Prometheus {@link io.prometheus.client.hotspot.DefaultExports} and the Dropwizard JVM gauge sets
+ * introspect the same MX beans, selecting one of them avoids doing that work twice.
+ *
+ * @author abhishekkumar
+ */
+public enum JvmMetricsExports {
+
+    /**
+     * DefaultExports on /metrics and the Dropwizard gauge sets, the default.
+     */
+    BOTH,
+    /**
+     * Only DefaultExports, the Dropwizard registry does not get the JVM gauge sets.
+     */
+    PROMETHEUS,
+    /**
+     * Only the Dropwizard gauge sets, exposed on /metrics through {@link DropwizardSampleBuilder}.
+     */
+    DROPWIZARD;
+
+    /**
+     * Resolves the configured value, case insensitive, unset means {@link #BOTH}.
+     *
+     * @param value configured value
+     * @return JvmMetricsExports
+     * @throws IllegalArgumentException if the value is not a known option
+     */
+    public static JvmMetricsExports from(String value) {
+        if (value == null || value.isBlank()) {
+            return BOTH;
+        }
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Whether {@link io.prometheus.client.hotspot.DefaultExports} should be initialized.
+     *
+     * @return true for BOTH and PROMETHEUS
+     */
+    public boolean prometheus() {
+        return this != DROPWIZARD;
+    }
+
+    /**
+     * Whether the Dropwizard JVM gauge sets should be registered.
+     *
+     * @return true for BOTH and DROPWIZARD
+     */
+    public boolean dropwizard() {
+        return this != PROMETHEUS;
+    }
+}
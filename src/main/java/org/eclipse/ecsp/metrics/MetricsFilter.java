@@ -22,6 +22,7 @@ package org.eclipse.ecsp.metrics;
 import io.prometheus.client.Counter;
 import io.prometheus.client.Gauge;
 import io.prometheus.client.Histogram;
+import io.prometheus.metrics.core.datapoints.Timer;
 import jakarta.servlet.Filter;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.FilterConfig;
@@ -29,8 +30,11 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.ServletRequest;
 import jakarta.servlet.ServletResponse;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.eclipse.ecsp.metrics.jfr.ApiRequestEvent;
 import org.eclipse.ecsp.utils.logger.IgniteLogger;
 import org.eclipse.ecsp.utils.logger.IgniteLoggerFactory;
+import org.springframework.web.servlet.HandlerMapping;
 import java.io.IOException;
 import java.util.List;
 
@@ -57,6 +61,14 @@ import java.util.List;
  *
  * <p>To enable this filter, set metrics.enabled to true.
  *
+ * <p>When native histograms are enabled, api_request_processing_duration_seconds is
+ * exported as a Prometheus native histogram instead of a classic bucketed one.
+ *
+ * <p>When metrics.slo.enabled is true, requests are additionally tracked against the per route
+ * latency SLOs of metrics.slo.routes, see {@link SloTracker}.
+ *
+ * <p>When metrics.jfr.enabled is true, every request is also emitted as a JFR {@link ApiRequestEvent}.
+ *
  * <p>This filter does not support init config. Admittedly ugly. But it is expected
  * to be configured via java config.
  *
@@ -71,10 +83,24 @@ public class MetricsFilter implements Filter {
     private String nodeName;
     
     private double[] apiProcessingDurationBuckets;
+
+    private boolean nativeHistogramsEnabled;
+
+    private int nativeHistogramInitialSchema;
+
+    private int nativeHistogramMaxBuckets;
+
+    private boolean sloEnabled;
+
+    private String sloRoutes;
+
+    private boolean jfrEnabled;
     
     private Counter requestsCounter;
     private Histogram latencyHisto;
+    private io.prometheus.metrics.core.metrics.Histogram nativeLatencyHisto;
     private Gauge inProgressRequests;
+    private SloTracker sloTracker;
 
     @Override
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
@@ -83,8 +109,29 @@ public class MetricsFilter implements Filter {
             String method = ((HttpServletRequest) request).getMethod();
             inProgressRequests.labels(method, nodeName).inc();
             requestsCounter.labels(method, nodeName).inc();
-            try (Histogram.Timer t = latencyHisto.labels(method, nodeName).startTimer()) {
-                chain.doFilter(request, response);
+            long start = System.nanoTime();
+            ApiRequestEvent event = jfrEnabled ? new ApiRequestEvent() : null;
+            if (event != null) {
+                event.begin();
+            }
+            try {
+                if (nativeLatencyHisto != null) {
+                    try (Timer t = nativeLatencyHisto.labelValues(method, nodeName).startTimer()) {
+                        chain.doFilter(request, response);
+                    }
+                } else {
+                    try (Histogram.Timer t = latencyHisto.labels(method, nodeName).startTimer()) {
+                        chain.doFilter(request, response);
+                    }
+                }
+            } finally {
+                if (sloTracker != null) {
+                    sloTracker.record((String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE),
+                        System.nanoTime() - start);
+                }
+                if (event != null) {
+                    commit(event, request, response, method);
+                }
             }
             inProgressRequests.labels(method, nodeName).dec();
         } else {
@@ -92,6 +139,19 @@ public class MetricsFilter implements Filter {
         }
     }
     
+    private static void commit(ApiRequestEvent event, ServletRequest request, ServletResponse response,
+                               String method) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.setMethod(method);
+            event.setRoute((String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE));
+            if (response instanceof HttpServletResponse httpResponse) {
+                event.setStatus(httpResponse.getStatus());
+            }
+            event.commit();
+        }
+    }
+    
     @Override
     public void init(FilterConfig fc) {
         LOGGER.info("metricsEnabled: {}", metricsEnabled);
@@ -101,15 +161,25 @@ public class MetricsFilter implements Filter {
             requestsCounter = Counter.build().name("api_requests_total").help("Counter for api requests")
                 .labelNames(labelNames)
                 .register();
-            latencyHisto = Histogram.build().name("api_request_processing_duration_seconds")
-                .help("API request processing duration in seconds (incl Spring)")
-                .buckets(apiProcessingDurationBuckets)
-                .labelNames(labelNames)
-                .register();
+            if (nativeHistogramsEnabled) {
+                nativeLatencyHisto = NativeHistograms.register("api_request_processing_duration_seconds",
+                    "API request processing duration in seconds (incl Spring)",
+                    nativeHistogramInitialSchema, nativeHistogramMaxBuckets, labelNames);
+            } else {
+                latencyHisto = Histogram.build().name("api_request_processing_duration_seconds")
+                    .help("API request processing duration in seconds (incl Spring)")
+                    .buckets(apiProcessingDurationBuckets)
+                    .labelNames(labelNames)
+                    .register();
+            }
             inProgressRequests = Gauge.build().name("api_inprogress_requests")
                 .help("Number of requests being served at this instant")
                 .labelNames(labelNames)
                 .register();
+            if (sloEnabled) {
+                LOGGER.info("sloRoutes: {}", sloRoutes);
+                sloTracker = new SloTracker(SloTracker.parseRoutes(sloRoutes), nodeName).register();
+            }
         }
     }
 
@@ -166,4 +236,112 @@ public class MetricsFilter implements Filter {
     public void setMetricsEnabled(boolean metricsEnabled) {
         this.metricsEnabled = metricsEnabled;
     }
+
+    /**
+     * This method is a getter for nativeHistogramsEnabled.
+     *
+     * @return boolean
+     */
+    public boolean isNativeHistogramsEnabled() {
+        return nativeHistogramsEnabled;
+    }
+
+    /**
+     * This method is a setter for nativeHistogramsEnabled.
+     *
+     * @param nativeHistogramsEnabled : boolean
+     */
+    public void setNativeHistogramsEnabled(boolean nativeHistogramsEnabled) {
+        this.nativeHistogramsEnabled = nativeHistogramsEnabled;
+    }
+
+    /**
+     * This method is a getter for nativeHistogramInitialSchema.
+     *
+     * @return int
+     */
+    public int getNativeHistogramInitialSchema() {
+        return nativeHistogramInitialSchema;
+    }
+
+    /**
+     * This method is a setter for nativeHistogramInitialSchema.
+     *
+     * @param nativeHistogramInitialSchema : int
+     */
+    public void setNativeHistogramInitialSchema(int nativeHistogramInitialSchema) {
+        this.nativeHistogramInitialSchema = nativeHistogramInitialSchema;
+    }
+
+    /**
+     * This method is a getter for nativeHistogramMaxBuckets.
+     *
+     * @return int
+     */
+    public int getNativeHistogramMaxBuckets() {
+        return nativeHistogramMaxBuckets;
+    }
+
+    /**
+     * This method is a setter for nativeHistogramMaxBuckets.
+     *
+     * @param nativeHistogramMaxBuckets : int
+     */
+    public void setNativeHistogramMaxBuckets(int nativeHistogramMaxBuckets) {
+        this.nativeHistogramMaxBuckets = nativeHistogramMaxBuckets;
+    }
+
+    /**
+     * This method is a getter for sloEnabled.
+     *
+     * @return boolean
+     */
+    public boolean isSloEnabled() {
+        return sloEnabled;
+    }
+
+    /**
+     * This method is a setter for sloEnabled.
+     *
+     * @param sloEnabled : boolean
+     */
+    public void setSloEnabled(boolean sloEnabled) {
+        this.sloEnabled = sloEnabled;
+    }
+
+    /**
+     * This method is a getter for sloRoutes.
+     *
+     * @return String
+     */
+    public String getSloRoutes() {
+        return sloRoutes;
+    }
+
+    /**
+     * This method is a setter for sloRoutes, pattern|latencyMillis|objective comma separated.
+     *
+     * @param sloRoutes : String
+     */
+    public void setSloRoutes(String sloRoutes) {
+        this.sloRoutes = sloRoutes;
+    }
+
+    /**
+     * This method is a getter for jfrEnabled.
+     *
+     * @return boolean
+     */
+    public boolean isJfrEnabled() {
+        return jfrEnabled;
+    }
+
+    /**
+     * This method is a setter for jfrEnabled.
+     *
+     * @param jfrEnabled : boolean
+     */
+    public void setJfrEnabled(boolean jfrEnabled) {
+        this.jfrEnabled = jfrEnabled;
+    }
 }
\ No newline at end of file
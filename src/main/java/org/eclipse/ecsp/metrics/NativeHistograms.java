@@ -0,0 +1,92 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.metrics;
+
+import io.prometheus.client.CollectorRegistry;
+import io.prometheus.metrics.core.metrics.Histogram;
+import io.prometheus.metrics.model.registry.PrometheusRegistry;
+import io.prometheus.metrics.simpleclient.bridge.SimpleclientCollector;
+import org.eclipse.ecsp.utils.logger.IgniteLogger;
+import org.eclipse.ecsp.utils.logger.IgniteLoggerFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Helper for Prometheus native (sparse) histograms.<br/>
+ * Native histograms use exponential buckets whose resolution is controlled by the schema,
+ * each label set is exported as a single series instead of one series per bucket.
+ * They live in the {@link PrometheusRegistry} of the newer client library, which is bridged
+ * to the simpleclient {@link CollectorRegistry} so both are exposed by {@link PrometheusMetricsExporter}.
+ *
+ * @author abhishekkumar
+ */
+public final class NativeHistograms {
+
+    private static final IgniteLogger LOGGER = IgniteLoggerFactory.getLogger(NativeHistograms.class);
+
+    private static final AtomicBoolean BRIDGED = new AtomicBoolean(false);
+
+    private NativeHistograms() {
+    }
+
+    /**
+     * Builds and registers a native only histogram in {@link PrometheusRegistry#defaultRegistry}.
+     *
+     * @param name          metric name
+     * @param help          metric help text
+     * @param initialSchema initial schema (-4 to 8), higher means finer buckets, reduced when maxBuckets is hit
+     * @param maxBuckets    maximum number of buckets per label set
+     * @param labelNames    label names
+     * @return registered histogram
+     */
+    public static Histogram register(String name, String help, int initialSchema, int maxBuckets,
+                                     String... labelNames) {
+        LOGGER.info("Registering native histogram {} with initial schema {} and max buckets {}",
+            name, initialSchema, maxBuckets);
+        bridgeSimpleclient();
+        return Histogram.builder()
+            .name(name)
+            .help(help)
+            .labelNames(labelNames)
+            .nativeOnly()
+            .nativeInitialSchema(initialSchema)
+            .nativeMaxNumberOfBuckets(maxBuckets)
+            .register();
+    }
+
+    /**
+     * Registers the simpleclient {@link CollectorRegistry#defaultRegistry} in
+     * {@link PrometheusRegistry#defaultRegistry}, once.
+     */
+    public static void bridgeSimpleclient() {
+        if (BRIDGED.compareAndSet(false, true)) {
+            SimpleclientCollector.builder()
+                .collectorRegistry(CollectorRegistry.defaultRegistry)
+                .register(PrometheusRegistry.defaultRegistry);
+        }
+    }
+
+    /**
+     * Clears {@link PrometheusRegistry#defaultRegistry}, the simpleclient bridge included, so the bridge is
+     * registered again on next use. Meant for tests that need a fresh registry.
+     */
+    static void reset() {
+        PrometheusRegistry.defaultRegistry.clear();
+        BRIDGED.set(false);
+    }
+}
@@ -18,7 +18,9 @@
 
 package org.eclipse.ecsp.metrics;
 
+import com.codahale.metrics.ExponentiallyDecayingReservoir;
 import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.MetricRegistryListener;
 import com.codahale.metrics.Timer;
 import com.codahale.metrics.Timer.Context;
 import io.prometheus.client.Histogram;
@@ -26,25 +28,40 @@ import io.prometheus.client.hotspot.DefaultExports;
 import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
 import org.aspectj.lang.ProceedingJoinPoint;
-import org.aspectj.lang.annotation.Around;
-import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.Signature;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.eclipse.ecsp.metrics.jfr.ControllerInvocationEvent;
 import org.eclipse.ecsp.utils.logger.IgniteLogger;
 import org.eclipse.ecsp.utils.logger.IgniteLoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.stereotype.Component;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.HandlerMapping;
+import java.io.Closeable;
+import java.lang.reflect.Method;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
- * {@link PerformanceMonitorAspect} and histogram of the api request with the processing duration.
+ * {@link PerformanceMonitorAspect} and histogram of the api request with the processing duration.<br/>
+ * Applied to the application beans by {@link org.eclipse.ecsp.configurations.PerformanceMonitorConfig},
+ * not registered when both metrics.enabled and performance.monitoring.enabled are false.
  *
  * @author abhishekkumar
  */
-@Aspect
 @Component
+@ConditionalOnExpression(PerformanceMonitorAspect.MONITORING_ENABLED_EXPRESSION)
 public class PerformanceMonitorAspect {
+
+    /**
+     * Condition under which performance monitoring is registered.
+     */
+    public static final String MONITORING_ENABLED_EXPRESSION =
+        "${metrics.enabled:false} or ${performance.monitoring.enabled:false}";
     
     private static final IgniteLogger LOGGER =
         IgniteLoggerFactory.getLogger(PerformanceMonitorAspect.class);
@@ -60,9 +77,6 @@ public class PerformanceMonitorAspect {
 
     private HttpServletRequest request;
 
-    @Value("${performance.pointcut.expression:execution(* org.eclipse.ecsp..*.*(..))}")
-    private String pointcutExpression;
-
     @Value("${performance.monitoring.enabled}")
     private boolean legacyPerformanceMonitoringEnabled;
     @Value("${metrics.enabled}")
@@ -72,8 +86,41 @@ public class PerformanceMonitorAspect {
     private double[] apiProcessingDurationBuckets;
     @Value("${node.name:undefined}")
     private String nodeName;
+    @Value("${performance.hdr.histogram.enabled:false}")
+    private boolean hdrHistogramEnabled;
+    @Value("${performance.hdr.histogram.highest.trackable.seconds:60}")
+    private long hdrHighestTrackableSeconds;
+    @Value("${performance.hdr.histogram.significant.digits:2}")
+    private int hdrSignificantDigits;
+    @Value("${performance.hdr.histogram.window.seconds:60}")
+    private long hdrWindowSeconds;
+    @Value("${performance.hdr.histogram.window.slots:6}")
+    private int hdrWindowSlots;
+    private HdrLatencyCollector hdrLatencyHisto;
+    @Value("${performance.rolling.window.enabled:false}")
+    private boolean rollingWindowEnabled;
+    @Value("${metrics.native.histograms.enabled:false}")
+    private boolean nativeHistogramsEnabled;
+    @Value("${metrics.native.histograms.initial.schema:5}")
+    private int nativeHistogramInitialSchema;
+    @Value("${metrics.native.histograms.max.buckets:160}")
+    private int nativeHistogramMaxBuckets;
+    private io.prometheus.metrics.core.metrics.Histogram nativeLatencyHisto;
+    @Value("${metrics.jfr.enabled:false}")
+    private boolean jfrEnabled;
+    @Value("${metrics.dropwizard.bridge.enabled:false}")
+    private boolean dropwizardBridgeEnabled;
+    @Value("${metrics.jvm.exports:both}")
+    private String jvmExports;
+    private ApiStackSampler stackSampler;
     
-    private final ThreadLocal<String> currentApi = new ThreadLocal<>();
+    private final ThreadLocal<LegacyApi> currentApi = new ThreadLocal<>();
+
+    /**
+     * Legacy timers per controller method. Keyed by the advised {@link Method} rather than
+     * {@link org.aspectj.lang.JoinPoint.StaticPart}, Spring AOP creates a new static part per invocation.
+     */
+    private final Map<Method, LegacyApi> legacyApis = new ConcurrentHashMap<>();
 
     /**
      * Constructor for {@link PerformanceMonitorAspect}.
@@ -87,24 +134,68 @@ public class PerformanceMonitorAspect {
         this.request = request;
     }
 
+    /**
+     * This method is a setter for stackSampler, only present when performance.profiler.enabled is true.
+     *
+     * @param stackSampler : ApiStackSampler
+     */
+    @Autowired(required = false)
+    public void setStackSampler(ApiStackSampler stackSampler) {
+        this.stackSampler = stackSampler;
+    }
+
     /**
      * register and export histogram of the api request with the processing duration.
      */
     @PostConstruct
     public void init() {
         LOGGER.info("metrics enabled: {}", newAgeMetricsEnabled);
+        if (legacyPerformanceMonitoringEnabled) {
+            // cached timers must not outlive their registration, e.g. after /v1/metrics/reset
+            registry.addListener(new MetricRegistryListener.Base() {
+                @Override
+                public void onTimerRemoved(String name) {
+                    clearLegacyTimers();
+                }
+            });
+        }
         if (newAgeMetricsEnabled) {
-            LOGGER.info("Initializing default exports for prometheus");
-            DefaultExports.initialize();
+            JvmMetricsExports exports = JvmMetricsExports.from(jvmExports);
+            if (exports.prometheus()) {
+                LOGGER.info("Initializing default exports for prometheus");
+                DefaultExports.initialize();
+            }
+            // the Dropwizard JVM gauge sets only reach /metrics through the bridge
+            if (dropwizardBridgeEnabled || !exports.prometheus()) {
+                LOGGER.info("Exposing the dropwizard metric registry for prometheus");
+                DropwizardSampleBuilder.register(registry);
+            }
             LOGGER.info("apiProcessingDurationBuckets: {}", List.of(apiProcessingDurationBuckets));
             String[] labelNames = new String[] {"api", "method", "node"};
-            latencyHisto = Histogram.build().name("rest_processing_duration_seconds")
-                .help("REST api processing duration in seconds (excl Spring)")
-                .buckets(apiProcessingDurationBuckets)
-                .labelNames(labelNames)
-                .register();
+            if (nativeHistogramsEnabled) {
+                nativeLatencyHisto = NativeHistograms.register("rest_processing_duration_seconds",
+                    "REST api processing duration in seconds (excl Spring)",
+                    nativeHistogramInitialSchema, nativeHistogramMaxBuckets, labelNames);
+            } else {
+                latencyHisto = Histogram.build().name("rest_processing_duration_seconds")
+                    .help("REST api processing duration in seconds (excl Spring)")
+                    .buckets(apiProcessingDurationBuckets)
+                    .labelNames(labelNames)
+                    .register();
+            }
+            if (hdrHistogramEnabled) {
+                LOGGER.info("Registering HdrHistogram backed latency summary");
+                hdrLatencyHisto = new HdrLatencyCollector("rest_processing_duration_hdr_seconds",
+                    "REST api processing duration in seconds (excl Spring), HdrHistogram quantiles",
+                    this::newHdrReservoir, labelNames).register();
+            }
         }
     }
+
+    private HdrHistogramReservoir newHdrReservoir() {
+        return new HdrHistogramReservoir(TimeUnit.SECONDS.toNanos(hdrHighestTrackableSeconds),
+            hdrSignificantDigits, hdrWindowSeconds, hdrWindowSlots);
+    }
     
     /**
      * adding api metrics to the api request duration histogram.<br/>
@@ -116,9 +207,6 @@ public class PerformanceMonitorAspect {
      * @return object which is return by actual method call
      * @throws Throwable if any error occurs
      */
-    @SuppressWarnings("unchecked")
-
-    @Around("#{pointcutExpression}")
     public Object monitor(ProceedingJoinPoint jp) throws Throwable {
         if (newAgeMetricsEnabled
             && jp.getSignature().getDeclaringType().isAnnotationPresent(RestController.class)) {
@@ -129,29 +217,42 @@ public class PerformanceMonitorAspect {
                     anonymizeUrl(request.getRequestURL().toString()));
                 api = "unknown";
             }
-            try (io.prometheus.client.Histogram.Timer t = latencyHisto.labels(api, request.getMethod(),
-                nodeName).startTimer()) {
+            String method = request.getMethod();
+            long start = System.nanoTime();
+            ControllerInvocationEvent event = beginControllerEvent();
+            String previousTag = tagThread(api);
+            try (Closeable t = startLatencyTimer(api, method)) {
                 return jp.proceed();
+            } finally {
+                restoreThreadTag(previousTag);
+                if (hdrLatencyHisto != null) {
+                    hdrLatencyHisto.record(System.nanoTime() - start, api, method, nodeName);
+                }
+                commit(event, api, method, jp);
             }
         } else if (legacyPerformanceMonitoringEnabled) {
             boolean apiLayer = false;
-            if (jp.getSignature().getDeclaringTypeName().endsWith("Controller")) {
+            Signature signature = jp.getSignature();
+            if (signature.getDeclaringTypeName().endsWith("Controller")) {
                 // this is the Controller class
-                currentApi.set(jp.getSignature().toLongString());
+                currentApi.set(legacyApi(signature));
                 apiLayer = true;
             }
-            String api = currentApi.get();
+            LegacyApi api = currentApi.get();
             if (api == null) {
                 return jp.proceed();
             } else {
-                Timer t = registry.timer("api=" + api + ",method=" + jp.toLongString());
-                Context c = t.time();
+                Context c = legacyTimer(api, jp).time();
+                ControllerInvocationEvent event = apiLayer ? beginControllerEvent() : null;
+                String previousTag = apiLayer ? tagThread(api.name()) : null;
                 try {
                     return jp.proceed();
                 } finally {
                     c.stop();
                     if (apiLayer) {
+                        restoreThreadTag(previousTag);
                         currentApi.remove();
+                        commit(event, api.name(), null, jp);
                     }
                 }
             }
@@ -160,8 +261,91 @@ public class PerformanceMonitorAspect {
         }
     }
     
+    private String tagThread(String api) {
+        return stackSampler == null ? null : stackSampler.tag(api);
+    }
+
+    private void restoreThreadTag(String previousTag) {
+        if (stackSampler != null) {
+            stackSampler.restore(previousTag);
+        }
+    }
+
+    private ControllerInvocationEvent beginControllerEvent() {
+        if (!jfrEnabled) {
+            return null;
+        }
+        ControllerInvocationEvent event = new ControllerInvocationEvent();
+        event.begin();
+        return event;
+    }
+
+    private static void commit(ControllerInvocationEvent event, String api, String method, ProceedingJoinPoint jp) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.setApi(api);
+            event.setMethod(method);
+            event.setHandler(jp.getSignature().toShortString());
+            event.commit();
+        }
+    }
+
+    private LegacyApi legacyApi(Signature signature) {
+        if (signature instanceof MethodSignature methodSignature) {
+            return legacyApis.computeIfAbsent(methodSignature.getMethod(),
+                m -> new LegacyApi(signature.toLongString(), new ConcurrentHashMap<>()));
+        }
+        return new LegacyApi(signature.toLongString(), new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Timer for the advised method within the current api. The timer name is only built the first time
+     * a method is seen for an api, afterwards it is a lookup by {@link Method}.
+     */
+    private Timer legacyTimer(LegacyApi api, ProceedingJoinPoint jp) {
+        if (jp.getSignature() instanceof MethodSignature methodSignature) {
+            return api.timers().computeIfAbsent(methodSignature.getMethod(), m -> registerLegacyTimer(api, jp));
+        }
+        return registerLegacyTimer(api, jp);
+    }
+
+    private Timer registerLegacyTimer(LegacyApi api, ProceedingJoinPoint jp) {
+        String timerName = "api=" + api.name() + ",method=" + jp.toLongString();
+        if (rollingWindowEnabled) {
+            return registry.timer(timerName, () -> new RollingWindowTimer(hdrHistogramEnabled
+                ? newHdrReservoir() : new ExponentiallyDecayingReservoir()));
+        }
+        return hdrHistogramEnabled
+            ? registry.timer(timerName, () -> new Timer(newHdrReservoir()))
+            : registry.timer(timerName);
+    }
+
+    private void clearLegacyTimers() {
+        legacyApis.values().forEach(api -> api.timers().clear());
+        legacyApis.clear();
+    }
+
+    private Closeable startLatencyTimer(String api, String method) {
+        if (nativeLatencyHisto != null) {
+            return nativeLatencyHisto.labelValues(api, method, nodeName).startTimer();
+        }
+        return latencyHisto.labels(api, method, nodeName).startTimer();
+    }
+
     private String anonymizeUrl(String requestUrl) {
         return requestUrl.replaceAll("/users/[a-zA-Z0-9]*/", "/users/{uid}/")
             .replaceAll("/vehicles/[a-zA-Z0-9]*/", "/vehicles/{vid}/");
     }
+
+    /**
+     * Legacy api (controller method signature) and the timers of the methods invoked within it.
+     *
+     * @param name   controller method long signature
+     * @param timers timers by advised method
+     */
+    private record LegacyApi(String name, Map<Method, Timer> timers) {
+    }
 }
@@ -20,17 +20,34 @@ package org.eclipse.ecsp.metrics;
 
 import io.prometheus.client.CollectorRegistry;
 import io.prometheus.client.exporter.common.TextFormat;
+import io.prometheus.metrics.expositionformats.ExpositionFormatWriter;
+import io.prometheus.metrics.expositionformats.ExpositionFormats;
+import io.prometheus.metrics.expositionformats.PrometheusProtobufWriter;
+import io.prometheus.metrics.model.registry.PrometheusRegistry;
+import jakarta.annotation.PostConstruct;
 import org.apache.commons.io.output.StringBuilderWriter;
 import org.eclipse.ecsp.utils.logger.IgniteLogger;
 import org.eclipse.ecsp.utils.logger.IgniteLoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Exposes metrics to prometheus for scraping at /metrics path. This controller
  * is enabled only if metrics.enabled is true
  *
+ * <p>When metrics.native.histograms.enabled is true the simpleclient registry is bridged into the
+ * {@link PrometheusRegistry} holding the native histograms, and the response format is negotiated
+ * from the Accept header. Native histograms are only carried by the protobuf format, the text
+ * format exposes just their count and sum.
+ *
  * @author ssasidharan
  */
 @RestController
@@ -45,6 +62,23 @@ public class PrometheusMetricsExporter {
      * CAPACITY.
      */
     public static final int CAPACITY = 1024;
+
+    @Value("${metrics.native.histograms.enabled:false}")
+    private boolean nativeHistogramsEnabled;
+
+    private ExpositionFormats expositionFormats;
+
+    /**
+     * bridge the simpleclient registry when native histograms are enabled.
+     */
+    @PostConstruct
+    public void init() {
+        if (nativeHistogramsEnabled) {
+            LOGGER.info("Native histograms enabled, exporting from the bridged prometheus registry");
+            NativeHistograms.bridgeSimpleclient();
+            expositionFormats = ExpositionFormats.init();
+        }
+    }
     
     /**
      * API to fetch prometheus metrics.
@@ -54,6 +88,9 @@ public class PrometheusMetricsExporter {
     @GetMapping(path = "/metrics", produces = TextFormat.CONTENT_TYPE_004)
     public String get() {
         LOGGER.debug("Fetching prometheus metrics");
+        if (nativeHistogramsEnabled) {
+            return new String(scrape(expositionFormats.getPrometheusTextFormatWriter()), StandardCharsets.UTF_8);
+        }
         StringBuilderWriter writer = new StringBuilderWriter(CAPACITY);
         try (writer) {
             TextFormat.write004(writer, CollectorRegistry.defaultRegistry.metricFamilySamples());
@@ -65,4 +102,36 @@ public class PrometheusMetricsExporter {
         LOGGER.debug("Prometheus metrics export complete");
         return writer.getBuilder().toString();
     }
+
+    /**
+     * API to fetch prometheus metrics in the format negotiated from the Accept header.<br/>
+     * Selected by scrapers preferring the protobuf format, which is required to scrape native histograms.
+     * Falls back to the text format when native histograms are disabled.
+     *
+     * @param accept Accept header of the scrape request
+     * @return prometheus metrics
+     */
+    @GetMapping(path = "/metrics", produces = PrometheusProtobufWriter.CONTENT_TYPE)
+    public ResponseEntity<byte[]> getNegotiated(@RequestHeader(HttpHeaders.ACCEPT) String accept) {
+        if (!nativeHistogramsEnabled) {
+            return ResponseEntity.ok().contentType(MediaType.parseMediaType(TextFormat.CONTENT_TYPE_004))
+                .body(get().getBytes(StandardCharsets.UTF_8));
+        }
+        LOGGER.debug("Fetching prometheus metrics for Accept {}", accept);
+        ExpositionFormatWriter writer = expositionFormats.findWriter(accept);
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(writer.getContentType()))
+            .body(scrape(writer));
+    }
+
+    private byte[] scrape(ExpositionFormatWriter writer) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(CAPACITY);
+        try {
+            writer.write(out, PrometheusRegistry.defaultRegistry.scrape());
+        } catch (Exception e) {
+            LOGGER.warn("Could not write out metrics, sending empty response", e);
+            return new byte[0];
+        }
+        LOGGER.debug("Prometheus metrics export complete");
+        return out.toByteArray();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,286 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.metrics;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+import com.codahale.metrics.UniformReservoir;
+import com.codahale.metrics.WeightedSnapshot;
+import com.codahale.metrics.WeightedSnapshot.WeightedSample;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Dropwizard {@link Timer} which additionally keeps the durations of the last 1, 5 and 15 minutes, and of
+ * the interval since the last {@link #markInterval()}.<br/>
+ * Windows are built from a ring of per minute buckets, each holding the exact count and a uniform sample of
+ * at most {@value #SAMPLES_PER_MINUTE} durations, so the memory of a timer is bounded whatever the request
+ * rate. A window covers its whole minutes plus the current, partial, minute and its snapshot weighs the
+ * samples of every minute by the minute's count.<br/>
+ * The lifetime snapshot ({@link #getSnapshot()}) is unaffected, so windows and intervals can be
+ * compared without removing timers from the registry.
+ *
+ * @author abhishekkumar
+ */
+public class RollingWindowTimer extends Timer {
+
+    /**
+     * Rolling windows kept by the timer.
+     */
+    public enum Window {
+        /**
+         * last minute.
+         */
+        ONE_MINUTE("1m", 1),
+        /**
+         * last 5 minutes.
+         */
+        FIVE_MINUTES("5m", 5),
+        /**
+         * last 15 minutes.
+         */
+        FIFTEEN_MINUTES("15m", 15);
+
+        private final String label;
+        private final long minutes;
+
+        Window(String label, long minutes) {
+            this.label = label;
+            this.minutes = minutes;
+        }
+
+        /**
+         * This method is a getter for label.
+         *
+         * @return label e.g. 5m
+         */
+        public String getLabel() {
+            return label;
+        }
+
+        /**
+         * find the window by its label.
+         *
+         * @param label e.g. 5m
+         * @return {@link Window}
+         * @throws IllegalArgumentException if no window has this label
+         */
+        public static Window fromLabel(String label) {
+            for (Window window : values()) {
+                if (window.label.equalsIgnoreCase(label)) {
+                    return window;
+                }
+            }
+            throw new IllegalArgumentException("Unknown window: " + label);
+        }
+    }
+
+    /**
+     * Maximum number of durations sampled per minute bucket.
+     */
+    public static final int SAMPLES_PER_MINUTE = 256;
+
+    /**
+     * Longest window plus the current minute.
+     */
+    private static final int MINUTE_BUCKETS = 16;
+
+    private static final long MILLIS_PER_MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+    private final Clock clock;
+    private final AtomicReferenceArray<MinuteBucket> buckets = new AtomicReferenceArray<>(MINUTE_BUCKETS);
+    private final AtomicReference<Interval> interval = new AtomicReference<>();
+
+    /**
+     * Creates the timer, lifetime durations are kept in the given reservoir.
+     *
+     * @param reservoir lifetime reservoir
+     */
+    public RollingWindowTimer(Reservoir reservoir) {
+        this(reservoir, Clock.defaultClock());
+    }
+
+    /**
+     * Creates the timer with the clock placing durations in the minute buckets.
+     *
+     * @param reservoir lifetime reservoir
+     * @param clock     clock of the rolling windows
+     */
+    RollingWindowTimer(Reservoir reservoir, Clock clock) {
+        super(reservoir);
+        this.clock = clock;
+        interval.set(new Interval(System.currentTimeMillis()));
+    }
+
+    @Override
+    public void update(long duration, TimeUnit unit) {
+        super.update(duration, unit);
+        long nanos = unit.toNanos(duration);
+        if (nanos >= 0) {
+            bucket(currentMinute()).update(nanos);
+            interval.get().histogram.update(nanos);
+        }
+    }
+
+    @Override
+    public void update(Duration duration) {
+        update(duration.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public <T> T time(Callable<T> event) throws Exception {
+        try (Context c = time()) {
+            return event.call();
+        }
+    }
+
+    @Override
+    public void time(Runnable event) {
+        try (Context c = time()) {
+            event.run();
+        }
+    }
+
+    @Override
+    public <T> T timeSupplier(Supplier<T> event) {
+        try (Context c = time()) {
+            return event.get();
+        }
+    }
+
+    /**
+     * Snapshot of the durations recorded within the window.
+     *
+     * @param window rolling window
+     * @return {@link Snapshot} of the window
+     */
+    public Snapshot getSnapshot(Window window) {
+        long minute = currentMinute();
+        List<WeightedSample> samples = new ArrayList<>();
+        for (long m = minute - window.minutes; m <= minute; m++) {
+            MinuteBucket bucket = buckets.get(index(m));
+            if (bucket != null && bucket.minute == m) {
+                long[] values = bucket.samples.getSnapshot().getValues();
+                double weight = (double) bucket.count.sum() / Math.max(values.length, 1);
+                for (long value : values) {
+                    samples.add(new WeightedSample(value, weight));
+                }
+            }
+        }
+        return new WeightedSnapshot(samples);
+    }
+
+    /**
+     * Number of durations recorded within the window.
+     *
+     * @param window rolling window
+     * @return count within the window
+     */
+    public long getCount(Window window) {
+        long minute = currentMinute();
+        long count = 0;
+        for (long m = minute - window.minutes; m <= minute; m++) {
+            MinuteBucket bucket = buckets.get(index(m));
+            if (bucket != null && bucket.minute == m) {
+                count += bucket.count.sum();
+            }
+        }
+        return count;
+    }
+
+    private long currentMinute() {
+        return clock.getTime() / MILLIS_PER_MINUTE;
+    }
+
+    private static int index(long minute) {
+        return (int) Math.floorMod(minute, (long) MINUTE_BUCKETS);
+    }
+
+    /**
+     * Bucket of the minute, replacing the bucket of an older minute at the same position of the ring.
+     */
+    private MinuteBucket bucket(long minute) {
+        int index = index(minute);
+        MinuteBucket bucket = buckets.get(index);
+        while (bucket == null || bucket.minute < minute) {
+            MinuteBucket fresh = new MinuteBucket(minute);
+            if (buckets.compareAndSet(index, bucket, fresh)) {
+                return fresh;
+            }
+            bucket = buckets.get(index);
+        }
+        return bucket;
+    }
+
+    /**
+     * Closes the current interval and starts a new one.
+     *
+     * @return the closed interval
+     */
+    public IntervalSnapshot markInterval() {
+        Interval closed = interval.getAndSet(new Interval(System.currentTimeMillis()));
+        return new IntervalSnapshot(closed.startMillis, System.currentTimeMillis(), closed.histogram.getCount(),
+            closed.histogram.getSnapshot());
+    }
+
+    /**
+     * Durations recorded between two marks.
+     *
+     * @param startMillis start of the interval
+     * @param endMillis   end of the interval
+     * @param count       number of durations recorded
+     * @param snapshot    sampled durations (nanoseconds)
+     */
+    public record IntervalSnapshot(long startMillis, long endMillis, long count, Snapshot snapshot) {
+    }
+
+    private static final class MinuteBucket {
+        private final long minute;
+        private final LongAdder count = new LongAdder();
+        private final UniformReservoir samples = new UniformReservoir(SAMPLES_PER_MINUTE);
+
+        MinuteBucket(long minute) {
+            this.minute = minute;
+        }
+
+        void update(long nanos) {
+            count.increment();
+            samples.update(nanos);
+        }
+    }
+
+    private static final class Interval {
+        private final long startMillis;
+        private final Histogram histogram = new Histogram(new UniformReservoir());
+
+        Interval(long startMillis) {
+            this.startMillis = startMillis;
+        }
+    }
+}
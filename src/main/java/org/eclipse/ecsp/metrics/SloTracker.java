@@ -0,0 +1,246 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.metrics;
+
+import io.prometheus.client.Collector;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Per route latency SLO tracker.<br/>
+ * Every request to a configured route (best matching pattern) is classified good when it completes
+ * within the route's latency threshold, bad otherwise. Good/bad counts are kept in a ring of one minute
+ * buckets so burn rates over several windows are computed in process at scrape time.
+ *
+ * <p>Exported metrics, all labeled with route and node
+ * <ul>
+ * <li>api_slo_requests_total - Counter of requests with result good or bad</li>
+ * <li>api_slo_burn_rate - Gauge of error budget burn rate per window (5m, 30m, 1h, 6h),
+ * 1 means the budget is consumed exactly at the end of the SLO period</li>
+ * <li>api_slo_objective - Gauge of the configured objective</li>
+ * <li>api_slo_latency_threshold_seconds - Gauge of the configured latency threshold</li>
+ * </ul>
+ *
+ * @author abhishekkumar
+ */
+public class SloTracker extends Collector {
+
+    private static final int[] WINDOW_MINUTES = {5, 30, 60, 360};
+    private static final String[] WINDOW_LABELS = {"5m", "30m", "1h", "6h"};
+    private static final int BUCKETS = 360;
+    private static final double MILLIS_PER_SECOND = 1000.0D;
+    private static final String ROUTE_SEPARATOR = ",";
+    private static final String FIELD_SEPARATOR = "\\|";
+    private static final int ROUTE_FIELDS = 3;
+    private static final int OBJECTIVE_FIELD = 2;
+
+    private static final List<String> LABEL_NAMES = List.of("route", "node");
+    private static final List<String> RESULT_LABEL_NAMES = List.of("route", "node", "result");
+    private static final List<String> WINDOW_LABEL_NAMES = List.of("route", "node", "window");
+
+    private final Map<String, RouteSlo> routes;
+    private final String nodeName;
+    private final LongSupplier currentTimeMillis;
+
+    /**
+     * Creates the tracker, call {@link #register()} to expose it.
+     *
+     * @param routes   SLO per route
+     * @param nodeName node label value
+     */
+    public SloTracker(List<Route> routes, String nodeName) {
+        this(routes, nodeName, System::currentTimeMillis);
+    }
+
+    SloTracker(List<Route> routes, String nodeName, LongSupplier currentTimeMillis) {
+        Map<String, RouteSlo> byPattern = new HashMap<>();
+        for (Route route : routes) {
+            byPattern.put(route.pattern(), new RouteSlo(route));
+        }
+        this.routes = Map.copyOf(byPattern);
+        this.nodeName = nodeName;
+        this.currentTimeMillis = currentTimeMillis;
+    }
+
+    /**
+     * Parses routes in the format pattern|latencyMillis|objective, comma separated.<br/>
+     * e.g. /v1/users/{userId}|300|0.99,/v1/vehicles|500|0.995
+     *
+     * @param routes route definitions
+     * @return parsed routes
+     * @throws IllegalArgumentException if a route definition is malformed
+     */
+    public static List<Route> parseRoutes(String routes) {
+        List<Route> parsed = new ArrayList<>();
+        if (routes == null || routes.isBlank()) {
+            return parsed;
+        }
+        for (String route : routes.split(ROUTE_SEPARATOR)) {
+            if (route.isBlank()) {
+                continue;
+            }
+            String[] fields = route.trim().split(FIELD_SEPARATOR);
+            if (fields.length != ROUTE_FIELDS) {
+                throw new IllegalArgumentException("Invalid SLO route definition: " + route);
+            }
+            double objective = Double.parseDouble(fields[OBJECTIVE_FIELD].trim());
+            if (objective <= 0 || objective >= 1) {
+                throw new IllegalArgumentException("SLO objective must be between 0 and 1: " + route);
+            }
+            parsed.add(new Route(fields[0].trim(), Long.parseLong(fields[1].trim()), objective));
+        }
+        return parsed;
+    }
+
+    /**
+     * Records a request duration for the route, requests to routes without SLO are ignored.
+     *
+     * @param route         best matching pattern of the request, may be null
+     * @param durationNanos request duration in nanoseconds
+     */
+    public void record(String route, long durationNanos) {
+        if (route == null) {
+            return;
+        }
+        RouteSlo slo = routes.get(route);
+        if (slo != null) {
+            slo.record(durationNanos, currentMinute());
+        }
+    }
+
+    private long currentMinute() {
+        return TimeUnit.MILLISECONDS.toMinutes(currentTimeMillis.getAsLong());
+    }
+
+    @Override
+    public List<MetricFamilySamples> collect() {
+        long minute = currentMinute();
+        List<MetricFamilySamples.Sample> requests = new ArrayList<>();
+        List<MetricFamilySamples.Sample> burnRates = new ArrayList<>();
+        List<MetricFamilySamples.Sample> objectives = new ArrayList<>();
+        List<MetricFamilySamples.Sample> thresholds = new ArrayList<>();
+        for (RouteSlo slo : routes.values()) {
+            String route = slo.route.pattern();
+            requests.add(new MetricFamilySamples.Sample("api_slo_requests_total", RESULT_LABEL_NAMES,
+                List.of(route, nodeName, "good"), slo.good.sum()));
+            requests.add(new MetricFamilySamples.Sample("api_slo_requests_total", RESULT_LABEL_NAMES,
+                List.of(route, nodeName, "bad"), slo.bad.sum()));
+            for (int i = 0; i < WINDOW_MINUTES.length; i++) {
+                burnRates.add(new MetricFamilySamples.Sample("api_slo_burn_rate", WINDOW_LABEL_NAMES,
+                    List.of(route, nodeName, WINDOW_LABELS[i]), slo.burnRate(minute, WINDOW_MINUTES[i])));
+            }
+            objectives.add(new MetricFamilySamples.Sample("api_slo_objective", LABEL_NAMES,
+                List.of(route, nodeName), slo.route.objective()));
+            thresholds.add(new MetricFamilySamples.Sample("api_slo_latency_threshold_seconds", LABEL_NAMES,
+                List.of(route, nodeName), slo.route.latencyMillis() / MILLIS_PER_SECOND));
+        }
+        return List.of(
+            new MetricFamilySamples("api_slo_requests", Type.COUNTER,
+                "Requests to SLO routes by result (good within latency threshold)", requests),
+            new MetricFamilySamples("api_slo_burn_rate", Type.GAUGE,
+                "Latency SLO error budget burn rate per window", burnRates),
+            new MetricFamilySamples("api_slo_objective", Type.GAUGE, "Latency SLO objective", objectives),
+            new MetricFamilySamples("api_slo_latency_threshold_seconds", Type.GAUGE,
+                "Latency SLO threshold in seconds", thresholds));
+    }
+
+    /**
+     * SLO of a route.
+     *
+     * @param pattern       best matching pattern of the route
+     * @param latencyMillis latency threshold in milliseconds, slower requests are bad
+     * @param objective     fraction of requests which should be good, e.g. 0.99
+     */
+    public record Route(String pattern, long latencyMillis, double objective) {
+    }
+
+    /**
+     * Counters of a route, lifetime totals plus one minute buckets for the burn rate windows.
+     */
+    private static final class RouteSlo {
+        private final Route route;
+        private final long thresholdNanos;
+        private final LongAdder good = new LongAdder();
+        private final LongAdder bad = new LongAdder();
+        private final MinuteBucket[] buckets = new MinuteBucket[BUCKETS];
+
+        RouteSlo(Route route) {
+            this.route = route;
+            this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(route.latencyMillis());
+            Arrays.setAll(buckets, i -> new MinuteBucket());
+        }
+
+        void record(long durationNanos, long minute) {
+            MinuteBucket bucket = bucket(minute);
+            if (durationNanos <= thresholdNanos) {
+                good.increment();
+                bucket.good.increment();
+            } else {
+                bad.increment();
+                bucket.bad.increment();
+            }
+        }
+
+        private MinuteBucket bucket(long minute) {
+            MinuteBucket bucket = buckets[(int) (minute % BUCKETS)];
+            if (bucket.minute != minute) {
+                synchronized (bucket) {
+                    if (bucket.minute != minute) {
+                        bucket.good.reset();
+                        bucket.bad.reset();
+                        bucket.minute = minute;
+                    }
+                }
+            }
+            return bucket;
+        }
+
+        double burnRate(long minute, int windowMinutes) {
+            long goodCount = 0;
+            long badCount = 0;
+            for (long m = minute - windowMinutes + 1; m <= minute; m++) {
+                MinuteBucket bucket = buckets[(int) (m % BUCKETS)];
+                if (bucket.minute == m) {
+                    goodCount += bucket.good.sum();
+                    badCount += bucket.bad.sum();
+                }
+            }
+            long total = goodCount + badCount;
+            if (total == 0) {
+                return 0;
+            }
+            return ((double) badCount / total) / (1 - route.objective());
+        }
+    }
+
+    /**
+     * Good/bad counts of one minute.
+     */
+    private static final class MinuteBucket {
+        private final LongAdder good = new LongAdder();
+        private final LongAdder bad = new LongAdder();
+        private volatile long minute = -1;
+    }
+}
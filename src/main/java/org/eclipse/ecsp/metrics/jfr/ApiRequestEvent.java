@@ -0,0 +1,78 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event spanning an api request through the servlet filter chain (incl Spring).<br/>
+ * Emitted by {@link org.eclipse.ecsp.metrics.MetricsFilter} when metrics.jfr.enabled is true,
+ * committed only while a recording has the event enabled and its threshold is exceeded.
+ *
+ * @author abhishekkumar
+ */
+@Name("org.eclipse.ecsp.ApiRequest")
+@Label("API Request")
+@Description("API request processing including the Spring filter chain")
+@Category({"ECSP", "API"})
+@StackTrace(false)
+public class ApiRequestEvent extends Event {
+
+    @Label("HTTP Method")
+    private String method;
+
+    @Label("Route")
+    @Description("Best matching pattern of the request")
+    private String route;
+
+    @Label("Status")
+    private int status;
+
+    /**
+     * This method is a setter for method.
+     *
+     * @param method : String
+     */
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    /**
+     * This method is a setter for route.
+     *
+     * @param route : String
+     */
+    public void setRoute(String route) {
+        this.route = route;
+    }
+
+    /**
+     * This method is a setter for status.
+     *
+     * @param status : int
+     */
+    public void setStatus(int status) {
+        this.status = status;
+    }
+}
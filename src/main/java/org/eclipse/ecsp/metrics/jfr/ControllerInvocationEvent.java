@@ -0,0 +1,77 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event spanning a controller method invocation (excl Spring).<br/>
+ * Emitted by {@link org.eclipse.ecsp.metrics.PerformanceMonitorAspect} when metrics.jfr.enabled is true.
+ *
+ * @author abhishekkumar
+ */
+@Name("org.eclipse.ecsp.ControllerInvocation")
+@Label("Controller Invocation")
+@Description("REST controller method invocation")
+@Category({"ECSP", "API"})
+@StackTrace(false)
+public class ControllerInvocationEvent extends Event {
+
+    @Label("API")
+    @Description("Best matching pattern, or the controller method signature for legacy monitoring")
+    private String api;
+
+    @Label("HTTP Method")
+    private String method;
+
+    @Label("Handler")
+    private String handler;
+
+    /**
+     * This method is a setter for api.
+     *
+     * @param api : String
+     */
+    public void setApi(String api) {
+        this.api = api;
+    }
+
+    /**
+     * This method is a setter for method.
+     *
+     * @param method : String
+     */
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    /**
+     * This method is a setter for handler.
+     *
+     * @param handler : String
+     */
+    public void setHandler(String handler) {
+        this.handler = handler;
+    }
+}
@@ -0,0 +1,102 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event spanning a kafka publish until its acknowledgement.<br/>
+ * Emitted by {@link org.eclipse.ecsp.kafka.service.KafkaService} when metrics.jfr.enabled is true.
+ *
+ * @author abhishekkumar
+ */
+@Name("org.eclipse.ecsp.KafkaPublish")
+@Label("Kafka Publish")
+@Description("Kafka record publish including the wait for the broker acknowledgement")
+@Category({"ECSP", "Kafka"})
+@StackTrace(false)
+public class KafkaPublishEvent extends Event {
+
+    @Label("Topic")
+    private String topic;
+
+    @Label("Partition")
+    private int partition = -1;
+
+    @Label("Offset")
+    private long offset = -1;
+
+    @Label("Bytes")
+    @DataAmount
+    private long bytes;
+
+    @Label("Acknowledged")
+    private boolean acknowledged;
+
+    /**
+     * This method is a setter for topic.
+     *
+     * @param topic : String
+     */
+    public void setTopic(String topic) {
+        this.topic = topic;
+    }
+
+    /**
+     * This method is a setter for partition.
+     *
+     * @param partition : int
+     */
+    public void setPartition(int partition) {
+        this.partition = partition;
+    }
+
+    /**
+     * This method is a setter for offset.
+     *
+     * @param offset : long
+     */
+    public void setOffset(long offset) {
+        this.offset = offset;
+    }
+
+    /**
+     * This method is a setter for bytes, key plus value size.
+     *
+     * @param bytes : long
+     */
+    public void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * This method is a setter for acknowledged.
+     *
+     * @param acknowledged : boolean
+     */
+    public void setAcknowledged(boolean acknowledged) {
+        this.acknowledged = acknowledged;
+    }
+}
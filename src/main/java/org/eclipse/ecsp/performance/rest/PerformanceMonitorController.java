@@ -19,20 +19,35 @@
 package org.eclipse.ecsp.performance.rest;
 
 import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Snapshot;
 import com.codahale.metrics.Timer;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import jakarta.servlet.ServletContext;
 import org.apache.commons.lang3.StringUtils;
+import org.eclipse.ecsp.constants.Constants;
+import org.eclipse.ecsp.exceptions.BadRequestException;
+import org.eclipse.ecsp.metrics.RollingWindowTimer;
+import org.eclipse.ecsp.metrics.RollingWindowTimer.Window;
 import org.eclipse.ecsp.utils.logger.IgniteLogger;
 import org.eclipse.ecsp.utils.logger.IgniteLoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.SortedMap;
 
@@ -91,6 +106,16 @@ public class PerformanceMonitorController {
      */
     public static final String TH_OPEN_TAG = "<th>";
 
+    /**
+     * Maximum page size of the json metrics api.
+     */
+    public static final int MAX_LIMIT = 1000;
+
+    private static final Comparator<RankedTimer> RANKING = Comparator.comparingDouble(RankedTimer::rank)
+            .reversed().thenComparing(RankedTimer::name);
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
     private final MetricRegistry metricRegistry;
 
     private final ServletContext context;
@@ -124,11 +149,11 @@ public class PerformanceMonitorController {
         createHead(buffer);
         buffer.append("<h1>Metrics</h1>");
 
-        createSelection(buffer, api, context.getContextPath());
+        SortedMap<String, Timer> timers = metricRegistry.getTimers();
+        createSelection(buffer, timers, api, context.getContextPath());
         buffer.append("*All timings in ms. Rates are in requests/second.");
         buffer.append("<table>");
         addHeader(buffer);
-        SortedMap<String, Timer> timers = metricRegistry.getTimers();
         for (Entry<String, Timer> entry : timers.entrySet()) {
             if (StringUtils.isEmpty(api) || entry.getKey().contains(api)) {
                 addTimer(buffer, entry, (api == null || api.isEmpty()));
@@ -141,22 +166,201 @@ public class PerformanceMonitorController {
 
     /**
      * api to reset metrics.<br/>
-     * reset all the Histogram, Counter, Gauge.
+     * reset all the Histogram, Counter, Gauge, except the JVM metric sets (api-gc, api-memory, api-threads).<br/>
+     * Prefer /v1/metrics/mark to compare intervals without removing timers under traffic.
      *
      * @return success if the reset is successful
      */
     @GetMapping(path = "/v1/metrics/reset")
     public String get() {
-        for (String s : metricRegistry.getTimers().keySet()) {
-            metricRegistry.remove(s);
+        metricRegistry.removeMatching((name, metric) -> !isJvmMetric(name));
+        return "success";
+    }
+
+    private static boolean isJvmMetric(String name) {
+        return name.startsWith(Constants.GC_METRICS_PREFIX) || name.startsWith(Constants.MEMORY_METRICS_PREFIX)
+                || name.startsWith(Constants.THREAD_METRICS_PREFIX);
+    }
+
+    /**
+     * export api to fetch metrics as json, one snapshot is taken per returned timer.<br/>
+     * Timers are filtered by api, sorted and paginated before being streamed as
+     * {"total": n, "offset": o, "limit": l, "timers": [{"name": ..., "count": ..., "meanMs": ..., ...}]}.
+     * All timings in ms, rates in requests/second.
+     *
+     * @param api    only timers containing this text, all if empty
+     * @param sort   name (ascending), p99, rate (one minute) or count (descending)
+     * @param offset number of timers to skip
+     * @param limit  maximum number of timers to return, up to {@link #MAX_LIMIT}
+     * @param window rolling window (1m, 5m, 15m) of {@link RollingWindowTimer}s, lifetime if empty
+     * @return metrics in json format
+     * @throws BadRequestException if sort, offset, limit or window are invalid
+     */
+    @GetMapping(path = "/v1/jamon-metrics/json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getJson(
+            @RequestParam(name = "api", required = false) String api,
+            @RequestParam(name = "sort", defaultValue = "name") String sort,
+            @RequestParam(name = "offset", defaultValue = "0") int offset,
+            @RequestParam(name = "limit", defaultValue = "100") int limit,
+            @RequestParam(name = "window", required = false) String window) throws BadRequestException {
+        TimerSort timerSort = TimerSort.from(sort);
+        if (offset < 0 || limit <= 0 || limit > MAX_LIMIT) {
+            throw new BadRequestException("offset must be >= 0 and limit between 1 and " + MAX_LIMIT);
         }
-        for (String s : metricRegistry.getCounters().keySet()) {
-            metricRegistry.remove(s);
+        Window timerWindow = parseWindow(window);
+        // the registry returns a new sorted copy of its timers on every call
+        SortedMap<String, Timer> timers = metricRegistry.getTimers();
+        List<TimerStats> page = new ArrayList<>(Math.min(limit, timers.size()));
+        int total = collectPage(timers, StringUtils.isEmpty(api) || "all".equals(api) ? null : api, timerSort,
+                timerWindow, offset, limit, page);
+        StreamingResponseBody body = out -> writeJson(out, total, offset, limit, page);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * collects the requested page of timers, snapshots are only taken for the page
+     * except for p99 ordering which needs one snapshot per matching timer.
+     *
+     * @return number of matching timers
+     */
+    private int collectPage(SortedMap<String, Timer> timers, String api, TimerSort sort, Window window,
+                            int offset, int limit, List<TimerStats> page) {
+        long topN = (long) offset + limit;
+        PriorityQueue<RankedTimer> top = new PriorityQueue<>(RANKING.reversed());
+        int total = 0;
+        for (Entry<String, Timer> entry : timers.entrySet()) {
+            String name = entry.getKey();
+            if (!name.contains(METHOD) || (api != null && !name.contains(api))) {
+                continue;
+            }
+            total++;
+            if (sort == TimerSort.NAME) {
+                // registry timers are already sorted by name
+                if (total > offset && total <= topN) {
+                    page.add(TimerStats.of(name, entry.getValue(), window));
+                }
+                continue;
+            }
+            top.offer(rank(sort, window, name, entry.getValue()));
+            if (top.size() > topN) {
+                top.poll();
+            }
         }
-        for (String s : metricRegistry.getGauges().keySet()) {
-            metricRegistry.remove(s);
+        if (sort != TimerSort.NAME) {
+            List<RankedTimer> ranked = new ArrayList<>(top);
+            ranked.sort(RANKING);
+            for (int i = offset; i < ranked.size(); i++) {
+                RankedTimer timer = ranked.get(i);
+                page.add(timer.stats() != null ? timer.stats() : TimerStats.of(timer.name(), timer.timer(), window));
+            }
         }
-        return "success";
+        return total;
+    }
+
+    private RankedTimer rank(TimerSort sort, Window window, String name, Timer timer) {
+        if (window != null) {
+            // window counts need the window snapshot as well
+            TimerStats stats = TimerStats.of(name, timer, window);
+            double rank = switch (sort) {
+                case P99 -> stats.p99Ms();
+                case RATE -> stats.oneMinuteRate();
+                default -> stats.count();
+            };
+            return new RankedTimer(name, timer, rank, stats);
+        }
+        switch (sort) {
+            case P99:
+                TimerStats stats = TimerStats.of(name, timer);
+                return new RankedTimer(name, timer, stats.p99Ms(), stats);
+            case RATE:
+                return new RankedTimer(name, timer, timer.getOneMinuteRate(), null);
+            default:
+                return new RankedTimer(name, timer, timer.getCount(), null);
+        }
+    }
+
+    private void writeJson(OutputStream out, int total, int offset, int limit, List<TimerStats> page)
+            throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            generator.writeNumberField("total", total);
+            generator.writeNumberField("offset", offset);
+            generator.writeNumberField("limit", limit);
+            generator.writeArrayFieldStart("timers");
+            for (TimerStats stats : page) {
+                generator.writeStartObject();
+                writeDurations(generator, stats);
+                generator.writeNumberField("meanRate", stats.meanRate());
+                generator.writeNumberField("oneMinuteRate", stats.oneMinuteRate());
+                generator.writeNumberField("fiveMinuteRate", stats.fiveMinuteRate());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+
+    private void writeDurations(JsonGenerator generator, TimerStats stats) throws IOException {
+        generator.writeStringField("name", stats.name());
+        generator.writeNumberField("count", stats.count());
+        generator.writeNumberField("meanMs", stats.meanMs());
+        generator.writeNumberField("minMs", stats.minMs());
+        generator.writeNumberField("maxMs", stats.maxMs());
+        generator.writeNumberField("p75Ms", stats.p75Ms());
+        generator.writeNumberField("p95Ms", stats.p95Ms());
+        generator.writeNumberField("p99Ms", stats.p99Ms());
+    }
+
+    private Window parseWindow(String window) throws BadRequestException {
+        if (StringUtils.isEmpty(window)) {
+            return null;
+        }
+        try {
+            return Window.fromLabel(window.trim());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid window: " + window + ", expected one of 1m, 5m, 15m", e);
+        }
+    }
+
+    /**
+     * api to mark an interval on all rolling window timers, without removing any metric.<br/>
+     * Returns the statistics of the interval closed by this mark and starts a new one, so consecutive
+     * marks delimit e.g. load test phases. Only timers created with performance.rolling.window.enabled
+     * have intervals. Response format
+     * {"timers": [{"name": ..., "count": ..., "meanMs": ..., "startMillis": ..., "endMillis": ...,
+     * "ratePerSecond": ...}]}.
+     *
+     * @return closed intervals in json format
+     */
+    @GetMapping(path = "/v1/metrics/mark", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> markInterval() {
+        List<TimerStats> stats = new ArrayList<>();
+        List<RollingWindowTimer.IntervalSnapshot> intervals = new ArrayList<>();
+        for (Entry<String, Timer> entry : metricRegistry.getTimers().entrySet()) {
+            if (entry.getValue() instanceof RollingWindowTimer rollingTimer) {
+                RollingWindowTimer.IntervalSnapshot interval = rollingTimer.markInterval();
+                intervals.add(interval);
+                stats.add(TimerStats.of(entry.getKey(), interval));
+            }
+        }
+        LOGGER.info("Marked interval on {} rolling window timers", stats.size());
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+                generator.writeStartObject();
+                generator.writeArrayFieldStart("timers");
+                for (int i = 0; i < stats.size(); i++) {
+                    generator.writeStartObject();
+                    writeDurations(generator, stats.get(i));
+                    generator.writeNumberField("startMillis", intervals.get(i).startMillis());
+                    generator.writeNumberField("endMillis", intervals.get(i).endMillis());
+                    generator.writeNumberField("ratePerSecond", stats.get(i).meanRate());
+                    generator.writeEndObject();
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     private void createHead(StringBuilder buffer) {
@@ -168,9 +372,10 @@ public class PerformanceMonitorController {
 
     }
 
-    private void createSelection(StringBuilder buffer, String selection, String contextPath) {
+    private void createSelection(StringBuilder buffer, SortedMap<String, Timer> timers, String selection,
+                                 String contextPath) {
         Set<String> uniqueApis = new HashSet<>();
-        for (Entry<String, Timer> entry : metricRegistry.getTimers().entrySet()) {
+        for (Entry<String, Timer> entry : timers.entrySet()) {
             if (entry.getKey().contains(METHOD)) {
                 uniqueApis.add(entry.getKey().substring(INT_4, entry.getKey().indexOf(METHOD) - 1));
             }
@@ -212,33 +417,34 @@ public class PerformanceMonitorController {
                     : entry.getKey()
                     .substring(entry.getKey().indexOf("execution(") + INT_16, entry.getKey().length() - INT_2);
             signature = condenseSignature(signature);
+            Snapshot snapshot = entry.getValue().getSnapshot();
             buffer.append("<tr>")
                     .append(TD_OPEN_TAG)
                     .append(signature)
                     .append(TD_CLOSE_TAG)
                     .append(TD_OPEN_TAG)
-                    .append(numberFormatter.format(entry.getValue().getSnapshot().getMean() / A_DOUBLE))
+                    .append(numberFormatter.format(snapshot.getMean() / A_DOUBLE))
                     .append(TD_CLOSE_TAG)
                     .append(TD_OPEN_TAG)
-                    .append(numberFormatter.format(entry.getValue().getSnapshot().getMin() / A_DOUBLE))
+                    .append(numberFormatter.format(snapshot.getMin() / A_DOUBLE))
                     .append(TD_CLOSE_TAG)
                     .append(TD_OPEN_TAG)
-                    .append(numberFormatter.format(entry.getValue().getSnapshot().getMax() / A_DOUBLE))
+                    .append(numberFormatter.format(snapshot.getMax() / A_DOUBLE))
                     .append(TD_CLOSE_TAG)
                     .append(TD_OPEN_TAG)
                     .append(entry.getValue().getCount())
                     .append(TD_CLOSE_TAG)
                     .append(TD_OPEN_TAG)
                     .append(numberFormatter.format(
-                            entry.getValue().getSnapshot().get95thPercentile() / A_DOUBLE))
+                            snapshot.get95thPercentile() / A_DOUBLE))
                     .append(TD_CLOSE_TAG)
                     .append(TD_OPEN_TAG)
                     .append(numberFormatter.format(
-                            entry.getValue().getSnapshot().get99thPercentile() / A_DOUBLE))
+                            snapshot.get99thPercentile() / A_DOUBLE))
                     .append(TD_CLOSE_TAG)
                     .append(TD_OPEN_TAG)
                     .append(numberFormatter.format(
-                            entry.getValue().getSnapshot().get75thPercentile() / A_DOUBLE))
+                            snapshot.get75thPercentile() / A_DOUBLE))
                     .append(TD_CLOSE_TAG)
                     .append(TD_OPEN_TAG)
                     .append(numberFormatter.format(entry.getValue().getMeanRate()))
@@ -290,4 +496,10 @@ public class PerformanceMonitorController {
                 .append(TH_CLOSE_TAG)
                 .append("</tr>");
     }
-}
\ No newline at end of file
+
+    /**
+     * timer with the value it is ranked by, stats are kept when computing the rank required a snapshot.
+     */
+    private record RankedTimer(String name, Timer timer, double rank, TimerStats stats) {
+    }
+}
@@ -0,0 +1,78 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.performance.rest;
+
+import org.apache.commons.lang3.StringUtils;
+import org.eclipse.ecsp.metrics.ApiStackSampler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * export api to fetch the stacks sampled by {@link ApiStackSampler}, only registered when
+ * performance.profiler.enabled is true.
+ *
+ * @author abhishekkumar
+ */
+@RestController
+@ConditionalOnProperty("performance.profiler.enabled")
+public class ProfilerController {
+
+    private final ApiStackSampler stackSampler;
+
+    /**
+     * Constructor to initialize the stack sampler.
+     *
+     * @param stackSampler ApiStackSampler instance
+     */
+    public ProfilerController(ApiStackSampler stackSampler) {
+        this.stackSampler = stackSampler;
+    }
+
+    /**
+     * export api to fetch the sampled stacks in the collapsed stack format, one <i>stack count</i> line
+     * per stack with the api pattern as root frame, e.g. for flamegraph.pl or speedscope.
+     *
+     * @param api   endpoint to fetch stacks for, all if empty
+     * @param reset discard the stacks after they are written
+     * @return collapsed stacks in plain text
+     */
+    @GetMapping(path = "/v1/jamon-metrics/profile", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<StreamingResponseBody> getProfile(
+            @RequestParam(name = "api", required = false) String api,
+            @RequestParam(name = "reset", defaultValue = "false") boolean reset) {
+        String apiFilter = StringUtils.isEmpty(api) || "all".equals(api) ? null : api;
+        StreamingResponseBody body = out -> {
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            stackSampler.writeCollapsed(writer, apiFilter);
+            if (reset) {
+                stackSampler.reset();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.TEXT_PLAIN).body(body);
+    }
+}
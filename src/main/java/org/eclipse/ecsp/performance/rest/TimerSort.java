@@ -0,0 +1,62 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.performance.rest;
+
+import org.eclipse.ecsp.exceptions.BadRequestException;
+import java.util.Locale;
+
+/**
+ * Sort order of the timers returned by the json metrics api.<br/>
+ * NAME is ascending, all others descending (top N).
+ *
+ * @author abhishekkumar
+ */
+public enum TimerSort {
+    /**
+     * timer name, ascending.
+     */
+    NAME,
+    /**
+     * 99th percentile duration, descending.
+     */
+    P99,
+    /**
+     * one minute rate, descending.
+     */
+    RATE,
+    /**
+     * invocation count, descending.
+     */
+    COUNT;
+
+    /**
+     * parse the sort parameter, case insensitive.
+     *
+     * @param sort sort parameter
+     * @return {@link TimerSort}
+     * @throws BadRequestException if sort is not a valid value
+     */
+    public static TimerSort from(String sort) throws BadRequestException {
+        try {
+            return valueOf(sort.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid sort: " + sort + ", expected one of name, p99, rate, count", e);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.performance.rest;
+
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+import org.eclipse.ecsp.metrics.RollingWindowTimer;
+import org.eclipse.ecsp.metrics.RollingWindowTimer.Window;
+
+/**
+ * Statistics of a Dropwizard {@link Timer}, read from a single snapshot.<br/>
+ * All timings in ms, rates in requests/second.
+ *
+ * @param name           timer name
+ * @param count          number of invocations
+ * @param meanMs         mean duration
+ * @param minMs          min duration
+ * @param maxMs          max duration
+ * @param p75Ms          75th percentile duration
+ * @param p95Ms          95th percentile duration
+ * @param p99Ms          99th percentile duration
+ * @param meanRate       mean rate
+ * @param oneMinuteRate  one minute rate
+ * @param fiveMinuteRate five minute rate
+ * @author abhishekkumar
+ */
+public record TimerStats(String name, long count, double meanMs, double minMs, double maxMs, double p75Ms,
+                         double p95Ms, double p99Ms, double meanRate, double oneMinuteRate, double fiveMinuteRate) {
+
+    private static final double NANOS_PER_MILLI = 1000000.0D;
+    private static final double MILLIS_PER_SECOND = 1000.0D;
+
+    /**
+     * Reads the statistics of the timer, taking exactly one snapshot.
+     *
+     * @param name  timer name
+     * @param timer timer
+     * @return {@link TimerStats}
+     */
+    public static TimerStats of(String name, Timer timer) {
+        return of(name, timer.getCount(), timer.getSnapshot(), timer.getMeanRate(), timer.getOneMinuteRate(),
+            timer.getFiveMinuteRate());
+    }
+
+    /**
+     * Reads the statistics of the timer within a rolling window, taking exactly one snapshot.<br/>
+     * Timers without rolling windows, or a null window, report their lifetime statistics.
+     * Rates are always the timer's rates.
+     *
+     * @param name   timer name
+     * @param timer  timer
+     * @param window rolling window, null for lifetime
+     * @return {@link TimerStats}
+     */
+    public static TimerStats of(String name, Timer timer, Window window) {
+        if (window == null || !(timer instanceof RollingWindowTimer rollingTimer)) {
+            return of(name, timer);
+        }
+        Snapshot snapshot = rollingTimer.getSnapshot(window);
+        return of(name, rollingTimer.getCount(window), snapshot, timer.getMeanRate(), timer.getOneMinuteRate(),
+            timer.getFiveMinuteRate());
+    }
+
+    /**
+     * Statistics of a closed interval of a {@link RollingWindowTimer}.<br/>
+     * meanRate is the rate over the interval, the one and five minute rates are not applicable and 0.
+     *
+     * @param name     timer name
+     * @param interval closed interval
+     * @return {@link TimerStats}
+     */
+    public static TimerStats of(String name, RollingWindowTimer.IntervalSnapshot interval) {
+        double seconds = Math.max(1L, interval.endMillis() - interval.startMillis()) / MILLIS_PER_SECOND;
+        return of(name, interval.count(), interval.snapshot(), interval.count() / seconds, 0, 0);
+    }
+
+    private static TimerStats of(String name, long count, Snapshot snapshot, double meanRate, double oneMinuteRate,
+                                 double fiveMinuteRate) {
+        return new TimerStats(name, count,
+            snapshot.getMean() / NANOS_PER_MILLI,
+            snapshot.getMin() / NANOS_PER_MILLI,
+            snapshot.getMax() / NANOS_PER_MILLI,
+            snapshot.get75thPercentile() / NANOS_PER_MILLI,
+            snapshot.get95thPercentile() / NANOS_PER_MILLI,
+            snapshot.get99thPercentile() / NANOS_PER_MILLI,
+            meanRate, oneMinuteRate, fiveMinuteRate);
+    }
+}
@@ -40,6 +40,7 @@ public class ApiPaginationUtils {
     private String vehicleIdKey;
     private long timestamp;
     private Object objectId;
+    private final PaginationQueryTemplate queryTemplate;
     
     /**
      * Constructor to create ApiPaginationUtils object.
@@ -52,6 +53,7 @@ public class ApiPaginationUtils {
         this.eventIdKey = eventIdKey;
         this.timestampKey = timestampKey;
         this.vehicleIdKey = vehicleIdKey;
+        this.queryTemplate = new PaginationQueryTemplate(eventIdKey, timestampKey, vehicleIdKey);
     }
     
     /**
@@ -150,6 +152,16 @@ public class ApiPaginationUtils {
         return new IgniteQuery(basicCriteriaGroup).or(basicCriteriaGroupCopy);
     }
 
+    /**
+     * Query builder for the same field names, building the criteria group, sort and limit of a page in one
+     * call.
+     *
+     * @return {@link PaginationQueryTemplate}
+     */
+    public PaginationQueryTemplate getQueryTemplate() {
+        return queryTemplate;
+    }
+
     /**
      * This method is a getter for timestamp.
      *
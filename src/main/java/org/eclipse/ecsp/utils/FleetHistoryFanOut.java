@@ -0,0 +1,328 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.utils;
+
+import org.apache.commons.lang3.StringUtils;
+import org.eclipse.ecsp.constants.Constants;
+import org.eclipse.ecsp.exceptions.BadRequestException;
+import org.eclipse.ecsp.nosqldao.IgniteQuery;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Keyset pagination over the histories of several vehicles (or shards) as one timeline.<br/>
+ * The per vehicle queries of a page run in parallel on the given executor, which bounds the concurrency
+ * (e.g. a fixed thread pool sized for the database), and their sorted results are merged with a k-way heap
+ * merge on (timestamp, _id) into a single page. The page size applies to the merged page, every vehicle
+ * query fetches at most pageSize + 1 records.<br/>
+ * The next cursor is a composite of the position of every vehicle that contributed to a page, about 40
+ * characters per vehicle, and of a bitset of the vehicles without further records. Vehicles are referenced by
+ * their index in the distinct vehicle ids of the request, so the cursor is only valid for the same list.<br/>
+ * Immutable and thread safe if the query function is.
+ *
+ * @author abhishekkumar
+ * @param <T> type of the records
+ */
+public final class FleetHistoryFanOut<T> {
+
+    private static final byte VERSION = 2;
+
+    private final Executor executor;
+    private final ToLongFunction<T> timestamp;
+    private final Function<T, Object> id;
+
+    /**
+     * Creates the fan out.
+     *
+     * @param executor  runs the per vehicle queries, bounds their concurrency
+     * @param timestamp timestamp of a record
+     * @param id        _id of a record, an ObjectId, String, Long or Integer
+     */
+    public FleetHistoryFanOut(Executor executor, ToLongFunction<T> timestamp, Function<T, Object> id) {
+        this.executor = executor;
+        this.timestamp = timestamp;
+        this.id = id;
+    }
+
+    /**
+     * Slice query running the queries of the template, the filter is the one of
+     * {@link ApiPaginationUtils#buildBasicCriteriaGroup(String, Long, Long, String)} and a missing until is
+     * resolved to the current time once for all the vehicles.
+     *
+     * @param template  query builder of the history collection
+     * @param since     lower timestamp bound, ignored if null or zero
+     * @param until     upper timestamp bound, the current time if null or zero
+     * @param eventId   event id, all events but acknowledgements if null or empty
+     * @param sortOrder desc or asc
+     * @param query     runs a query and returns its records in query order
+     * @param <T>       type of the records
+     * @return the slice query
+     */
+    public static <T> SliceQuery<T> igniteSlices(PaginationQueryTemplate template, Long since, Long until,
+                                                 String eventId, String sortOrder,
+                                                 Function<IgniteQuery, List<T>> query) {
+        Long upper = until != null && until > Constants.ZERO ? until : Long.valueOf(System.currentTimeMillis());
+        return (vehicleId, after, limit) -> query.apply(after == null
+            ? template.bind(vehicleId, since, upper, eventId, sortOrder, limit)
+            : template.bindAfter(vehicleId, since, upper, eventId, after, limit));
+    }
+
+    /**
+     * Fetches the next page of the merged histories of the vehicles.
+     *
+     * @param vehicleIds vehicles of the timeline, the same for all the pages of a traversal
+     * @param sortOrder  desc or asc, must be the order of the cursor and of the slices
+     * @param cursor     next cursor of the previous page, null or empty for the first page
+     * @param pageSize   number of records of the page, between 1 and Integer.MAX_VALUE - 1
+     * @param slices     fetches the records of one vehicle, e.g. {@link #igniteSlices}
+     * @return the records of the page and the next cursor, null on the last page
+     * @throws BadRequestException if the page size is out of range or the cursor is not a valid token or it
+     *                             or one of its positions has another sort order
+     */
+    public KeysetPagination.Page<T> page(List<String> vehicleIds, String sortOrder, String cursor, int pageSize,
+                                         SliceQuery<T> slices) throws BadRequestException {
+        if (!KeysetPagination.isValidPageSize(pageSize)) {
+            throw new BadRequestException(Constants.ERROR_INVALID_PAGE_SIZE);
+        }
+        boolean descending = Constants.DESC_ORDER.equalsIgnoreCase(sortOrder);
+        List<String> vehicles = vehicleIds.stream().distinct().toList();
+        Map<String, KeysetCursor> positions = new HashMap<>();
+        Set<String> exhausted = new HashSet<>();
+        if (StringUtils.isNotEmpty(cursor)) {
+            decode(cursor, descending, vehicles, positions, exhausted);
+        }
+        List<String> active = vehicles.stream().filter(v -> !exhausted.contains(v)).toList();
+        List<List<T>> results = join(submit(active, positions, pageSize, slices));
+        int[] consumed = new int[active.size()];
+        List<T> records = merge(results, consumed, descending, pageSize);
+        for (int i = 0; i < active.size(); i++) {
+            List<T> result = results.get(i);
+            if (consumed[i] == result.size() && result.size() <= pageSize) {
+                exhausted.add(active.get(i));
+                positions.remove(active.get(i));
+            } else if (consumed[i] > 0) {
+                T last = result.get(consumed[i] - 1);
+                positions.put(active.get(i), KeysetCursor.of(timestamp.applyAsLong(last), id.apply(last),
+                    sortOrder));
+            }
+        }
+        boolean hasNext = exhausted.size() < vehicles.size();
+        return new KeysetPagination.Page<>(records, hasNext ? encode(descending, vehicles, positions, exhausted)
+            : null);
+    }
+
+    /**
+     * starts the slices of the active vehicles, a rejected slice cancels the ones already started.
+     */
+    private List<CompletableFuture<List<T>>> submit(List<String> active, Map<String, KeysetCursor> positions,
+                                                    int pageSize, SliceQuery<T> slices) {
+        List<CompletableFuture<List<T>>> futures = new ArrayList<>(active.size());
+        try {
+            for (String vehicleId : active) {
+                KeysetCursor position = positions.get(vehicleId);
+                futures.add(CompletableFuture.supplyAsync(() -> slices.fetch(vehicleId, position, pageSize + 1),
+                    executor));
+            }
+        } catch (RejectedExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e;
+        }
+        return futures;
+    }
+
+    /**
+     * waits for the slices, the first failing slice cancels the others and its failure is rethrown.
+     */
+    private List<List<T>> join(List<CompletableFuture<List<T>>> futures) {
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CompletableFuture<?>[] completions = futures.stream().map(future -> future.whenComplete((result, e) -> {
+            if (e != null && failure.compareAndSet(null, e)) {
+                futures.forEach(other -> other.cancel(true));
+            }
+        })).toArray(CompletableFuture<?>[]::new);
+        try {
+            CompletableFuture.allOf(completions).join();
+        } catch (CompletionException | CancellationException e) {
+            Throwable cause = failure.get() instanceof CompletionException wrapper && wrapper.getCause() != null
+                ? wrapper.getCause() : failure.get();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    /**
+     * takes the first pageSize records of the sorted results, counting the records taken from each result.
+     */
+    private List<T> merge(List<List<T>> results, int[] consumed, boolean descending, int pageSize) {
+        Comparator<Head> byTimestamp = Comparator.comparingLong(head -> timestamp.applyAsLong(head.current()));
+        Comparator<Head> order = (descending ? byTimestamp.reversed() : byTimestamp)
+            .thenComparing((a, b) -> compareIds(id.apply(b.current()), id.apply(a.current())));
+        PriorityQueue<Head> heap = new PriorityQueue<>(Math.max(1, results.size()), order);
+        for (int i = 0; i < results.size(); i++) {
+            if (!results.get(i).isEmpty()) {
+                heap.add(new Head(i, results.get(i)));
+            }
+        }
+        List<T> records = new ArrayList<>(pageSize);
+        while (records.size() < pageSize && !heap.isEmpty()) {
+            Head head = heap.poll();
+            records.add(head.current());
+            consumed[head.source]++;
+            if (++head.position < head.records.size()) {
+                heap.add(head);
+            }
+        }
+        return records;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareIds(Object a, Object b) {
+        return ((Comparable) a).compareTo(b);
+    }
+
+    private static String encode(boolean descending, List<String> vehicles, Map<String, KeysetCursor> positions,
+                                 Set<String> exhausted) {
+        BitSet exhaustedBits = new BitSet(vehicles.size());
+        for (int i = 0; i < vehicles.size(); i++) {
+            exhaustedBits.set(i, exhausted.contains(vehicles.get(i)));
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeBoolean(descending);
+            out.writeInt(vehicles.size());
+            out.write(Arrays.copyOf(exhaustedBits.toByteArray(), bitsetBytes(vehicles.size())));
+            out.writeInt(positions.size());
+            for (int i = 0; i < vehicles.size(); i++) {
+                KeysetCursor position = positions.get(vehicles.get(i));
+                if (position != null) {
+                    out.writeInt(i);
+                    byte[] cursor = position.toBytes();
+                    out.writeShort(cursor.length);
+                    out.write(cursor);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    private static void decode(String token, boolean descending, List<String> vehicles,
+                               Map<String, KeysetCursor> positions, Set<String> exhausted)
+        throws BadRequestException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder()
+            .decode(token)))) {
+            if (in.readByte() != VERSION || in.readBoolean() != descending || in.readInt() != vehicles.size()) {
+                throw new BadRequestException(Constants.ERROR_INVALID_CURSOR);
+            }
+            byte[] exhaustedBytes = new byte[bitsetBytes(vehicles.size())];
+            in.readFully(exhaustedBytes);
+            BitSet exhaustedBits = BitSet.valueOf(exhaustedBytes);
+            exhaustedBits.stream().forEach(i -> exhausted.add(vehicles.get(i)));
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                int vehicle = in.readInt();
+                byte[] cursor = new byte[in.readUnsignedShort()];
+                in.readFully(cursor);
+                KeysetCursor position = KeysetCursor.fromBytes(ByteBuffer.wrap(cursor));
+                if (vehicle < 0 || vehicle >= vehicles.size() || position.isDescending() != descending) {
+                    throw new BadRequestException(Constants.ERROR_INVALID_CURSOR);
+                }
+                positions.put(vehicles.get(vehicle), position);
+            }
+            if (in.available() > 0) {
+                throw new BadRequestException(Constants.ERROR_INVALID_CURSOR);
+            }
+        } catch (IOException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new BadRequestException(Constants.ERROR_INVALID_CURSOR, e);
+        }
+    }
+
+    private static int bitsetBytes(int bits) {
+        return (bits + Byte.SIZE - 1) / Byte.SIZE;
+    }
+
+    /**
+     * Fetches the records of one vehicle after a position.
+     *
+     * @param <T> type of the records
+     */
+    @FunctionalInterface
+    public interface SliceQuery<T> {
+
+        /**
+         * Fetches the first records of the vehicle, sorted by timestamp in the order of the traversal and
+         * then by _id descending.
+         *
+         * @param vehicleId vehicle to query
+         * @param after     position to seek past, null from the start
+         * @param limit     maximum number of records
+         * @return the records
+         */
+        List<T> fetch(String vehicleId, KeysetCursor after, int limit);
+    }
+
+    /**
+     * next record of one sorted result.
+     */
+    private final class Head {
+
+        private final int source;
+        private final List<T> records;
+        private int position;
+
+        Head(int source, List<T> records) {
+            this.source = source;
+            this.records = records;
+        }
+
+        T current() {
+            return records.get(position);
+        }
+    }
+}
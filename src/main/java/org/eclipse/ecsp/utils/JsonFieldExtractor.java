@@ -0,0 +1,282 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.utils;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Compiled accessor for one or more fields of a json document, read with a streaming {@link JsonParser}
+ * instead of parsing the whole document into a {@link JsonNode} tree.<br/>
+ * Paths are field names separated by '.', e.g. <i>Data.vehicleId</i>. Objects on the way are entered,
+ * other fields are skipped without being materialized, and reading stops as soon as every path is found.
+ * With ignoreCase an exact match is preferred over a case-insensitive one, like
+ * {@link JsonUtils#safeGetStringFromJsonNode(String, JsonNode)}, so a path matched only case-insensitively
+ * is final at the end of its enclosing object.<br/>
+ * The parts of the document after the last field are not read, so they are not validated either.
+ * Instances are immutable and can be shared, e.g. kept in a static final field.
+ *
+ * @author abhishekkumar
+ */
+public final class JsonFieldExtractor {
+
+    private static final String PATH_SEPARATOR = "\\.";
+
+    /**
+     * marks a field value which is not read yet, null is a valid value.
+     */
+    private static final Object NOT_READ = new Object();
+
+    private final String[][] paths;
+    private final boolean ignoreCase;
+
+    private JsonFieldExtractor(String[][] paths, boolean ignoreCase) {
+        this.paths = paths;
+        this.ignoreCase = ignoreCase;
+    }
+
+    /**
+     * Compiles case-insensitive accessors for the given paths.
+     *
+     * @param paths field names separated by '.'
+     * @return JsonFieldExtractor
+     */
+    public static JsonFieldExtractor of(String... paths) {
+        String[][] segments = new String[paths.length][];
+        for (int i = 0; i < paths.length; i++) {
+            segments[i] = paths[i].split(PATH_SEPARATOR);
+        }
+        return new JsonFieldExtractor(segments, true);
+    }
+
+    /**
+     * Compiles an accessor for a single top level field, the key is not split.
+     *
+     * @param key        field name
+     * @param ignoreCase whether the field name is matched case-insensitively
+     * @return JsonFieldExtractor
+     */
+    public static JsonFieldExtractor ofKey(String key, boolean ignoreCase) {
+        return new JsonFieldExtractor(new String[][] {{key}}, ignoreCase);
+    }
+
+    /**
+     * Number of paths of this accessor.
+     *
+     * @return number of paths
+     */
+    public int size() {
+        return paths.length;
+    }
+
+    /**
+     * Reads the values of the paths as text, with the same representation as {@link JsonNode#asText()}:
+     * objects and arrays are empty strings, json null is <i>null</i>.
+     *
+     * @param parser parser positioned before the document
+     * @return values in the order of the paths, null for paths not found or if the document is not an object
+     * @throws IOException if the document can not be parsed
+     */
+    public String[] extractText(JsonParser parser) throws IOException {
+        return extract(parser, new String[paths.length], false);
+    }
+
+    /**
+     * Reads the values of the paths as trees, only the found values are materialized.
+     *
+     * @param parser parser positioned before the document, with an ObjectMapper as codec
+     * @return values in the order of the paths, null for paths not found or if the document is not an object
+     * @throws IOException if the document can not be parsed
+     */
+    public JsonNode[] extractNodes(JsonParser parser) throws IOException {
+        return extract(parser, new JsonNode[paths.length], true);
+    }
+
+    private <T> T[] extract(JsonParser parser, T[] values, boolean nodes) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return values;
+        }
+        int[] active = new int[paths.length];
+        boolean[] activeExact = new boolean[paths.length];
+        for (int i = 0; i < paths.length; i++) {
+            active[i] = i;
+            activeExact[i] = true;
+        }
+        Extraction extraction = new Extraction(values, nodes);
+        readObject(parser, 0, active, activeExact, active.length, extraction);
+        return values;
+    }
+
+    /**
+     * reads the fields of the current object for the paths in active, whose segments before depth matched.
+     *
+     * @return true when every path is found with an exact match, the remaining document is not read
+     */
+    private boolean readObject(JsonParser parser, int depth, int[] active, boolean[] activeExact,
+                               int activeCount, Extraction extraction) throws IOException {
+        int[] descend = new int[activeCount];
+        boolean[] descendExact = new boolean[activeCount];
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken valueToken = parser.nextToken();
+            int descendCount = 0;
+            Object value = NOT_READ;
+            for (int a = 0; a < activeCount; a++) {
+                int path = active[a];
+                String segment = paths[path][depth];
+                boolean exact = activeExact[a] && segment.equals(name);
+                if (!exact && !(ignoreCase && segment.equalsIgnoreCase(name))) {
+                    continue;
+                }
+                if (depth < paths[path].length - 1) {
+                    if (valueToken == JsonToken.START_OBJECT) {
+                        descend[descendCount] = path;
+                        descendExact[descendCount++] = exact;
+                    }
+                } else if (extraction.accepts(path, exact)) {
+                    if (value == NOT_READ) {
+                        value = readValue(parser, extraction.nodes);
+                    }
+                    extraction.set(path, value, exact);
+                }
+            }
+            if (finishField(parser, depth, value, descend, descendExact, descendCount, extraction)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * enters the value of the current field for the nested paths, or skips it.
+     *
+     * @return true when every path is found with an exact match
+     */
+    private boolean finishField(JsonParser parser, int depth, Object value, int[] descend, boolean[] descendExact,
+                                int descendCount, Extraction extraction) throws IOException {
+        if (descendCount == 0) {
+            // no-op for scalars and for values already read as a tree
+            parser.skipChildren();
+        } else if (value instanceof JsonNode tree) {
+            // the object was read as a leaf of another path, resolve the nested paths in its tree
+            for (int d = 0; d < descendCount; d++) {
+                resolveInTree(tree, depth + 1, descend[d], descendExact[d], extraction);
+            }
+        } else if (readObject(parser, depth + 1, descend, descendExact, descendCount, extraction)) {
+            return true;
+        }
+        return extraction.complete();
+    }
+
+    private static Object readValue(JsonParser parser, boolean nodes) throws IOException {
+        if (nodes) {
+            return parser.readValueAsTree();
+        }
+        JsonToken token = parser.currentToken();
+        switch (token) {
+            case START_OBJECT, START_ARRAY:
+                // the container is skipped by the caller unless a nested path enters it
+                return "";
+            case VALUE_NUMBER_FLOAT:
+                return Double.toString(parser.getDoubleValue());
+            case VALUE_NULL:
+                return "null";
+            default:
+                return parser.getText();
+        }
+    }
+
+    private void resolveInTree(JsonNode tree, int depth, int path, boolean exact, Extraction extraction) {
+        JsonNode node = tree;
+        boolean pathExact = exact;
+        for (int i = depth; i < paths[path].length && node != null; i++) {
+            String segment = paths[path][i];
+            JsonNode child = node.get(segment);
+            if (child == null && ignoreCase) {
+                pathExact = false;
+                child = findIgnoreCase(node, segment);
+            }
+            node = child;
+        }
+        if (node != null && extraction.accepts(path, pathExact)) {
+            extraction.set(path, node, pathExact);
+        }
+    }
+
+    private static JsonNode findIgnoreCase(JsonNode node, String segment) {
+        Iterator<String> names = node.fieldNames();
+        while (names.hasNext()) {
+            String name = names.next();
+            if (name.equalsIgnoreCase(segment)) {
+                return node.get(name);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "JsonFieldExtractor" + Arrays.deepToString(paths);
+    }
+
+    /**
+     * values found so far for one document.
+     */
+    private static final class Extraction {
+
+        private final Object[] values;
+        private final boolean nodes;
+        private final boolean[] found;
+        private final boolean[] exact;
+        private int remaining;
+
+        Extraction(Object[] values, boolean nodes) {
+            this.values = values;
+            this.nodes = nodes;
+            this.found = new boolean[values.length];
+            this.exact = new boolean[values.length];
+            this.remaining = values.length;
+        }
+
+        /**
+         * an exact match replaces a case-insensitive one, otherwise the first match wins.
+         */
+        boolean accepts(int path, boolean exactMatch) {
+            return !found[path] || (exactMatch && !exact[path]);
+        }
+
+        void set(int path, Object value, boolean exactMatch) {
+            values[path] = value;
+            found[path] = true;
+            if (exactMatch) {
+                exact[path] = true;
+                remaining--;
+            }
+        }
+
+        boolean complete() {
+            return remaining == 0;
+        }
+    }
+}
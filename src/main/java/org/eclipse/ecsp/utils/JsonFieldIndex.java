@@ -0,0 +1,140 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Case-insensitive field lookups on one {@link JsonNode}, for handlers reading many fields of the same node.<br/>
+ * Exact names are looked up directly, like {@link JsonUtils#safeGetStringFromJsonNode(String, JsonNode)}.
+ * On the first miss an index from the lower cased field names to the field names is built once, so further
+ * misses are a hash lookup instead of a scan over all fields. As with the scan, the first field wins when
+ * several names only differ in case.<br/>
+ * The node must not be modified after the index is built.
+ *
+ * @author abhishekkumar
+ */
+public final class JsonFieldIndex {
+
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final JsonNode node;
+    private volatile Map<String, String> foldedNames;
+
+    private JsonFieldIndex(JsonNode node) {
+        this.node = node;
+    }
+
+    /**
+     * Wraps the node, the index is built lazily.
+     *
+     * @param node json object, other nodes have no fields
+     * @return JsonFieldIndex
+     */
+    public static JsonFieldIndex of(JsonNode node) {
+        return new JsonFieldIndex(node);
+    }
+
+    /**
+     * Field value by name, an exact match is preferred over a case-insensitive one.
+     *
+     * @param key field name
+     * @return field value, null if absent
+     */
+    public JsonNode get(String key) {
+        if (node == null) {
+            return null;
+        }
+        JsonNode value = node.get(key);
+        if (value != null || !node.isObject()) {
+            return value;
+        }
+        String name = foldedNames().get(fold(key));
+        return name == null ? null : node.get(name);
+    }
+
+    /**
+     * Field value by name as text, see {@link JsonNode#asText()}.
+     *
+     * @param key field name
+     * @return field value text, null if absent
+     */
+    public String getString(String key) {
+        JsonNode value = get(key);
+        return value == null ? null : value.asText();
+    }
+
+    /**
+     * Field value by name as a list, see {@link JsonUtils#getValuesAsList(JsonNode, String)}.
+     *
+     * @param key field name
+     * @return list of the string values, empty if absent
+     */
+    public List<String> getValuesAsList(String key) {
+        return JsonUtils.valuesAsList(get(key));
+    }
+
+    /**
+     * Reads several fields at once as text.
+     *
+     * @param keys field names
+     * @return field values text by requested key, in the iteration order of keys, absent fields are left out
+     */
+    public Map<String, String> extract(Collection<String> keys) {
+        Map<String, String> values = new LinkedHashMap<>(capacity(keys.size()));
+        for (String key : keys) {
+            String value = getString(key);
+            if (value != null) {
+                values.put(key, value);
+            }
+        }
+        return values;
+    }
+
+    private Map<String, String> foldedNames() {
+        Map<String, String> names = foldedNames;
+        if (names == null) {
+            names = new HashMap<>(capacity(node.size()));
+            Iterator<String> it = node.fieldNames();
+            while (it.hasNext()) {
+                String name = it.next();
+                names.putIfAbsent(fold(name), name);
+            }
+            // an idempotent build, racing threads build equal indexes
+            foldedNames = names;
+        }
+        return names;
+    }
+
+    private static int capacity(int size) {
+        return (int) (size / LOAD_FACTOR) + 1;
+    }
+
+    private static String fold(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
@@ -20,17 +20,25 @@ package org.eclipse.ecsp.utils;
 
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonParser.Feature;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.DefaultSerializerProvider;
 import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
 import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.google.common.cache.CacheBuilder;
 import org.eclipse.ecsp.entities.EventData;
 import org.eclipse.ecsp.entities.EventDataDeSerializer;
 import org.eclipse.ecsp.entities.IgniteEvent;
@@ -40,11 +48,19 @@ import org.joda.time.DateTime;
 import org.joda.time.format.DateTimeFormatter;
 import org.joda.time.format.ISODateTimeFormat;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * {@link JsonUtils} contains utility methods for json serialization and de-serializations.
@@ -56,40 +72,128 @@ public class JsonUtils {
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
     private static final DateTimeFormatter DATE_TIME_FORMATTER =
             ISODateTimeFormat.dateTime().withZoneUTC();
+    /**
+     * Maximum number of classes with a cached reader, list reader or writer. The writers are keyed by runtime
+     * class, which may be generated or proxy classes, so the caches are bounded to not pin their class loaders.
+     */
+    private static final int MAX_CACHED_TYPES = 1000;
+    /**
+     * Readers per target class and per list element class, built once since resolving the
+     * {@link JavaType} and the root deserializer on every call is the bulk of the cost for small payloads.
+     */
+    private static final Map<Class<?>, ObjectReader> READERS = boundedCache();
+    private static final Map<Class<?>, ObjectReader> LIST_READERS = boundedCache();
+    private static final Map<Class<?>, ObjectWriter> WRITERS = boundedCache();
+
+    private static final AtomicBoolean BLACKBIRD_ENABLED = new AtomicBoolean();
+    /**
+     * Mapper per {@link PayloadFormat}, all with the configuration of the json mapper.
+     */
+    private static final Map<PayloadFormat, ObjectMapper> MAPPERS = new ConcurrentHashMap<>();
 
     static {
-        OBJECT_MAPPER.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-        OBJECT_MAPPER.configure(Feature.INCLUDE_SOURCE_IN_LOCATION, true);
-        OBJECT_MAPPER.setSerializationInclusion(Include.NON_NULL);
+        configure(OBJECT_MAPPER);
+        MAPPERS.put(PayloadFormat.JSON, OBJECT_MAPPER);
+    }
+
+    /**
+     * Rebuilt when a module is registered, writers keep the serializer factory they were created with.
+     */
+    private static volatile ObjectWriter prettyWriter = OBJECT_MAPPER.writerWithDefaultPrettyPrinter();
+
+    private JsonUtils() {
+    }
+
+    private static <V> Map<Class<?>, V> boundedCache() {
+        return CacheBuilder.newBuilder().maximumSize(MAX_CACHED_TYPES).<Class<?>, V>build().asMap();
+    }
+
+    private static ObjectMapper configure(ObjectMapper mapper) {
+        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        mapper.configure(Feature.INCLUDE_SOURCE_IN_LOCATION, true);
+        mapper.setSerializationInclusion(Include.NON_NULL);
         SimpleModule simpleModule = new SimpleModule();
         EventDataDeSerializer eventDataDeSerializer = new EventDataDeSerializer();
         simpleModule.addDeserializer(EventData.class, eventDataDeSerializer);
-        OBJECT_MAPPER.registerModule(simpleModule);
-        OBJECT_MAPPER.setFilterProvider(
+        mapper.registerModule(simpleModule);
+        mapper.setFilterProvider(
                 new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+        if (BLACKBIRD_ENABLED.get()) {
+            mapper.registerModule(new BlackbirdModule());
+        }
+        return mapper;
     }
 
-    private JsonUtils() {
+    private static ObjectMapper mapper(PayloadFormat format) {
+        return MAPPERS.computeIfAbsent(format, f -> configure(new ObjectMapper(f.newFactory())));
+    }
+
+    /**
+     * Registers the Jackson Blackbird module, bean properties are then accessed through
+     * LambdaMetafactory generated accessors instead of reflection. Idempotent.<br/>
+     * Call during startup, before the first use of JsonUtils: the cached readers, writers and serializers are
+     * discarded, but deserializers already built for a type keep using reflection.
+     */
+    public static void enableBlackbird() {
+        if (BLACKBIRD_ENABLED.compareAndSet(false, true)) {
+            LOGGER.info("Registering jackson blackbird module");
+            for (ObjectMapper mapper : MAPPERS.values()) {
+                mapper.registerModule(new BlackbirdModule());
+                ((DefaultSerializerProvider) mapper.getSerializerProvider()).flushCachedSerializers();
+            }
+            READERS.clear();
+            LIST_READERS.clear();
+            WRITERS.clear();
+            prettyWriter = OBJECT_MAPPER.writerWithDefaultPrettyPrinter();
+        }
     }
 
     /**
-     * Fetch specific field value from json string by using field name.
+     * Resolves the readers and writers of the given types, so the (de)serializers are built at startup
+     * instead of by the first request.
+     *
+     * @param types classes to resolve
+     */
+    public static void warmUp(Class<?>... types) {
+        for (Class<?> type : types) {
+            reader(type);
+            listReader(type);
+            writer(type);
+        }
+        LOGGER.info("Warmed up json readers and writers for {} types", types.length);
+    }
+
+    /**
+     * Fetch specific field value from json string by using field name.<br/>
+     * The field name is matched case-insensitively if there is no exact match, the json is streamed
+     * until the field is found instead of being parsed into a tree.
      *
      * @param key  field name/attribute name in the json string
      * @param data json in string format
      * @return {@link String} field value from the json
      */
     public static String getValueAsString(String key, String data) {
+        String[] values = getValuesAsString(JsonFieldExtractor.ofKey(key, true), data);
+        return values == null ? null : values[0];
+    }
 
-        JsonNode json = null;
-        try {
-            json = OBJECT_MAPPER.readValue(data, JsonNode.class);
+    /**
+     * Fetch the values of the compiled paths from json string, see {@link JsonFieldExtractor}.
+     *
+     * @param extractor compiled paths
+     * @param data      json in string format
+     * @return values in the order of the paths, null if the json can not be parsed
+     */
+    public static String[] getValuesAsString(JsonFieldExtractor extractor, String data) {
+        if (data == null) {
+            return null;
+        }
+        try (JsonParser parser = OBJECT_MAPPER.createParser(data)) {
+            return extractor.extractText(parser);
         } catch (IOException e) {
             LOGGER.info("Unable to parse the event data: {} ", data);
             return null;
         }
-        return safeGetStringFromJsonNode(key, json);
-
     }
 
     /**
@@ -103,8 +207,53 @@ public class JsonUtils {
      */
     public static <T> T parseInputJson(String inputJson, Class<T> clazz)
             throws IOException {
-        return OBJECT_MAPPER.readValue(inputJson.getBytes(StandardCharsets.UTF_8),
-                OBJECT_MAPPER.getTypeFactory().constructType(clazz));
+        return reader(clazz).readValue(inputJson);
+    }
+
+    /**
+     * Deserialize utf-8 json bytes to specific class object.
+     *
+     * @param inputJson json bytes
+     * @param clazz     deserialization class type
+     * @param <T>       class type
+     * @return object of type T class instance
+     * @throws IOException when unable to deserialized json to specified class instance
+     */
+    public static <T> T parseInputJson(byte[] inputJson, Class<T> clazz)
+            throws IOException {
+        return reader(clazz).readValue(inputJson);
+    }
+
+    /**
+     * Deserialize a json stream to specific class object, the stream is closed after reading.
+     *
+     * @param inputJson json stream
+     * @param clazz     deserialization class type
+     * @param <T>       class type
+     * @return object of type T class instance
+     * @throws IOException when unable to deserialized json to specified class instance
+     */
+    public static <T> T parseInputJson(InputStream inputJson, Class<T> clazz)
+            throws IOException {
+        return reader(clazz).readValue(inputJson);
+    }
+
+    /**
+     * Deserialize bytes in the given format to specific class object.
+     *
+     * @param input  serialized bytes
+     * @param clazz  deserialization class type
+     * @param format encoding of the bytes
+     * @param <T>    class type
+     * @return object of type T class instance
+     * @throws IOException when unable to deserialized the bytes to specified class instance
+     */
+    public static <T> T parseInputJson(byte[] input, Class<T> clazz, PayloadFormat format)
+            throws IOException {
+        if (format == PayloadFormat.JSON) {
+            return parseInputJson(input, clazz);
+        }
+        return mapper(format).readValue(input, clazz);
     }
 
     /**
@@ -118,12 +267,154 @@ public class JsonUtils {
      */
     public static <T> List<T> parseJsonAsList(String json, Class<T> clazz)
             throws IOException {
-        List<T> response = OBJECT_MAPPER.readValue(json.getBytes(StandardCharsets.UTF_8),
-                OBJECT_MAPPER.getTypeFactory().constructCollectionType(List.class, clazz));
+        List<T> response = listReader(clazz).readValue(json);
         LOGGER.trace("parsed json: {}", response);
         return response;
     }
 
+    /**
+     * deserialization utf-8 json bytes to list of specific class objects.
+     *
+     * @param json  json bytes
+     * @param clazz deserialization class type
+     * @param <T>   class type
+     * @return list of type T class instance
+     * @throws IOException when unable to deserialized json to specified class instance
+     */
+    public static <T> List<T> parseJsonAsList(byte[] json, Class<T> clazz)
+            throws IOException {
+        List<T> response = listReader(clazz).readValue(json);
+        LOGGER.trace("parsed json: {}", response);
+        return response;
+    }
+
+    /**
+     * deserialization json stream to list of specific class objects, the stream is closed after reading.
+     *
+     * @param json  json stream
+     * @param clazz deserialization class type
+     * @param <T>   class type
+     * @return list of type T class instance
+     * @throws IOException when unable to deserialized json to specified class instance
+     */
+    public static <T> List<T> parseJsonAsList(InputStream json, Class<T> clazz)
+            throws IOException {
+        List<T> response = listReader(clazz).readValue(json);
+        LOGGER.trace("parsed json: {}", response);
+        return response;
+    }
+
+    /**
+     * Reads the elements of a json array (or a sequence of root level values) one at a time, only the current
+     * element is held in memory. The caller closes the iterator, which closes the stream.
+     *
+     * @param json  json stream
+     * @param clazz element class type
+     * @param <T>   class type
+     * @return iterator over the elements, errors while iterating are thrown as
+     *     {@link com.fasterxml.jackson.databind.RuntimeJsonMappingException}
+     * @throws IOException when the stream can not be read
+     */
+    public static <T> MappingIterator<T> readJsonArray(InputStream json, Class<T> clazz)
+            throws IOException {
+        return reader(clazz).readValues(json);
+    }
+
+    /**
+     * Streams the elements of a json array, see {@link #readJsonArray(InputStream, Class)}.
+     * The stream must be closed, e.g. with try-with-resources.
+     *
+     * @param json  json stream
+     * @param clazz element class type
+     * @param <T>   class type
+     * @return sequential stream of the elements
+     * @throws IOException when the stream can not be read
+     */
+    public static <T> Stream<T> streamJsonArray(InputStream json, Class<T> clazz)
+            throws IOException {
+        MappingIterator<T> iterator = readJsonArray(json, clazz);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+            .onClose(() -> closeQuietly(iterator));
+    }
+
+    /**
+     * Streams the elements of a json array in batches of batchSize (the last one may be smaller), e.g. to
+     * publish or store bulk payloads while reading them. The stream must be closed.
+     *
+     * @param json      json stream
+     * @param clazz     element class type
+     * @param batchSize maximum number of elements per batch
+     * @param <T>       class type
+     * @return sequential stream of the batches
+     * @throws IOException when the stream can not be read
+     */
+    public static <T> Stream<List<T>> streamJsonArray(InputStream json, Class<T> clazz, int batchSize)
+            throws IOException {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        MappingIterator<T> iterator = readJsonArray(json, clazz);
+        Iterator<List<T>> batches = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public List<T> next() {
+                if (!iterator.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                List<T> batch = new ArrayList<>(batchSize);
+                while (batch.size() < batchSize && iterator.hasNext()) {
+                    batch.add(iterator.next());
+                }
+                return batch;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(batches, Spliterator.ORDERED), false)
+            .onClose(() -> closeQuietly(iterator));
+    }
+
+    private static void closeQuietly(MappingIterator<?> iterator) {
+        try {
+            iterator.close();
+        } catch (IOException e) {
+            LOGGER.warn("Unable to close the json stream, error {}", e);
+        }
+    }
+
+    /**
+     * Cached reader for the class.
+     *
+     * @param clazz deserialization class type
+     * @return {@link ObjectReader} for the class
+     */
+    public static ObjectReader reader(Class<?> clazz) {
+        return READERS.computeIfAbsent(clazz, c -> OBJECT_MAPPER.readerFor(c));
+    }
+
+    /**
+     * Cached reader for a {@link List} of the element class.
+     *
+     * @param clazz list element class type
+     * @return {@link ObjectReader} for the list type
+     */
+    public static ObjectReader listReader(Class<?> clazz) {
+        return LIST_READERS.computeIfAbsent(clazz,
+            c -> OBJECT_MAPPER.readerFor(OBJECT_MAPPER.getTypeFactory().constructCollectionType(List.class, c)));
+    }
+
+    /**
+     * Cached writer for the class.
+     *
+     * @param clazz serialization class type
+     * @return {@link ObjectWriter} for the class
+     */
+    public static ObjectWriter writer(Class<?> clazz) {
+        return WRITERS.computeIfAbsent(clazz, c -> OBJECT_MAPPER.writerFor(c));
+    }
+
     /**
      * deserialize json string to {@link List}.<br/>
      * return null if param is null or cannot be converted to {@link List}
@@ -197,9 +488,11 @@ public class JsonUtils {
     public static String getObjectValueAsString(Object obj) {
         try {
             if (obj instanceof IgniteEvent) {
-                return OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(obj);
+                return prettyWriter.writeValueAsString(obj);
+            } else if (obj == null) {
+                return OBJECT_MAPPER.writeValueAsString(null);
             } else {
-                return OBJECT_MAPPER.writeValueAsString(obj);
+                return writer(obj.getClass()).writeValueAsString(obj);
             }
         } catch (JsonProcessingException e) {
             LOGGER.error("Json Parsing failed", e);
@@ -216,8 +509,21 @@ public class JsonUtils {
      * @return Json as byte array
      */
     public static byte[] getObjectValueAsBytes(Object obj) {
+        return getObjectValueAsBytes(obj, PayloadFormat.JSON);
+    }
+
+    /**
+     * serialize Object to bytes in the given format, e.g. Smile or CBOR for payloads exchanged between
+     * services.<br/>
+     * if the obj cannot be serialized return empty array
+     *
+     * @param obj    object instance to be serialized
+     * @param format encoding of the bytes
+     * @return serialized bytes
+     */
+    public static byte[] getObjectValueAsBytes(Object obj, PayloadFormat format) {
         try {
-            return OBJECT_MAPPER.writeValueAsBytes(obj);
+            return mapper(format).writeValueAsBytes(obj);
         } catch (JsonProcessingException e) {
             LOGGER.error("Unable to create the class for the object {} error {}", obj.toString(), e);
             return new byte[]{};
@@ -226,26 +532,23 @@ public class JsonUtils {
 
     /**
      * serialize specific portion of the json by field to {@link JsonNode}.<br/>
-     * if the obj is null or json doesn't contains specifed field name then return null
+     * if the obj is null or json doesn't contains specifed field name then return null.<br/>
+     * Only the value of the field is read into a tree, the rest of the json is streamed.
      *
      * @param key  field name
      * @param data json string to be converted to JsonNode
      * @return JsonNode of specified field
      */
     public static JsonNode getJsonNode(String key, String data) {
-        JsonNode json = null;
-        try {
-            json = OBJECT_MAPPER.readValue(data, JsonNode.class);
-        } catch (IOException e) {
-            LOGGER.error("Unable to parse the event data: {}, error {}", data, e);
+        if (data == null) {
             return null;
         }
-
-        if (json == null) {
+        try (JsonParser parser = OBJECT_MAPPER.createParser(data)) {
+            return JsonFieldExtractor.ofKey(key, false).extractNodes(parser)[0];
+        } catch (IOException e) {
+            LOGGER.error("Unable to parse the event data: {}, error {}", data, e);
             return null;
         }
-
-        return json.get(key);
     }
 
     /**
@@ -266,6 +569,28 @@ public class JsonUtils {
 
     }
 
+    /**
+     * Lazy {@link Map} view of a json object, for reading a few keys of a large payload.<br/>
+     * Only the top level field offsets are indexed, on first access, and each value is decoded when
+     * requested. Null or invalid json is an empty map, like {@link #getJsonAsMap(String)}.
+     *
+     * @param eventData json in utf-8 bytes
+     * @return json data as a lazy {@link Map}
+     */
+    public static LazyJsonMap getJsonAsLazyMap(byte[] eventData) {
+        return new LazyJsonMap(eventData);
+    }
+
+    /**
+     * Lazy {@link Map} view of a json object, see {@link #getJsonAsLazyMap(byte[])}.
+     *
+     * @param eventData json in string format
+     * @return json data as a lazy {@link Map}
+     */
+    public static LazyJsonMap getJsonAsLazyMap(String eventData) {
+        return new LazyJsonMap(eventData == null ? null : eventData.getBytes(StandardCharsets.UTF_8));
+    }
+
     /**
      * Deserialize json string to {@link Map}.<br/>
      * return null if param is null or cannot be converted to {@link Map}
@@ -288,8 +613,14 @@ public class JsonUtils {
      * @return list of {@link String} of specified field name
      */
     public static List<String> getValuesAsList(JsonNode node, String key) {
+        return valuesAsList(node.get(key));
+    }
+
+    /**
+     * the text of a string value or of the elements of an array value as a list.
+     */
+    static List<String> valuesAsList(JsonNode val) {
         List<String> list = new ArrayList<>();
-        JsonNode val = node.get(key);
         if (null != val) {
             if (val.isArray()) {
                 Iterator<JsonNode> iter = val.iterator();
@@ -319,7 +650,7 @@ public class JsonUtils {
      */
     public static <T> T bindData(String eventData, Class<T> clazz)
             throws IOException {
-        return OBJECT_MAPPER.readValue(eventData, clazz);
+        return reader(clazz).readValue(eventData);
     }
 
     /**
@@ -333,8 +664,7 @@ public class JsonUtils {
      */
     public static <T> List<T> getListObjects(String data, Class<T> cl)
             throws IOException {
-        return OBJECT_MAPPER.readValue(data,
-                OBJECT_MAPPER.getTypeFactory().constructCollectionType(List.class, cl));
+        return listReader(cl).readValue(data);
     }
 
     /**
@@ -0,0 +1,208 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.utils;
+
+import org.bson.types.ObjectId;
+import org.eclipse.ecsp.constants.Constants;
+import org.eclipse.ecsp.exceptions.BadRequestException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Immutable position of a keyset (seek) pagination: the timestamp and the _id of the last record of a page
+ * and the sort order of the traversal.<br/>
+ * Encoded as an opaque url safe token: a version, the sort order, the timestamp and the typed id
+ * ({@link ObjectId}, {@link String}, {@link Long} or {@link Integer}), about 30 characters for an ObjectId.
+ *
+ * @author abhishekkumar
+ */
+public final class KeysetCursor {
+
+    private static final byte VERSION = 1;
+    private static final byte ASC = 0;
+    private static final byte DESC = 1;
+    private static final byte OBJECT_ID = 0;
+    private static final byte STRING = 1;
+    private static final byte LONG = 2;
+    private static final byte INTEGER = 3;
+    private static final int HEADER_BYTES = 2 + Long.BYTES + 1;
+
+    private final long timestamp;
+    private final Object id;
+    private final boolean descending;
+
+    private KeysetCursor(long timestamp, Object id, boolean descending) {
+        this.timestamp = timestamp;
+        this.id = id;
+        this.descending = descending;
+    }
+
+    /**
+     * Creates the cursor positioned after the given record.
+     *
+     * @param timestamp timestamp of the record
+     * @param id        _id of the record, an {@link ObjectId}, {@link String}, {@link Long} or {@link Integer}
+     * @param sortOrder desc for a descending traversal, anything else is ascending
+     * @return the cursor
+     */
+    public static KeysetCursor of(long timestamp, Object id, String sortOrder) {
+        if (id == null) {
+            throw new IllegalArgumentException(Constants.ERROR_NULL_OBJECT_ID);
+        }
+        if (!(id instanceof ObjectId || id instanceof String || id instanceof Long || id instanceof Integer)) {
+            throw new IllegalArgumentException("Unsupported cursor id type " + id.getClass().getName());
+        }
+        return new KeysetCursor(timestamp, id, Constants.DESC_ORDER.equalsIgnoreCase(sortOrder));
+    }
+
+    /**
+     * Encodes the cursor as an url safe token.
+     *
+     * @return the token
+     */
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(toBytes());
+    }
+
+    /**
+     * binary form of the cursor, also embedded in the composite cursors of {@link FleetHistoryFanOut}.
+     */
+    byte[] toBytes() {
+        ByteBuffer buffer;
+        if (id instanceof ObjectId objectId) {
+            buffer = header(OBJECT_ID, objectId.toByteArray().length).put(objectId.toByteArray());
+        } else if (id instanceof Long value) {
+            buffer = header(LONG, Long.BYTES).putLong(value);
+        } else if (id instanceof Integer value) {
+            buffer = header(INTEGER, Integer.BYTES).putInt(value);
+        } else {
+            byte[] value = ((String) id).getBytes(StandardCharsets.UTF_8);
+            buffer = header(STRING, value.length).put(value);
+        }
+        return buffer.array();
+    }
+
+    private ByteBuffer header(byte idType, int idBytes) {
+        return ByteBuffer.allocate(HEADER_BYTES + idBytes).put(VERSION).put(descending ? DESC : ASC)
+            .putLong(timestamp).put(idType);
+    }
+
+    /**
+     * Decodes a token created by {@link #encode()}.
+     *
+     * @param token the token received from the client
+     * @return the cursor
+     * @throws BadRequestException if the token is not a valid cursor
+     */
+    public static KeysetCursor decode(String token) throws BadRequestException {
+        try {
+            return fromBytes(ByteBuffer.wrap(Base64.getUrlDecoder().decode(token)));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(Constants.ERROR_INVALID_CURSOR, e);
+        }
+    }
+
+    /**
+     * reads a cursor written by {@link #toBytes()}, the buffer must end with the cursor.
+     */
+    static KeysetCursor fromBytes(ByteBuffer buffer) throws BadRequestException {
+        try {
+            byte version = buffer.get();
+            byte order = buffer.get();
+            if (version != VERSION || (order != ASC && order != DESC)) {
+                throw new BadRequestException(Constants.ERROR_INVALID_CURSOR);
+            }
+            long timestamp = buffer.getLong();
+            return new KeysetCursor(timestamp, decodeId(buffer), order == DESC);
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            throw new BadRequestException(Constants.ERROR_INVALID_CURSOR, e);
+        }
+    }
+
+    private static Object decodeId(ByteBuffer buffer) throws BadRequestException {
+        byte idType = buffer.get();
+        Object decoded = switch (idType) {
+            case OBJECT_ID -> new ObjectId(buffer);
+            case LONG -> buffer.getLong();
+            case INTEGER -> buffer.getInt();
+            case STRING -> StandardCharsets.UTF_8.decode(buffer).toString();
+            default -> throw new BadRequestException(Constants.ERROR_INVALID_CURSOR);
+        };
+        if (buffer.hasRemaining()) {
+            throw new BadRequestException(Constants.ERROR_INVALID_CURSOR);
+        }
+        return decoded;
+    }
+
+    /**
+     * This method is a getter for timestamp.
+     *
+     * @return long
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * This method is a getter for id.
+     *
+     * @return Object
+     */
+    public Object getId() {
+        return id;
+    }
+
+    /**
+     * This method is a getter for descending.
+     *
+     * @return boolean
+     */
+    public boolean isDescending() {
+        return descending;
+    }
+
+    /**
+     * sort order of the traversal, asc or desc.
+     *
+     * @return String
+     */
+    public String getSortOrder() {
+        return descending ? Constants.DESC_ORDER : "asc";
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof KeysetCursor other && timestamp == other.timestamp && descending == other.descending
+            && id.equals(other.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(timestamp, id, descending);
+    }
+
+    @Override
+    public String toString() {
+        return "KeysetCursor{timestamp=" + timestamp + ", id=" + id + ", sortOrder=" + getSortOrder() + "}";
+    }
+}
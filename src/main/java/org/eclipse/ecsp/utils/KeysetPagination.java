@@ -0,0 +1,178 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.utils;
+
+import org.apache.commons.lang3.StringUtils;
+import org.eclipse.ecsp.constants.Constants;
+import org.eclipse.ecsp.exceptions.BadRequestException;
+import org.eclipse.ecsp.nosqldao.IgniteCriteriaGroup;
+import org.eclipse.ecsp.nosqldao.IgniteQuery;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Immutable and thread safe keyset (seek) pagination over records sorted by timestamp and _id.<br/>
+ * Instead of skipping pageNumber * pageSize records, every page seeks past the last record of the previous
+ * page: <i>timestamp &lt; t or (timestamp = t and _id &lt; id)</i> for a descending traversal, so the cost of
+ * a page does not grow with its depth. The position travels to the client as an opaque
+ * {@link KeysetCursor} token.<br/>
+ * Usage: build the query with {@link #buildQuery(Supplier, String, String, int)}, run it and pass the
+ * result to {@link #page(List, int, String, ToLongFunction, Function)} to get the records and the next token.
+ * Records are ordered by timestamp in the given order and then by _id descending, like
+ * {@link ApiPaginationUtils}.
+ *
+ * @author abhishekkumar
+ */
+public final class KeysetPagination {
+
+    private final ApiPaginationUtils criteriaBuilder;
+    private final PaginationQueryTemplate queryTemplate;
+
+    /**
+     * Creates the pagination for the given field names.
+     *
+     * @param eventIdKey   event id key to be match with record in db.
+     * @param timestampKey timestamp key to be match with record in db.
+     * @param vehicleIdKey vehicle id key to be match with record in db.
+     */
+    public KeysetPagination(String eventIdKey, String timestampKey, String vehicleIdKey) {
+        this.criteriaBuilder = new ApiPaginationUtils(eventIdKey, timestampKey, vehicleIdKey);
+        this.queryTemplate = criteriaBuilder.getQueryTemplate();
+    }
+
+    /**
+     * Filter of {@link ApiPaginationUtils#buildBasicCriteriaGroup(String, Long, Long, String)}, every call of
+     * the supplier builds a new group. A missing until is resolved to the current time once, so both groups
+     * of the seek predicate have the same bounds.
+     *
+     * @param vehicleId actual vehicle id to be mapped with vehicle id key
+     * @param since     lower timestamp bound, ignored if null or zero
+     * @param until     upper timestamp bound, the current time if null or zero
+     * @param eventId   event id, all events but acknowledgements if null or empty
+     * @return supplier of the filter
+     */
+    public Supplier<IgniteCriteriaGroup> basicCriteria(String vehicleId, Long since, Long until, String eventId) {
+        Long upper = until != null && until > Constants.ZERO ? until : Long.valueOf(System.currentTimeMillis());
+        return () -> criteriaBuilder.buildBasicCriteriaGroup(vehicleId, since, upper, eventId);
+    }
+
+    /**
+     * Builds the query of a page: the filter, the seek predicate of the cursor if any, the sort and a limit
+     * of pageSize + 1 records, the extra record tells whether there is a next page.
+     *
+     * @param criteria  filter of the records, called once for the first page and twice otherwise
+     * @param sortOrder desc or asc, must be the order of the cursor if a cursor is given
+     * @param cursor    token of the previous page, null or empty for the first page
+     * @param pageSize  number of records per page, between 1 and Integer.MAX_VALUE - 1
+     * @return {@link IgniteQuery}
+     * @throws BadRequestException if the page size is out of range or the cursor is not a valid token or has
+     *                             another sort order
+     */
+    public IgniteQuery buildQuery(Supplier<IgniteCriteriaGroup> criteria, String sortOrder, String cursor,
+                                  int pageSize) throws BadRequestException {
+        if (!isValidPageSize(pageSize)) {
+            throw new BadRequestException(Constants.ERROR_INVALID_PAGE_SIZE);
+        }
+        boolean descending = Constants.DESC_ORDER.equalsIgnoreCase(sortOrder);
+        IgniteQuery query;
+        if (StringUtils.isEmpty(cursor)) {
+            query = new IgniteQuery(criteria.get());
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            if (position.isDescending() != descending) {
+                throw new BadRequestException(Constants.ERROR_INVALID_CURSOR);
+            }
+            query = queryTemplate.seek(criteria, position);
+        }
+        queryTemplate.sort(query, sortOrder);
+        query.setPageSize(pageSize + 1);
+        return query;
+    }
+
+    /**
+     * Trims the result of {@link #buildQuery(Supplier, String, String, int)} to the page and creates the
+     * token of the next page from its last record.
+     *
+     * @param results   records returned by the query
+     * @param pageSize  number of records per page, the one given to buildQuery
+     * @param sortOrder sort order, the one given to buildQuery
+     * @param timestamp timestamp of a record
+     * @param id        _id of a record
+     * @param <T>       type of the records
+     * @return the page
+     * @throws IllegalArgumentException if the page size is out of range
+     */
+    public <T> Page<T> page(List<T> results, int pageSize, String sortOrder, ToLongFunction<T> timestamp,
+                            Function<T, Object> id) {
+        if (!isValidPageSize(pageSize)) {
+            throw new IllegalArgumentException(Constants.ERROR_INVALID_PAGE_SIZE);
+        }
+        if (results.size() <= pageSize) {
+            return new Page<>(results, null);
+        }
+        List<T> records = results.subList(0, pageSize);
+        T last = records.get(pageSize - 1);
+        return new Page<>(records, KeysetCursor.of(timestamp.applyAsLong(last), id.apply(last), sortOrder)
+            .encode());
+    }
+
+    /**
+     * a page size leaving room for the extra record of pageSize + 1 queries.
+     */
+    static boolean isValidPageSize(int pageSize) {
+        return pageSize >= 1 && pageSize < Integer.MAX_VALUE;
+    }
+
+    /**
+     * Records of a page and the token of the next one.
+     *
+     * @param <T> type of the records
+     */
+    public static final class Page<T> {
+
+        private final List<T> records;
+        private final String nextCursor;
+
+        Page(List<T> records, String nextCursor) {
+            this.records = records;
+            this.nextCursor = nextCursor;
+        }
+
+        /**
+         * This method is a getter for records.
+         *
+         * @return List
+         */
+        public List<T> getRecords() {
+            return records;
+        }
+
+        /**
+         * This method is a getter for nextcursor, null on the last page.
+         *
+         * @return String
+         */
+        public String getNextCursor() {
+            return nextCursor;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.utils;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.eclipse.ecsp.utils.logger.IgniteLogger;
+import org.eclipse.ecsp.utils.logger.IgniteLoggerFactory;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Read only {@link Map} view of a json object backed by its utf-8 bytes, a drop-in for
+ * {@link JsonUtils#getJsonAsMap(String)} when only a few keys are read.<br/>
+ * The offsets of the top level fields are indexed on first access, without decoding any value. A value is
+ * decoded (and kept) when it is requested, as the same types getJsonAsMap produces, or as a given type with
+ * {@link #get(String, Class)}. Null or invalid json is an empty map, like getJsonAsMap.<br/>
+ * Not thread safe, the bytes must not be modified.
+ *
+ * @author abhishekkumar
+ */
+public final class LazyJsonMap extends AbstractMap<String, Object> {
+
+    private static final IgniteLogger LOGGER = IgniteLoggerFactory.getLogger(LazyJsonMap.class);
+
+    private static final Object NOT_DECODED = new Object();
+
+    private final byte[] data;
+    private Map<String, Slot> slots;
+    private Set<Entry<String, Object>> entrySet;
+
+    /**
+     * Creates the view, nothing is parsed until the first access.
+     *
+     * @param data utf-8 json object, may be null
+     */
+    public LazyJsonMap(byte[] data) {
+        this.data = data;
+    }
+
+    @Override
+    public int size() {
+        return slots().size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return slots().containsKey(key);
+    }
+
+    @Override
+    public Object get(Object key) {
+        Slot slot = slots().get(key);
+        return slot == null ? null : slot.value();
+    }
+
+    /**
+     * Decodes the value of a top level field as the given type, without the intermediate map/list/boxed
+     * representation. The value is not cached.
+     *
+     * @param key  field name
+     * @param type class of the value
+     * @param <T>  type of the value
+     * @return the value, null if the field is absent
+     */
+    public <T> T get(String key, Class<T> type) {
+        Slot slot = slots().get(key);
+        return slot == null ? null : slot.decode(type);
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    Iterator<Entry<String, Slot>> it = slots().entrySet().iterator();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return it.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            Entry<String, Slot> entry = it.next();
+                            return new LazyEntry(entry.getKey(), entry.getValue());
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return slots().size();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    private Map<String, Slot> slots() {
+        if (slots == null) {
+            slots = index();
+        }
+        return slots;
+    }
+
+    /**
+     * records the byte range of every top level value, values are skipped without being decoded.
+     */
+    private Map<String, Slot> index() {
+        if (data == null) {
+            return Map.of();
+        }
+        Map<String, Slot> index = new LinkedHashMap<>();
+        try (JsonParser parser = JsonUtils.reader(Object.class).createParser(data)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                LOGGER.error("Unable to index the event data, not a json object");
+                return Map.of();
+            }
+            JsonToken token = parser.nextToken();
+            while (token == JsonToken.FIELD_NAME) {
+                final String name = parser.currentName();
+                parser.nextToken();
+                int start = (int) parser.currentTokenLocation().getByteOffset();
+                // strings are read lazily, finish the value so the location is past its last byte
+                parser.skipChildren();
+                parser.finishToken();
+                index.put(name, new Slot(start, (int) parser.currentLocation().getByteOffset()));
+                token = parser.nextToken();
+            }
+        } catch (IOException e) {
+            LOGGER.error("Unable to index the event data, error {}", e);
+            return Map.of();
+        }
+        return index;
+    }
+
+    /**
+     * byte range of one value and its decoded value.
+     */
+    private final class Slot {
+
+        private final int start;
+        private final int end;
+        private Object value = NOT_DECODED;
+
+        Slot(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        Object value() {
+            if (value == NOT_DECODED) {
+                value = decode(Object.class);
+            }
+            return value;
+        }
+
+        <T> T decode(Class<T> type) {
+            try {
+                return JsonUtils.reader(type).readValue(data, start, end - start);
+            } catch (IOException e) {
+                // the range was tokenized while indexing, so this is a type mismatch
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * map entry decoding its value on access.
+     */
+    private static final class LazyEntry implements Entry<String, Object> {
+
+        private final String key;
+        private final Slot slot;
+
+        LazyEntry(String key, Slot slot) {
+            this.key = key;
+            this.slot = slot;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public Object getValue() {
+            return slot.value();
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Entry<?, ?> e && key.equals(e.getKey()) && Objects.equals(getValue(),
+                e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + getValue();
+        }
+    }
+}
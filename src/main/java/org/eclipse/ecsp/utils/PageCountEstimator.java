@@ -0,0 +1,193 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.utils;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.eclipse.ecsp.constants.Constants;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Approximate total counts for paginated endpoints, instead of an exact count query on every page request.
+ * <br/>
+ * Two estimates, both cached per key (e.g. vehicle and filter) for the ttl:
+ * <ul>
+ * <li>{@link #sampled(String, Long, Long, boolean, RangeCount)} splits the since/until window into
+ * totalBuckets equal buckets, counts exactly in sampledBuckets of them spread evenly over the window and
+ * extrapolates, so every count query is bounded to a small time range</li>
+ * <li>{@link #fromStats(String, LongSupplier)} caches a cheap count the database keeps anyway, e.g. the
+ * estimated document count of the collection</li>
+ * </ul>
+ * Exact counts are opt-in per request and are not cached.<br/>
+ * Thread safe.
+ *
+ * @author abhishekkumar
+ */
+public final class PageCountEstimator {
+
+    private static final double BUCKET_CENTER = 0.5D;
+    private static final String KEY_SEPARATOR = "|";
+    private static final String NOW = "now";
+    /**
+     * prefixes of the keys of the two estimates, they share the cache.
+     */
+    private static final String SAMPLED_PREFIX = "sampled|";
+    private static final String STATS_PREFIX = "stats|";
+
+    private final int totalBuckets;
+    private final int sampledBuckets;
+    private final long minTimestamp;
+    private final Cache<String, Long> cache;
+
+    /**
+     * Creates the estimator.
+     *
+     * @param totalBuckets   number of buckets the window is divided into
+     * @param sampledBuckets number of buckets counted, between 1 and totalBuckets
+     * @param ttlMillis      time an estimate is kept
+     * @param maxEntries     maximum number of cached estimates
+     * @param minTimestamp   start of the window when since is absent, e.g. the retention limit
+     */
+    public PageCountEstimator(int totalBuckets, int sampledBuckets, long ttlMillis, long maxEntries,
+                              long minTimestamp) {
+        if (sampledBuckets < 1 || sampledBuckets > totalBuckets) {
+            throw new IllegalArgumentException("Invalid count sampling configuration");
+        }
+        this.totalBuckets = totalBuckets;
+        this.sampledBuckets = sampledBuckets;
+        this.minTimestamp = minTimestamp;
+        this.cache = CacheBuilder.newBuilder()
+            .maximumSize(maxEntries)
+            .expireAfterWrite(ttlMillis, TimeUnit.MILLISECONDS)
+            .build();
+    }
+
+    /**
+     * Count of the records in the window, extrapolated from sampled buckets unless exact is requested.
+     *
+     * @param key   identifies the filter apart from the window, e.g. vehicle id and event id
+     * @param since start of the window, minTimestamp if null or zero
+     * @param until end of the window, the current time if null or zero
+     * @param exact run one exact count over the whole window instead of estimating
+     * @param count counts the records of a time range, both bounds inclusive
+     * @return the count
+     */
+    public Count sampled(String key, Long since, Long until, boolean exact, RangeCount count) {
+        boolean untilNow = until == null || until <= Constants.ZERO;
+        long lower = since != null && since > Constants.ZERO ? since : minTimestamp;
+        long upper = untilNow ? System.currentTimeMillis() : until;
+        if (exact || upper - lower + 1 < totalBuckets) {
+            return new Count(count.count(lower, upper), true);
+        }
+        // a window ending now has one key, it is estimated once per ttl
+        String windowKey = SAMPLED_PREFIX + key + KEY_SEPARATOR + lower + KEY_SEPARATOR
+            + (untilNow ? NOW : String.valueOf(upper));
+        return new Count(cached(windowKey, () -> extrapolate(lower, upper, count)), false);
+    }
+
+    /**
+     * Count kept by the database, cached for the ttl.
+     *
+     * @param key   identifies the count
+     * @param stats cheap count, e.g. the estimated document count of the collection
+     * @return the count
+     */
+    public Count fromStats(String key, LongSupplier stats) {
+        return new Count(cached(STATS_PREFIX + key, stats), false);
+    }
+
+    private long extrapolate(long lower, long upper, RangeCount count) {
+        double width = (upper - lower + 1) / (double) totalBuckets;
+        long sampled = 0;
+        for (int i = 0; i < sampledBuckets; i++) {
+            // middle bucket of the i-th group of totalBuckets / sampledBuckets buckets
+            int bucket = (int) ((i + BUCKET_CENTER) * totalBuckets / sampledBuckets);
+            long bucketSince = lower + (long) (bucket * width);
+            long bucketUntil = bucket == totalBuckets - 1 ? upper : lower + (long) ((bucket + 1) * width) - 1;
+            sampled += count.count(bucketSince, bucketUntil);
+        }
+        return Math.round(sampled * (double) totalBuckets / sampledBuckets);
+    }
+
+    private long cached(String key, LongSupplier value) {
+        try {
+            return cache.get(key, value::getAsLong);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Drops the cached estimates.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Counts the records of a time range.
+     */
+    @FunctionalInterface
+    public interface RangeCount {
+
+        /**
+         * Counts the records of the range.
+         *
+         * @param since start of the range, inclusive
+         * @param until end of the range, inclusive
+         * @return number of records
+         */
+        long count(long since, long until);
+    }
+
+    /**
+     * A total count and whether it is exact.
+     */
+    public static final class Count {
+
+        private final long value;
+        private final boolean exact;
+
+        Count(long value, boolean exact) {
+            this.value = value;
+            this.exact = exact;
+        }
+
+        /**
+         * This method is a getter for value.
+         *
+         * @return long
+         */
+        public long getValue() {
+            return value;
+        }
+
+        /**
+         * This method is a getter for exact.
+         *
+         * @return boolean
+         */
+        public boolean isExact() {
+            return exact;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.utils;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.prometheus.client.Collector;
+import io.prometheus.client.CollectorRegistry;
+import io.prometheus.client.Counter;
+import io.prometheus.client.Gauge;
+import org.apache.commons.lang3.StringUtils;
+import org.eclipse.ecsp.utils.logger.IgniteLogger;
+import org.eclipse.ecsp.utils.logger.IgniteLoggerFactory;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Opt-in prefetching of the next page of a cursor paginated query.<br/>
+ * After a page is served its next page is fetched on the executor into a small cache, keyed by query and
+ * cursor, so the follow-up request of the client is served from memory. Cached pages expire after the ttl
+ * and the cache holds at most maxRecords records. A request for a page being prefetched waits for the
+ * prefetch instead of querying again, for at most waitMillis. Prefetches rejected by the executor are counted
+ * as failures and the page is fetched on request.<br/>
+ * The names of the enabled prefetchers are unique until they are closed. The metrics are registered in the
+ * default registry by every enabled prefetcher created, so they are exported again after the registry is
+ * cleared.<br/>
+ * When disabled every request is fetched directly.
+ *
+ * <p>Exported metrics, all labeled with cache
+ * <ul>
+ * <li>api_pagination_prefetch_requests_total - Counter of cursor requests with result hit or miss</li>
+ * <li>api_pagination_prefetch_failures_total - Counter of failed prefetches</li>
+ * <li>api_pagination_prefetch_cached_pages - Gauge of pages in the cache</li>
+ * </ul>
+ *
+ * @author abhishekkumar
+ * @param <T> type of the records
+ */
+public class PagePrefetcher<T> {
+
+    private static final IgniteLogger LOGGER = IgniteLoggerFactory.getLogger(PagePrefetcher.class);
+
+    private static final String KEY_SEPARATOR = "|";
+    private static final Set<String> NAMES = ConcurrentHashMap.newKeySet();
+
+    private final String name;
+    private final boolean enabled;
+    private final Executor executor;
+    private final long waitMillis;
+    private final Cache<String, KeysetPagination.Page<T>> cache;
+    private final Map<String, CompletableFuture<KeysetPagination.Page<T>>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the prefetcher and registers its metrics when enabled.
+     *
+     * @param name       cache label of the metrics, e.g. the api, unique among the enabled prefetchers
+     * @param enabled    prefetch the next pages, if false every request is fetched directly
+     * @param executor   runs the prefetches
+     * @param maxRecords memory bound, maximum number of records of all the cached pages
+     * @param ttlMillis  time a prefetched page is kept
+     * @param waitMillis time a request waits for the prefetch of its page before fetching it directly, short
+     *                   compared to the ttl
+     * @throws IllegalArgumentException if an enabled prefetcher with the same name is not closed
+     */
+    public PagePrefetcher(String name, boolean enabled, Executor executor, long maxRecords, long ttlMillis,
+                          long waitMillis) {
+        if (enabled && !NAMES.add(name)) {
+            throw new IllegalArgumentException("Page prefetcher " + name + " already exists");
+        }
+        this.name = name;
+        this.enabled = enabled;
+        this.executor = executor;
+        this.waitMillis = waitMillis;
+        // a single segment, the weight bound is split between the segments and pages larger than a share
+        // would be evicted right away
+        this.cache = CacheBuilder.newBuilder()
+            .concurrencyLevel(1)
+            .maximumWeight(maxRecords)
+            .<String, KeysetPagination.Page<T>>weigher((key, page) -> page.getRecords().size())
+            .expireAfterWrite(ttlMillis, TimeUnit.MILLISECONDS)
+            .build();
+        if (enabled) {
+            Metrics.register();
+            Metrics.CACHED_PAGES.setChild(new Gauge.Child() {
+                @Override
+                public double get() {
+                    return cache.size();
+                }
+            }, name);
+        }
+    }
+
+    /**
+     * Serves the page of the cursor, from the cache if it was prefetched, and prefetches the next one.
+     *
+     * @param queryKey identifies the query apart from the cursor (filter, sort order, page size), pages are
+     *                 only shared between requests with the same query key
+     * @param cursor   cursor of the page, null or empty for the first page
+     * @param fetch    fetches the page of a cursor
+     * @return the page
+     */
+    public KeysetPagination.Page<T> page(String queryKey, String cursor,
+                                         Function<String, KeysetPagination.Page<T>> fetch) {
+        if (!enabled) {
+            return fetch.apply(cursor);
+        }
+        KeysetPagination.Page<T> page = StringUtils.isEmpty(cursor) ? null : cached(key(queryKey, cursor));
+        if (page == null) {
+            page = fetch.apply(cursor);
+        }
+        prefetch(queryKey, page.getNextCursor(), fetch);
+        return page;
+    }
+
+    private KeysetPagination.Page<T> cached(String key) {
+        KeysetPagination.Page<T> page = cache.getIfPresent(key);
+        if (page == null) {
+            CompletableFuture<KeysetPagination.Page<T>> prefetching = inFlight.get(key);
+            // the prefetch may have completed since the cache lookup
+            page = prefetching == null ? cache.getIfPresent(key) : prefetching.exceptionally(e -> null)
+                .completeOnTimeout(null, waitMillis, TimeUnit.MILLISECONDS).join();
+        }
+        Metrics.REQUESTS.labels(name, page == null ? "miss" : "hit").inc();
+        return page;
+    }
+
+    private void prefetch(String queryKey, String nextCursor, Function<String, KeysetPagination.Page<T>> fetch) {
+        if (StringUtils.isEmpty(nextCursor)) {
+            return;
+        }
+        String key = key(queryKey, nextCursor);
+        if (cache.getIfPresent(key) != null) {
+            return;
+        }
+        CompletableFuture<KeysetPagination.Page<T>> future = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(key, future) != null) {
+            return;
+        }
+        try {
+            CompletableFuture.runAsync(() -> {
+                try {
+                    KeysetPagination.Page<T> page = fetch.apply(nextCursor);
+                    cache.put(key, page);
+                    future.complete(page);
+                } catch (RuntimeException e) {
+                    LOGGER.error("Unable to prefetch the next page of {}, error {}", name, e);
+                    Metrics.FAILURES.labels(name).inc();
+                    future.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(key);
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("Prefetch of the next page of {} rejected by the executor, error {}", name, e);
+            Metrics.FAILURES.labels(name).inc();
+            inFlight.remove(key);
+            future.completeExceptionally(e);
+        }
+    }
+
+    private static String key(String queryKey, String cursor) {
+        return queryKey + KEY_SEPARATOR + cursor;
+    }
+
+    /**
+     * Drops the cached pages.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Drops the cached pages and the gauge of the prefetcher and releases its name.
+     */
+    public void close() {
+        cache.invalidateAll();
+        if (enabled) {
+            Metrics.CACHED_PAGES.remove(name);
+            NAMES.remove(name);
+        }
+    }
+
+    /**
+     * Number of cached pages.
+     *
+     * @return long
+     */
+    public long size() {
+        return cache.size();
+    }
+
+    /**
+     * metrics shared by all the prefetchers, registered by every enabled prefetcher.
+     */
+    private static final class Metrics {
+
+        private static final Counter REQUESTS = Counter.build().name("api_pagination_prefetch_requests_total")
+            .help("Cursor page requests served from the prefetch cache (hit) or fetched (miss)")
+            .labelNames("cache", "result")
+            .create();
+
+        private static final Counter FAILURES = Counter.build().name("api_pagination_prefetch_failures_total")
+            .help("Failed page prefetches")
+            .labelNames("cache")
+            .create();
+
+        private static final Gauge CACHED_PAGES = Gauge.build().name("api_pagination_prefetch_cached_pages")
+            .help("Pages in the prefetch cache")
+            .labelNames("cache")
+            .create();
+
+        private Metrics() {
+        }
+
+        /**
+         * registers the metrics in the default registry unless they already are.
+         */
+        static synchronized void register() {
+            for (Collector collector : new Collector[] {REQUESTS, FAILURES, CACHED_PAGES}) {
+                try {
+                    collector.register(CollectorRegistry.defaultRegistry);
+                } catch (IllegalArgumentException e) {
+                    LOGGER.debug("Page prefetch metric already registered, error {}", e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.utils;
+
+import org.apache.commons.lang3.StringUtils;
+import org.eclipse.ecsp.constants.Constants;
+import org.eclipse.ecsp.domain.EventID;
+import org.eclipse.ecsp.nosqldao.IgniteCriteria;
+import org.eclipse.ecsp.nosqldao.IgniteCriteriaGroup;
+import org.eclipse.ecsp.nosqldao.IgniteOrderBy;
+import org.eclipse.ecsp.nosqldao.IgniteQuery;
+import org.eclipse.ecsp.nosqldao.Operator;
+import java.util.function.Supplier;
+
+/**
+ * Builder of the paginated queries of {@link ApiPaginationUtils} in one call per query.<br/>
+ * {@link #bind} builds the filter, sort and limit of a page and {@link #bindAfter} the seek query of the page
+ * following a {@link KeysetCursor}; the seek predicate itself is built by {@link #seek(Supplier, KeysetCursor)}.
+ * Nothing is cached or shared between queries: {@link IgniteOrderBy} is mutable and the nosql-dao criteria
+ * are not documented as immutable, so every query gets its own criteria and order-by instances.<br/>
+ * Immutable and thread safe.
+ *
+ * @author abhishekkumar
+ */
+public final class PaginationQueryTemplate {
+
+    private static final String MONGO_COLLECTION_ID = "_id";
+
+    private final String eventIdKey;
+    private final String timestampKey;
+    private final String vehicleIdKey;
+
+    /**
+     * Creates the builder for the given field names.
+     *
+     * @param eventIdKey   event id key to be match with record in db.
+     * @param timestampKey timestamp key to be match with record in db.
+     * @param vehicleIdKey vehicle id key to be match with record in db.
+     */
+    public PaginationQueryTemplate(String eventIdKey, String timestampKey, String vehicleIdKey) {
+        this.eventIdKey = eventIdKey;
+        this.timestampKey = timestampKey;
+        this.vehicleIdKey = vehicleIdKey;
+    }
+
+    /**
+     * Builds the query of {@link ApiPaginationUtils#buildBasicCriteriaGroup(String, Long, Long, String)} and
+     * {@link ApiPaginationUtils#buildSortByAndLimit(IgniteQuery, String, Integer, int)}.
+     *
+     * @param vehicleId actual vehicle id to be mapped with vehicle id key
+     * @param since     lower timestamp bound, ignored if null or zero
+     * @param until     upper timestamp bound, the current time if null or zero
+     * @param eventId   event id, all events but acknowledgements if null or empty
+     * @param sortOrder desc for a descending sort, asc otherwise
+     * @param pageSize  number of records of the page
+     * @return {@link IgniteQuery}
+     */
+    public IgniteQuery bind(String vehicleId, Long since, Long until, String eventId, String sortOrder,
+                            int pageSize) {
+        IgniteQuery query = new IgniteQuery(criteria(vehicleId, since, upperBound(until), eventId));
+        sort(query, Constants.DESC_ORDER.equalsIgnoreCase(sortOrder));
+        query.setPageSize(pageSize);
+        query.setPageNumber(Constants.DEFAULT_PAGE_NUMBER);
+        return query;
+    }
+
+    /**
+     * Builds the seek query of the page following the cursor, like
+     * {@link ApiPaginationUtils#buildIgniteQuery(IgniteCriteriaGroup, IgniteCriteriaGroup, String)} without the
+     * page number. The sort order is the one of the cursor.
+     *
+     * @param vehicleId actual vehicle id to be mapped with vehicle id key
+     * @param since     lower timestamp bound, ignored if null or zero
+     * @param until     upper timestamp bound, the current time if null or zero
+     * @param eventId   event id, all events but acknowledgements if null or empty
+     * @param cursor    position of the last record of the previous page
+     * @param pageSize  number of records of the page
+     * @return {@link IgniteQuery}
+     */
+    public IgniteQuery bindAfter(String vehicleId, Long since, Long until, String eventId, KeysetCursor cursor,
+                                 int pageSize) {
+        long upper = upperBound(until);
+        IgniteQuery query = seek(() -> criteria(vehicleId, since, upper, eventId), cursor);
+        sort(query, cursor.isDescending());
+        query.setPageSize(pageSize);
+        return query;
+    }
+
+    /**
+     * Builds the seek predicate of the page following the cursor, without sort nor limit:
+     * <i>(filter and timestamp &lt; t) or (filter and timestamp = t and _id &lt; id)</i> for a descending
+     * cursor, timestamp &gt; t for an ascending one.
+     *
+     * @param criteria filter of the records, called twice, each call must build a new group
+     * @param cursor   position of the last record of the previous page
+     * @return {@link IgniteQuery}
+     */
+    public IgniteQuery seek(Supplier<IgniteCriteriaGroup> criteria, KeysetCursor cursor) {
+        IgniteCriteriaGroup after = criteria.get().and(new IgniteCriteria(timestampKey,
+            cursor.isDescending() ? Operator.LT : Operator.GT, cursor.getTimestamp()));
+        IgniteCriteriaGroup tie = criteria.get()
+            .and(new IgniteCriteria(timestampKey, Operator.EQ, cursor.getTimestamp()))
+            .and(new IgniteCriteria(MONGO_COLLECTION_ID, Operator.LT, cursor.getId()));
+        return new IgniteQuery(after).or(tie);
+    }
+
+    /**
+     * Adds the sort of the given order to the query: timestamp, then _id descending.
+     *
+     * @param query     {@link IgniteQuery} to sort
+     * @param sortOrder desc for a descending sort, asc otherwise
+     */
+    public void sort(IgniteQuery query, String sortOrder) {
+        sort(query, Constants.DESC_ORDER.equalsIgnoreCase(sortOrder));
+    }
+
+    private void sort(IgniteQuery query, boolean descending) {
+        IgniteOrderBy byTimestamp = new IgniteOrderBy().byfield(timestampKey);
+        query.orderBy(descending ? byTimestamp.desc() : byTimestamp.asc());
+        query.orderBy(new IgniteOrderBy().byfield(MONGO_COLLECTION_ID).desc());
+    }
+
+    private IgniteCriteriaGroup criteria(String vehicleId, Long since, long until, String eventId) {
+        IgniteCriteriaGroup group = new IgniteCriteriaGroup(new IgniteCriteria(vehicleIdKey, Operator.EQ,
+            vehicleId));
+        if (since != null && since > Constants.ZERO) {
+            group.and(new IgniteCriteria(timestampKey, Operator.GTE, since));
+        }
+        group.and(new IgniteCriteria(timestampKey, Operator.LTE, until));
+        return group.and(StringUtils.isNotEmpty(eventId) ? new IgniteCriteria(eventIdKey, Operator.EQ, eventId)
+            : new IgniteCriteria(eventIdKey, Operator.NEQ, EventID.ACKNOWLEDGEMENT));
+    }
+
+    private static long upperBound(Long until) {
+        return until != null && until > Constants.ZERO ? until : System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,82 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.utils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Encodings supported by {@link JsonUtils} for the same object model.<br/>
+ * Smile and CBOR are binary encodings of the json data model, smaller and faster to parse than text json,
+ * for payloads only exchanged between our services (kafka, cache). Both sides must use the same format.
+ *
+ * @author abhishekkumar
+ */
+public enum PayloadFormat {
+
+    /**
+     * Text json.
+     */
+    JSON("application/json") {
+        @Override
+        JsonFactory newFactory() {
+            return new JsonFactory();
+        }
+    },
+    /**
+     * Jackson Smile, binary json with back references for repeated field names.
+     */
+    SMILE("application/x-jackson-smile") {
+        @Override
+        JsonFactory newFactory() {
+            return new SmileFactory();
+        }
+    },
+    /**
+     * CBOR, RFC 8949.
+     */
+    CBOR("application/cbor") {
+        @Override
+        JsonFactory newFactory() {
+            return new CBORFactory();
+        }
+    };
+
+    private final String contentType;
+
+    PayloadFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    /**
+     * This method is a getter for contentType.
+     *
+     * @return String
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * creates the parser/generator factory of the format.
+     */
+    abstract JsonFactory newFactory();
+}
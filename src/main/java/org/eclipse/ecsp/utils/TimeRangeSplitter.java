@@ -0,0 +1,196 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.utils;
+
+import org.eclipse.ecsp.constants.Constants;
+import org.eclipse.ecsp.nosqldao.IgniteQuery;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Splits a wide since/until window into adaptive time buckets that are queried one after the other, newest
+ * first for a descending order, until the limit is reached.<br/>
+ * A query without since scans the whole history of the vehicle up to now. Bucketing bounds the scan of a
+ * request for dense vehicles to the first buckets, while the bucket width grows by the growth factor after
+ * every bucket that returned less than half of the missing records, so sparse vehicles reach the start of
+ * their long histories in a few queries. The last bucket (maxBuckets) extends to the end of the window.<br/>
+ * Immutable and thread safe.
+ *
+ * @author abhishekkumar
+ */
+public final class TimeRangeSplitter {
+
+    /**
+     * a bucket returning less than 1 / SPARSE_DIVISOR of the missing records widens the next one.
+     */
+    private static final int SPARSE_DIVISOR = 2;
+
+    private final long initialBucketMillis;
+    private final int growthFactor;
+    private final int maxBuckets;
+    private final long minTimestamp;
+
+    /**
+     * Creates the splitter.
+     *
+     * @param initialBucketMillis width of the first bucket
+     * @param growthFactor        width multiplier after a sparse bucket, at least 1
+     * @param maxBuckets          maximum number of bucket queries of a request, at least 1
+     * @param minTimestamp        start of the window when since is absent, e.g. the retention limit
+     */
+    public TimeRangeSplitter(long initialBucketMillis, int growthFactor, int maxBuckets, long minTimestamp) {
+        if (initialBucketMillis <= 0 || growthFactor < 1 || maxBuckets < 1) {
+            throw new IllegalArgumentException("Invalid time bucket configuration");
+        }
+        this.initialBucketMillis = initialBucketMillis;
+        this.growthFactor = growthFactor;
+        this.maxBuckets = maxBuckets;
+        this.minTimestamp = minTimestamp;
+    }
+
+    /**
+     * Queries the buckets of the window in the sort order until limit records are found.
+     *
+     * @param since     start of the window, minTimestamp if null or zero
+     * @param until     end of the window, the current time if null or zero
+     * @param sortOrder desc to query the newest bucket first, asc otherwise
+     * @param limit     number of records to return, e.g. pageSize + 1 for {@link KeysetPagination}
+     * @param query     queries one bucket
+     * @param <T>       type of the records
+     * @return at most limit records in the sort order
+     * @throws IllegalArgumentException if limit is less than 1
+     */
+    public <T> List<T> scan(Long since, Long until, String sortOrder, int limit, BucketQuery<T> query) {
+        return scan(since, until, sortOrder, null, limit, query);
+    }
+
+    /**
+     * Queries the buckets of the window past the cursor in the sort order until limit records are found. The
+     * window starts at the timestamp of the cursor, so the first bucket is the one next to the previous page.
+     *
+     * @param since     start of the window, minTimestamp if null or zero
+     * @param until     end of the window, the current time if null or zero
+     * @param sortOrder desc to query the newest bucket first, asc otherwise
+     * @param cursor    position of the last record of the previous page, null for the first page
+     * @param limit     number of records to return, e.g. pageSize + 1 for {@link KeysetPagination}
+     * @param query     queries one bucket, e.g. {@link #igniteBuckets} with the same cursor
+     * @param <T>       type of the records
+     * @return at most limit records in the sort order
+     * @throws IllegalArgumentException if limit is less than 1
+     */
+    public <T> List<T> scan(Long since, Long until, String sortOrder, KeysetCursor cursor, int limit,
+                            BucketQuery<T> query) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Scan limit must be at least 1, got " + limit);
+        }
+        boolean descending = Constants.DESC_ORDER.equalsIgnoreCase(sortOrder);
+        long lower = lower(since, descending, cursor);
+        long upper = upper(until, descending, cursor);
+        List<T> records = new ArrayList<>(limit);
+        long width = initialBucketMillis;
+        int buckets = 0;
+        while (records.size() < limit && lower <= upper) {
+            int missing = limit - records.size();
+            boolean last = ++buckets == maxBuckets || upper - lower < width;
+            List<T> found;
+            if (descending) {
+                long bucketSince = last ? lower : upper - width + 1;
+                found = query.fetch(bucketSince, upper, missing);
+                upper = bucketSince - 1;
+            } else {
+                long bucketUntil = last ? upper : lower + width - 1;
+                found = query.fetch(lower, bucketUntil, missing);
+                lower = bucketUntil + 1;
+            }
+            records.addAll(found.size() > missing ? found.subList(0, missing) : found);
+            if (found.size() < missing / SPARSE_DIVISOR + 1) {
+                width = width > Long.MAX_VALUE / growthFactor ? Long.MAX_VALUE : width * growthFactor;
+            }
+            if (last) {
+                break;
+            }
+        }
+        return records;
+    }
+
+    /**
+     * start of the window, records with the timestamp of the cursor may follow it on _id.
+     */
+    private long lower(Long since, boolean descending, KeysetCursor cursor) {
+        long lower = since != null && since > Constants.ZERO ? since : minTimestamp;
+        return cursor == null || descending ? lower : Math.max(lower, cursor.getTimestamp());
+    }
+
+    /**
+     * end of the window, records with the timestamp of the cursor may follow it on _id.
+     */
+    private static long upper(Long until, boolean descending, KeysetCursor cursor) {
+        long upper = until != null && until > Constants.ZERO ? until : System.currentTimeMillis();
+        return cursor != null && descending ? Math.min(upper, cursor.getTimestamp()) : upper;
+    }
+
+    /**
+     * Bucket query running the queries of the template, seeking past the cursor if given. Buckets
+     * entirely before the cursor are not queried.
+     *
+     * @param template  query builder of the history collection
+     * @param vehicleId actual vehicle id to be mapped with vehicle id key
+     * @param eventId   event id, all events but acknowledgements if null or empty
+     * @param sortOrder desc or asc, the order of the cursor if a cursor is given
+     * @param cursor    position of the last record of the previous page, null for the first page
+     * @param query     runs a query and returns its records in query order
+     * @param <T>       type of the records
+     * @return the bucket query
+     */
+    public static <T> BucketQuery<T> igniteBuckets(PaginationQueryTemplate template, String vehicleId,
+                                                   String eventId, String sortOrder, KeysetCursor cursor,
+                                                   Function<IgniteQuery, List<T>> query) {
+        if (cursor == null) {
+            return (since, until, limit) -> query.apply(template.bind(vehicleId, since, until, eventId, sortOrder,
+                limit));
+        }
+        return (since, until, limit) -> {
+            long lower = cursor.isDescending() ? since : Math.max(since, cursor.getTimestamp());
+            long upper = cursor.isDescending() ? Math.min(until, cursor.getTimestamp()) : until;
+            return lower > upper ? List.of()
+                : query.apply(template.bindAfter(vehicleId, lower, upper, eventId, cursor, limit));
+        };
+    }
+
+    /**
+     * Queries the records of one time bucket.
+     *
+     * @param <T> type of the records
+     */
+    @FunctionalInterface
+    public interface BucketQuery<T> {
+
+        /**
+         * Fetches the first records of the bucket in the sort order of the scan.
+         *
+         * @param since start of the bucket, inclusive
+         * @param until end of the bucket, inclusive
+         * @param limit maximum number of records
+         * @return the records
+         */
+        List<T> fetch(long since, long until, int limit);
+    }
+}
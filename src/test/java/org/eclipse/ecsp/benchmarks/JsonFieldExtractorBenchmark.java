@@ -0,0 +1,126 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.eclipse.ecsp.utils.JsonFieldExtractor;
+import org.eclipse.ecsp.utils.JsonUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH comparison of reading fields of an event payload with a {@link JsonNode} tree and with
+ * {@link JsonFieldExtractor}.<br/>
+ * Run from the IDE or with the test classpath, e.g.
+ * <i>java -cp target/test-classes:target/classes:&lt;test classpath&gt;
+ * org.eclipse.ecsp.benchmarks.JsonFieldExtractorBenchmark</i>, add <i>-prof gc</i> to the JMH options
+ * for the allocation rate.
+ *
+ * @author abhishekkumar
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonFieldExtractorBenchmark {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final JsonFieldExtractor EVENT_ID = JsonFieldExtractor.ofKey("EventID", true);
+    private static final JsonFieldExtractor EVENT_FIELDS =
+        JsonFieldExtractor.of("EventID", "VehicleId", "Data.unit");
+
+    /**
+     * number of readings in the payload, the requested fields follow them.
+     */
+    @Param({"10", "1000"})
+    private int readings;
+
+    private String payload;
+
+    /**
+     * builds an event whose requested fields are behind a large data array.
+     */
+    @Setup
+    public void setup() {
+        StringBuilder json = new StringBuilder("{\"Version\":\"1.0\",\"Data\":{\"readings\":[");
+        for (int i = 0; i < readings; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"ts\":").append(i).append(",\"value\":").append(i)
+                .append(".5}");
+        }
+        json.append("],\"unit\":\"kmph\"},\"EventID\":\"Speed\",\"VehicleId\":\"v1\",\"Timestamp\":1}");
+        payload = json.toString();
+    }
+
+    /**
+     * the previous {@link JsonUtils#getValueAsString(String, String)}.
+     */
+    @Benchmark
+    public String treeSingleField() throws IOException {
+        return JsonUtils.safeGetStringFromJsonNode("EventID", MAPPER.readTree(payload));
+    }
+
+    /**
+     * tree parse and lookups for the fields of {@link #extractorThreeFields()}.
+     */
+    @Benchmark
+    public String[] treeThreeFields() throws IOException {
+        JsonNode tree = MAPPER.readTree(payload);
+        return new String[] {JsonUtils.safeGetStringFromJsonNode("EventID", tree),
+            JsonUtils.safeGetStringFromJsonNode("VehicleId", tree),
+            JsonUtils.safeGetStringFromJsonNode("unit", tree.get("Data"))};
+    }
+
+    @Benchmark
+    public String[] extractorSingleField() {
+        return JsonUtils.getValuesAsString(EVENT_ID, payload);
+    }
+
+    @Benchmark
+    public String[] extractorThreeFields() {
+        return JsonUtils.getValuesAsString(EVENT_FIELDS, payload);
+    }
+
+    /**
+     * runs the benchmark.
+     *
+     * @param args not used
+     * @throws RunnerException if the benchmark fails
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JsonFieldExtractorBenchmark.class.getSimpleName()).build()).run();
+    }
+}
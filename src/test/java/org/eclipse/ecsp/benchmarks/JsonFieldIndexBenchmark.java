@@ -0,0 +1,127 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.eclipse.ecsp.utils.JsonFieldIndex;
+import org.eclipse.ecsp.utils.JsonUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH comparison of reading many fields of a wide {@link JsonNode} with differently cased names through
+ * {@link JsonUtils#safeGetStringFromJsonNode(String, JsonNode)} and through {@link JsonFieldIndex}.<br/>
+ * Run with the test classpath, e.g. <i>java -cp target/test-classes:target/classes:&lt;test classpath&gt;
+ * org.eclipse.ecsp.benchmarks.JsonFieldIndexBenchmark</i>.
+ *
+ * @author abhishekkumar
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonFieldIndexBenchmark {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * number of fields of the document.
+     */
+    @Param({"50", "200"})
+    private int fields;
+
+    /**
+     * number of fields read per document, spread over the document.
+     */
+    @Param({"15"})
+    private int lookups;
+
+    private JsonNode node;
+    private Set<String> keys;
+
+    /**
+     * builds a document with Field0..FieldN and lower cased lookup keys.
+     */
+    @Setup
+    public void setup() throws IOException {
+        StringBuilder json = new StringBuilder("{");
+        for (int i = 0; i < fields; i++) {
+            json.append(i == 0 ? "" : ",").append("\"Field").append(i).append("\":\"value").append(i).append('"');
+        }
+        node = MAPPER.readTree(json.append('}').toString());
+        keys = new LinkedHashSet<>();
+        for (int i = 0; i < lookups; i++) {
+            keys.add(("Field" + (i * fields / lookups)).toLowerCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * one case-insensitive scan over the fields per key.
+     */
+    @Benchmark
+    public int scan() {
+        int found = 0;
+        for (String key : keys) {
+            if (JsonUtils.safeGetStringFromJsonNode(key, node) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * includes building the index, it is built once per node.
+     */
+    @Benchmark
+    public Map<String, String> index() {
+        return JsonFieldIndex.of(node).extract(keys);
+    }
+
+    /**
+     * runs the benchmark.
+     *
+     * @param args not used
+     * @throws RunnerException if the benchmark fails
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JsonFieldIndexBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,120 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.benchmarks;
+
+import org.eclipse.ecsp.domain.ExceptionResponse;
+import org.eclipse.ecsp.domain.Version;
+import org.eclipse.ecsp.entities.IgniteEvent;
+import org.eclipse.ecsp.entities.IgniteEventImpl;
+import org.eclipse.ecsp.utils.JsonUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH comparison of {@link JsonUtils} (de)serialization with reflection and with Blackbird accessors,
+ * over {@link IgniteEvent} and {@link ExceptionResponse}. Blackbird can not be unregistered, every
+ * blackbird param value runs in its own fork.<br/>
+ * Run with the test classpath, e.g. <i>java -cp target/test-classes:target/classes:&lt;test classpath&gt;
+ * org.eclipse.ecsp.benchmarks.JsonSerializationBenchmark</i>.
+ *
+ * @author abhishekkumar
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    private static final String RESPONSE =
+        "{\"message\":\"vehicle not found\",\"detailedErrorCode\":\"VEHICLE-404\"}";
+    private static final long TIMESTAMP = 1700000000000L;
+
+    @Param({"false", "true"})
+    private boolean blackbird;
+
+    private ExceptionResponse response;
+    private IgniteEvent event;
+    private byte[] eventBytes;
+
+    /**
+     * registers Blackbird for the fork if requested and builds the payloads.
+     */
+    @Setup
+    public void setup() throws IOException {
+        if (blackbird) {
+            JsonUtils.enableBlackbird();
+        }
+        JsonUtils.warmUp(ExceptionResponse.class, IgniteEventImpl.class);
+        response = JsonUtils.parseInputJson(RESPONSE, ExceptionResponse.class);
+        IgniteEventImpl igniteEvent = new IgniteEventImpl();
+        igniteEvent.setEventId("Speed");
+        igniteEvent.setVersion(Version.V1_0);
+        igniteEvent.setVehicleId("vehicle-1");
+        igniteEvent.setTimestamp(TIMESTAMP);
+        event = igniteEvent;
+        eventBytes = JsonUtils.getObjectValueAsBytes(event);
+    }
+
+    @Benchmark
+    public String writeExceptionResponse() {
+        return JsonUtils.getObjectValueAsString(response);
+    }
+
+    @Benchmark
+    public ExceptionResponse readExceptionResponse() throws IOException {
+        return JsonUtils.parseInputJson(RESPONSE, ExceptionResponse.class);
+    }
+
+    @Benchmark
+    public byte[] writeIgniteEvent() {
+        return JsonUtils.getObjectValueAsBytes(event);
+    }
+
+    @Benchmark
+    public IgniteEventImpl readIgniteEvent() throws IOException {
+        return JsonUtils.parseInputJson(eventBytes, IgniteEventImpl.class);
+    }
+
+    /**
+     * runs the benchmark.
+     *
+     * @param args not used
+     * @throws RunnerException if the benchmark fails
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JsonSerializationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
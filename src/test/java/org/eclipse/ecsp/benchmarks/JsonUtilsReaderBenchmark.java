@@ -0,0 +1,130 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.benchmarks;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.eclipse.ecsp.domain.ExceptionResponse;
+import org.eclipse.ecsp.utils.JsonUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH comparison of binding small payloads through the shared ObjectMapper, resolving the type per call
+ * as JsonUtils did before, and through the cached readers and writers of {@link JsonUtils}.<br/>
+ * Run with the test classpath, e.g. <i>java -cp target/test-classes:target/classes:&lt;test classpath&gt;
+ * org.eclipse.ecsp.benchmarks.JsonUtilsReaderBenchmark</i>.
+ *
+ * @author abhishekkumar
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonUtilsReaderBenchmark {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private static final String RESPONSE =
+        "{\"message\":\"vehicle not found\",\"detailedErrorCode\":\"VEHICLE-404\"}";
+    private static final String RESPONSES = "[" + RESPONSE + "," + RESPONSE + "," + RESPONSE + "]";
+
+    private byte[] responseBytes;
+    private ExceptionResponse response;
+
+    /**
+     * prepares the payloads.
+     */
+    @Setup
+    public void setup() throws IOException {
+        responseBytes = RESPONSE.getBytes(StandardCharsets.UTF_8);
+        response = MAPPER.readValue(RESPONSE, ExceptionResponse.class);
+    }
+
+    /**
+     * the previous parseInputJson, type resolved and string copied to bytes per call.
+     */
+    @Benchmark
+    public ExceptionResponse mapperParse() throws IOException {
+        return MAPPER.readValue(RESPONSE.getBytes(StandardCharsets.UTF_8),
+            MAPPER.getTypeFactory().constructType(ExceptionResponse.class));
+    }
+
+    @Benchmark
+    public ExceptionResponse cachedReaderParse() throws IOException {
+        return JsonUtils.parseInputJson(RESPONSE, ExceptionResponse.class);
+    }
+
+    @Benchmark
+    public ExceptionResponse cachedReaderParseBytes() throws IOException {
+        return JsonUtils.parseInputJson(responseBytes, ExceptionResponse.class);
+    }
+
+    /**
+     * the previous parseJsonAsList, collection type constructed per call.
+     */
+    @Benchmark
+    public List<ExceptionResponse> mapperParseList() throws IOException {
+        return MAPPER.readValue(RESPONSES.getBytes(StandardCharsets.UTF_8),
+            MAPPER.getTypeFactory().constructCollectionType(List.class, ExceptionResponse.class));
+    }
+
+    @Benchmark
+    public List<ExceptionResponse> cachedReaderParseList() throws IOException {
+        return JsonUtils.parseJsonAsList(RESPONSES, ExceptionResponse.class);
+    }
+
+    @Benchmark
+    public String mapperWrite() throws IOException {
+        return MAPPER.writeValueAsString(response);
+    }
+
+    @Benchmark
+    public String cachedWriterWrite() {
+        return JsonUtils.getObjectValueAsString(response);
+    }
+
+    /**
+     * runs the benchmark.
+     *
+     * @param args not used
+     * @throws RunnerException if the benchmark fails
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JsonUtilsReaderBenchmark.class.getSimpleName()).build()).run();
+    }
+}
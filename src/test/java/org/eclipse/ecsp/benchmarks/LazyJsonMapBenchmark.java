@@ -0,0 +1,114 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+
+package org.eclipse.ecsp.benchmarks;
+
+import org.eclipse.ecsp.utils.JsonUtils;
+import org.eclipse.ecsp.utils.LazyJsonMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH comparison of reading three keys of an event through {@link JsonUtils#getJsonAsMap(String)} and through
+ * {@link LazyJsonMap}.<br/>
+ * Run with the test classpath, e.g. <i>java -cp target/test-classes:target/classes:&lt;test classpath&gt;
+ * org.eclipse.ecsp.benchmarks.LazyJsonMapBenchmark</i>.
+ *
+ * @author abhishekkumar
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LazyJsonMapBenchmark {
+
+    /**
+     * number of readings in the nested data array of the event.
+     */
+    @Param({"10", "500"})
+    private int readings;
+
+    private String json;
+    private byte[] bytes;
+
+    /**
+     * builds an event with a few header fields and a data array of readings objects.
+     */
+    @Setup
+    public void setup() {
+        StringBuilder event = new StringBuilder("{\"EventID\":\"Location\",\"Version\":\"1.0\",\"Data\":[");
+        for (int i = 0; i < readings; i++) {
+            event.append(i == 0 ? "" : ",").append("{\"latitude\":").append(i).append(".5,\"longitude\":")
+                .append(i).append(".25,\"timestamp\":").append(i).append('}');
+        }
+        json = event.append("],\"VehicleId\":\"v1\",\"Timestamp\":1700000000000}").toString();
+        bytes = json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * decodes the whole event.
+     */
+    @Benchmark
+    public void fullMap(Blackhole bh) {
+        Map<String, Object> map = JsonUtils.getJsonAsMap(json);
+        bh.consume(map.get("EventID"));
+        bh.consume(map.get("VehicleId"));
+        bh.consume(map.get("Timestamp"));
+    }
+
+    /**
+     * indexes the event and decodes the three values.
+     */
+    @Benchmark
+    public void lazyMap(Blackhole bh) {
+        Map<String, Object> map = JsonUtils.getJsonAsLazyMap(bytes);
+        bh.consume(map.get("EventID"));
+        bh.consume(map.get("VehicleId"));
+        bh.consume(map.get("Timestamp"));
+    }
+
+    /**
+     * runs the benchmark.
+     *
+     * @param args not used
+     * @throws RunnerException if the benchmark fails
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(LazyJsonMapBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,154 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.configurations;
+
+import io.prometheus.client.CollectorRegistry;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.io.CloseMode;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link AsyncHttpClientConfigTest} contains test cases for {@link AsyncHttpClientConfig}.
+ *
+ * @author abhishekkumar
+ */
+public class AsyncHttpClientConfigTest {
+
+    private static final int TIMEOUT_MILLIS = 3000;
+    private static final int MAX_CONN_TOTAL = 20;
+    private static final int REQUESTS = 8;
+    private static final int OVERRIDE = 3;
+    private static final long DELAY_MILLIS = 500;
+    private static final int RESPONSE_CODE_200 = 200;
+    private static final int SERIAL_FRACTION = 2;
+
+    /**
+     * server.
+     */
+    @Rule
+    public final MockWebServer server = new MockWebServer();
+
+    private PoolingAsyncClientConnectionManager connectionManager;
+    private CloseableHttpAsyncClient client;
+    private AsyncHttpClientConfig config;
+
+    private void start(String... overrides) {
+        config = new AsyncHttpClientConfig();
+        ReflectionTestUtils.setField(config, "connectionTimeout", TIMEOUT_MILLIS);
+        ReflectionTestUtils.setField(config, "responseTimeout", TIMEOUT_MILLIS);
+        ReflectionTestUtils.setField(config, "connectionRequestTimeout", TIMEOUT_MILLIS);
+        ReflectionTestUtils.setField(config, "maxConnTotal", MAX_CONN_TOTAL);
+        ReflectionTestUtils.setField(config, "maxConnPerRoute", REQUESTS);
+        ReflectionTestUtils.setField(config, "maxConnPerRouteOverrides", overrides);
+        ReflectionTestUtils.setField(config, "versionPolicy", "negotiate");
+        ReflectionTestUtils.setField(config, "maxConcurrentStreams", REQUESTS);
+        ReflectionTestUtils.setField(config, "metricsEnabled", true);
+        connectionManager = config.asyncConnectionManager();
+        client = config.asyncHttpClient(connectionManager);
+    }
+
+    /**
+     * closes the client and its pool.
+     */
+    @After
+    public void close() {
+        if (client != null) {
+            client.close(CloseMode.IMMEDIATE);
+        }
+    }
+
+    @Test
+    public void testConcurrentRequests() throws Exception {
+        start();
+        for (int i = 0; i < REQUESTS; i++) {
+            server.enqueue(new MockResponse().setResponseCode(RESPONSE_CODE_200).setBody("ok")
+                .setHeadersDelay(DELAY_MILLIS, TimeUnit.MILLISECONDS));
+        }
+        long start = System.nanoTime();
+        List<Future<SimpleHttpResponse>> responses = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            responses.add(client.execute(SimpleRequestBuilder.get(server.url("/ok").uri()).build(), null));
+        }
+        for (Future<SimpleHttpResponse> response : responses) {
+            assertEquals(RESPONSE_CODE_200, response.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS).getCode());
+        }
+        // the requests overlap instead of queuing behind a few connections
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(elapsedMillis < DELAY_MILLIS * REQUESTS / SERIAL_FRACTION);
+    }
+
+    @Test
+    public void testPerRouteOverride() throws Exception {
+        String host = "http://downstream:8080";
+        start(host + "=" + OVERRIDE, " ");
+        assertEquals(OVERRIDE, connectionManager.getMaxPerRoute(new HttpRoute(HttpHost.create(host))));
+        assertEquals(REQUESTS, connectionManager.getDefaultMaxPerRoute());
+    }
+
+    @Test
+    public void testPoolMetrics() {
+        start();
+        Double max = CollectorRegistry.defaultRegistry.getSampleValue("http_client_pool_max_connections",
+            new String[] {"client", "route"}, new String[] {"async", "total"});
+        assertNotNull(max);
+        assertEquals(MAX_CONN_TOTAL, max, 0.0);
+    }
+
+    @Test
+    public void testPoolMetricsRemovedOnDestroy() {
+        start();
+        config.unregisterPool();
+        assertNull(CollectorRegistry.defaultRegistry.getSampleValue("http_client_pool_max_connections",
+            new String[] {"client", "route"}, new String[] {"async", "total"}));
+    }
+
+    @Test
+    public void testOverrideWithoutConnections() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> start("http://downstream:8080"));
+        assertTrue(e.getMessage().contains("rest.client.async.max.conn.per.route.overrides"));
+    }
+
+    @Test
+    public void testOverrideWithInvalidConnections() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> start("http://downstream:8080=many"));
+        assertTrue(e.getMessage().contains("rest.client.async.max.conn.per.route.overrides"));
+    }
+}
@@ -0,0 +1,92 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.configurations;
+
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.eclipse.ecsp.domain.ExceptionResponse;
+import org.eclipse.ecsp.utils.JsonUtils;
+import org.junit.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.io.IOException;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * {@link JsonConfigTest} contains test cases for {@link JsonConfig}.
+ *
+ * @author abhishekkumar
+ */
+public class JsonConfigTest {
+
+    private static final String RESPONSE = "{\"message\":\"not found\",\"detailedErrorCode\":\"E404\"}";
+
+    @Test
+    public void testWarmUpSkipsUnknownTypes() {
+        JsonConfig config = new JsonConfig();
+        ReflectionTestUtils.setField(config, "warmupTypes",
+            new String[] {ExceptionResponse.class.getName(), " ", "org.eclipse.ecsp.domain.Missing"});
+        config.init();
+        ObjectReader reader = JsonUtils.reader(ExceptionResponse.class);
+        config.init();
+        assertSame(reader, JsonUtils.reader(ExceptionResponse.class));
+    }
+
+    @Test
+    public void testBlackbirdEnabledByConfig() {
+        JsonConfig config = new JsonConfig();
+        ReflectionTestUtils.setField(config, "blackbirdEnabled", true);
+        // the shared JsonUtils mappers cannot be restored once Blackbird is registered
+        try (MockedStatic<JsonUtils> jsonUtils = Mockito.mockStatic(JsonUtils.class)) {
+            config.init();
+            jsonUtils.verify(JsonUtils::enableBlackbird);
+        }
+    }
+
+    @Test
+    public void testBlackbirdDisabledByDefault() {
+        try (MockedStatic<JsonUtils> jsonUtils = Mockito.mockStatic(JsonUtils.class)) {
+            new JsonConfig().init();
+            jsonUtils.verify(JsonUtils::enableBlackbird, Mockito.never());
+        }
+    }
+
+    @Test
+    public void testBlackbirdKeepsJsonUnchanged() throws IOException {
+        ObjectMapper reflection = mapper();
+        ObjectMapper blackbird = mapper().registerModule(new BlackbirdModule());
+        ExceptionResponse before = reflection.readValue(RESPONSE, ExceptionResponse.class);
+        ExceptionResponse after = blackbird.readValue(RESPONSE, ExceptionResponse.class);
+        assertEquals(before.getMessage(), after.getMessage());
+        assertEquals(before.getDetailedErrorCode(), after.getDetailedErrorCode());
+        assertEquals(reflection.writeValueAsString(before), blackbird.writeValueAsString(after));
+    }
+
+    private static ObjectMapper mapper() {
+        return new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .setSerializationInclusion(Include.NON_NULL);
+    }
+}
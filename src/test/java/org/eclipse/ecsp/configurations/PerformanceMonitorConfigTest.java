@@ -0,0 +1,155 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.configurations;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.eclipse.ecsp.metrics.ApiStackSampler;
+import org.eclipse.ecsp.metrics.PerformanceMonitorAspect;
+import org.eclipse.ecsp.testutils.MonitoringSamples;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.util.Map;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+
+/**
+ * Test cases for the pointcut modes of {@link PerformanceMonitorConfig}.
+ *
+ * @author abhishekkumar
+ */
+public class PerformanceMonitorConfigTest {
+
+    /**
+     * INT_2.
+     */
+    public static final int INT_2 = 2;
+
+    private PerformanceMonitorAspect aspect;
+    private ObjectProvider<PerformanceMonitorAspect> aspectProvider;
+    private PerformanceMonitorConfig config;
+
+    /**
+     * mock the aspect to proceed and count its invocations.
+     *
+     * @throws Throwable never, declared by {@link PerformanceMonitorAspect#monitor(ProceedingJoinPoint)}
+     */
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setup() throws Throwable {
+        aspect = Mockito.mock(PerformanceMonitorAspect.class);
+        Mockito.when(aspect.monitor(any())).thenAnswer(
+            invocation -> invocation.getArgument(0, ProceedingJoinPoint.class).proceed());
+        aspectProvider = Mockito.mock(ObjectProvider.class);
+        Mockito.when(aspectProvider.getObject()).thenReturn(aspect);
+        config = new PerformanceMonitorConfig();
+        ReflectionTestUtils.setField(config, "pointcutMode", "annotation");
+        ReflectionTestUtils.setField(config, "pointcutExpression",
+            "execution(* org.eclipse.ecsp.testutils.MonitoringSamples.*.*(..))");
+    }
+
+    @Test
+    public void testExpressionMode() throws Throwable {
+        ReflectionTestUtils.setField(config, "pointcutMode", "expression");
+        MonitoringSamples.Service service = proxy(new MonitoringSamples.Service());
+        assertEquals("annotated", service.annotated());
+        assertEquals("plain", service.plain());
+        Mockito.verify(aspect, Mockito.times(INT_2)).monitor(any());
+    }
+
+    @Test
+    public void testAnnotationModeOnMethod() throws Throwable {
+        MonitoringSamples.Service service = proxy(new MonitoringSamples.Service());
+        assertEquals("plain", service.plain());
+        Mockito.verify(aspect, Mockito.never()).monitor(any());
+        assertEquals("annotated", service.annotated());
+        Mockito.verify(aspect, Mockito.times(1)).monitor(any());
+    }
+
+    @Test
+    public void testAnnotationModeOnClass() throws Throwable {
+        MonitoringSamples.MonitoredService service = proxy(new MonitoringSamples.MonitoredService());
+        assertEquals("plain", service.plain());
+        Mockito.verify(aspect, Mockito.times(1)).monitor(any());
+    }
+
+    @Test
+    public void testMonitorCollaboratorsAreNotAdvised() {
+        ReflectionTestUtils.setField(config, "pointcutMode", "expression");
+        ReflectionTestUtils.setField(config, "pointcutExpression", "execution(* org.eclipse.ecsp..*.*(..))");
+        Advisor advisor = config.performanceMonitorAdvisor(aspectProvider);
+        assertFalse(AopUtils.canApply(advisor, ApiStackSampler.class));
+        assertFalse(AopUtils.canApply(advisor, PerformanceMonitorAspect.class));
+        assertFalse(AopUtils.canApply(advisor, PerformanceMonitorConfig.class));
+        assertTrue(AopUtils.canApply(advisor, MonitoringSamples.Service.class));
+    }
+
+    @Test
+    public void testNothingIsProxiedWhenDisabled() {
+        try (AnnotationConfigApplicationContext context = context("false")) {
+            assertTrue(context.getBeansOfType(Advisor.class).isEmpty());
+            assertFalse(AopUtils.isAopProxy(context.getBean(MonitoringSamples.Service.class)));
+        }
+    }
+
+    @Test
+    public void testAnnotatedBeansAreProxiedWhenEnabled() {
+        try (AnnotationConfigApplicationContext context = context("true")) {
+            assertEquals(1, context.getBeansOfType(Advisor.class).size());
+            assertTrue(AopUtils.isAopProxy(context.getBean(MonitoringSamples.Service.class)));
+        }
+    }
+
+    private static AnnotationConfigApplicationContext context(String metricsEnabled) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test",
+            Map.of("metrics.enabled", metricsEnabled, "performance.monitoring.enabled", "false")));
+        context.register(AutoProxyConfig.class, PerformanceMonitorConfig.class, MonitoringSamples.Service.class);
+        context.refresh();
+        return context;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T proxy(T target) {
+        Advisor advisor = config.performanceMonitorAdvisor(aspectProvider);
+        ProxyFactory factory = new ProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAdvisor(advisor);
+        return (T) factory.getProxy();
+    }
+
+    /**
+     * auto proxy creator of the application.
+     */
+    @Configuration
+    @EnableAspectJAutoProxy(proxyTargetClass = true)
+    static class AutoProxyConfig {
+    }
+}
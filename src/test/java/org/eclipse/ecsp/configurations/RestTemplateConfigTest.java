@@ -19,9 +19,11 @@
 package org.eclipse.ecsp.configurations;
 
 
+import io.prometheus.client.CollectorRegistry;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.eclipse.ecsp.metrics.InstrumentedHttpClientConnectionManager;
 import org.eclipse.ecsp.utils.logger.IgniteLogger;
 import org.eclipse.ecsp.utils.logger.IgniteLoggerFactory;
 import org.junit.Rule;
@@ -35,6 +37,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
@@ -44,6 +47,10 @@ import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * {@link RestTemplateConfigTest} contains test cases.<br/>
@@ -146,4 +153,35 @@ public class RestTemplateConfigTest {
         LOGGER.info(requestCountMap.toString());
         Assertions.assertNotNull(requestCountMap);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testPoolMetricsRemovedOnDestroy() {
+        RestTemplateConfig config = new RestTemplateConfig();
+        ReflectionTestUtils.setField(config, "maxConnTotal", LOOP_COUNT);
+        ReflectionTestUtils.setField(config, "maxConnPerRoute", INT_4);
+        ReflectionTestUtils.setField(config, "metricsEnabled", true);
+        config.restTemplate();
+        String[] labelNames = {"client", "route"};
+        String[] labelValues = {"rest_template", "total"};
+        assertNotNull(CollectorRegistry.defaultRegistry.getSampleValue("http_client_pool_max_connections",
+            labelNames, labelValues));
+        config.closePool();
+        assertNull(CollectorRegistry.defaultRegistry.getSampleValue("http_client_pool_max_connections",
+            labelNames, labelValues));
+    }
+
+    @Test
+    public void testConnectionManagerClosedOnDestroy() {
+        RestTemplateConfig config = new RestTemplateConfig();
+        ReflectionTestUtils.setField(config, "maxConnTotal", LOOP_COUNT);
+        ReflectionTestUtils.setField(config, "maxConnPerRoute", INT_4);
+        ReflectionTestUtils.setField(config, "leakDetectionThresholdMillis", (long) LOOP_COUNT);
+        config.restTemplate();
+        InstrumentedHttpClientConnectionManager connectionManager = (InstrumentedHttpClientConnectionManager)
+            ReflectionTestUtils.getField(config, "connectionManager");
+        assertNotNull(connectionManager);
+        assertFalse(connectionManager.getDelegate().isClosed());
+        config.closePool();
+        assertTrue(connectionManager.getDelegate().isClosed());
+    }
+}
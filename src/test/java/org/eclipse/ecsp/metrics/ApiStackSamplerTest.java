@@ -0,0 +1,129 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.metrics;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.io.IOException;
+import java.io.StringWriter;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test cases for {@link ApiStackSampler}.
+ *
+ * @author abhishekkumar
+ */
+public class ApiStackSamplerTest {
+
+    private static final long INTERVAL_MILLIS = 100;
+    private static final int MAX_DEPTH = 64;
+    private static final int MAX_STACKS = 100;
+    private static final int SAMPLES = 3;
+    private static final int KEPT_AND_TRUNCATED_STACKS = 2;
+    private static final String API = "/v1/users/{userId}";
+    private static final String OTHER_API = "/v1/vehicles";
+
+    private ApiStackSampler sampler;
+
+    /**
+     * create a sampler which is driven by the tests, not by its schedule.
+     */
+    @Before
+    public void setup() {
+        sampler = new ApiStackSampler(INTERVAL_MILLIS, MAX_DEPTH, MAX_STACKS);
+    }
+
+    /**
+     * untag the test thread.
+     */
+    @After
+    public void tearDown() {
+        sampler.restore(null);
+    }
+
+    @Test
+    public void testTaggedThreadIsSampled() throws IOException {
+        sampler.tag(API);
+        for (int i = 0; i < SAMPLES; i++) {
+            sampler.sample();
+        }
+        assertEquals(SAMPLES, sampler.getSampleCount());
+        String collapsed = collapsed(null);
+        assertTrue(collapsed.startsWith(API + ";"));
+        assertTrue(collapsed.contains(ApiStackSampler.class.getName() + ".sample"));
+        long total = 0;
+        for (String line : collapsed.split("\n")) {
+            total += Long.parseLong(line.substring(line.lastIndexOf(' ') + 1));
+        }
+        assertEquals(SAMPLES, total);
+    }
+
+    @Test
+    public void testUntaggedThreadIsNotSampled() throws IOException {
+        String previous = sampler.tag(API);
+        sampler.restore(previous);
+        sampler.sample();
+        assertEquals(0, sampler.getSampleCount());
+        assertEquals("", collapsed(null));
+    }
+
+    @Test
+    public void testRestoreKeepsOuterTag() throws IOException {
+        sampler.tag(API);
+        String previous = sampler.tag(OTHER_API);
+        sampler.restore(previous);
+        sampler.sample();
+        assertTrue(collapsed(API).startsWith(API + ";"));
+        assertEquals("", collapsed(OTHER_API));
+    }
+
+    @Test
+    public void testStacksAreBounded() throws IOException {
+        sampler = new ApiStackSampler(INTERVAL_MILLIS, MAX_DEPTH, 1);
+        sampler.tag(API);
+        sampler.sample();
+        sampleFromOtherFrame();
+        String[] lines = collapsed(null).split("\n");
+        assertEquals(KEPT_AND_TRUNCATED_STACKS, lines.length);
+        assertTrue(collapsed(null).contains(API + ";" + ApiStackSampler.TRUNCATED_FRAME + " 1"));
+    }
+
+    @Test
+    public void testReset() throws IOException {
+        sampler.tag(API);
+        sampler.sample();
+        sampler.reset();
+        assertEquals(0, sampler.getSampleCount());
+        assertFalse(collapsed(null).contains(API));
+    }
+
+    private void sampleFromOtherFrame() {
+        sampler.sample();
+    }
+
+    private String collapsed(String api) throws IOException {
+        StringWriter writer = new StringWriter();
+        sampler.writeCollapsed(writer, api);
+        return writer.toString();
+    }
+}
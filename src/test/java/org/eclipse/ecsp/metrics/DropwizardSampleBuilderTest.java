@@ -0,0 +1,109 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.metrics;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import io.prometheus.client.CollectorRegistry;
+import io.prometheus.client.dropwizard.DropwizardExports;
+import org.junit.Before;
+import org.junit.Test;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test cases for {@link DropwizardSampleBuilder} and {@link JvmMetricsExports}.
+ *
+ * @author abhishekkumar
+ */
+public class DropwizardSampleBuilderTest {
+
+    private static final String API = "/v1/test";
+    private static final String METHOD = "public void org.eclipse.ecsp.TestController.get()";
+    private static final long LATENCY_MILLIS = 100;
+    private static final double LATENCY_SECONDS = 0.1;
+    private static final double TOLERANCE = 0.02;
+    private static final long GC_COUNT = 7;
+    private static final long HEAP_USED = 1024;
+
+    private MetricRegistry registry;
+    private CollectorRegistry collectorRegistry;
+
+    /**
+     * expose a fresh dropwizard registry through a fresh prometheus registry for every test.
+     */
+    @Before
+    public void setup() {
+        registry = new MetricRegistry();
+        collectorRegistry = new CollectorRegistry();
+        new DropwizardExports(registry, new DropwizardSampleBuilder()).register(collectorRegistry);
+    }
+
+    @Test
+    public void testLegacyTimerIsLabelled() {
+        registry.timer("api=" + API + ",method=" + METHOD).update(LATENCY_MILLIS, TimeUnit.MILLISECONDS);
+        String[] labelNames = {"api", "method"};
+        String[] labelValues = {API, METHOD};
+        Double count = collectorRegistry.getSampleValue(DropwizardSampleBuilder.LEGACY_TIMER_NAME + "_count",
+            labelNames, labelValues);
+        assertNotNull(count);
+        assertEquals(1.0, count, 0.0);
+        Double median = collectorRegistry.getSampleValue(DropwizardSampleBuilder.LEGACY_TIMER_NAME,
+            new String[] {"api", "method", "quantile"}, new String[] {API, METHOD, "0.5"});
+        assertNotNull(median);
+        assertEquals(LATENCY_SECONDS, median, LATENCY_SECONDS * TOLERANCE);
+    }
+
+    @Test
+    public void testGcGaugesAreLabelledByCollector() {
+        registry.register("api-gc.G1-Young-Generation.count", (Gauge<Long>) () -> GC_COUNT);
+        Double count = collectorRegistry.getSampleValue("api_gc_count",
+            new String[] {"collector"}, new String[] {"G1-Young-Generation"});
+        assertNotNull(count);
+        assertEquals(GC_COUNT, count, 0.0);
+    }
+
+    @Test
+    public void testOtherNamesAreSanitized() {
+        registry.register("api-memory.heap.used", (Gauge<Long>) () -> HEAP_USED);
+        Double used = collectorRegistry.getSampleValue("api_memory_heap_used");
+        assertNotNull(used);
+        assertEquals(HEAP_USED, used, 0.0);
+    }
+
+    @Test
+    public void testJvmMetricsExports() {
+        assertEquals(JvmMetricsExports.BOTH, JvmMetricsExports.from(null));
+        assertEquals(JvmMetricsExports.PROMETHEUS, JvmMetricsExports.from(" Prometheus "));
+        JvmMetricsExports dropwizard = JvmMetricsExports.from("dropwizard");
+        assertTrue(dropwizard.dropwizard());
+        assertFalse(dropwizard.prometheus());
+        assertTrue(JvmMetricsExports.BOTH.prometheus() && JvmMetricsExports.BOTH.dropwizard());
+        assertFalse(JvmMetricsExports.PROMETHEUS.dropwizard());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownJvmMetricsExports() {
+        JvmMetricsExports.from("jmx");
+    }
+}
@@ -0,0 +1,110 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.metrics;
+
+import com.codahale.metrics.Snapshot;
+import io.prometheus.client.Collector.MetricFamilySamples;
+import io.prometheus.client.CollectorRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test cases for {@link HdrHistogramReservoir} and {@link HdrLatencyCollector}.
+ *
+ * @author abhishekkumar
+ */
+public class HdrHistogramReservoirTest {
+
+    private static final long HIGHEST_NANOS = TimeUnit.SECONDS.toNanos(60);
+    private static final int DIGITS = 2;
+    private static final long WINDOW_SECONDS = 60;
+    private static final int SLOTS = 6;
+    private static final int SAMPLES = 1000;
+    private static final double TOLERANCE = 0.02;
+    private static final long P99_MILLIS = 990;
+    private static final long P999_MILLIS = 999;
+    private static final long LATENCY_MILLIS = 100;
+    private static final double LATENCY_SECONDS = 0.1;
+    private static final int OVERFLOW_FACTOR = 2;
+
+    private HdrHistogramReservoir reservoir;
+
+    /**
+     * create a fresh reservoir and registry for every test.
+     */
+    @Before
+    public void setup() {
+        CollectorRegistry.defaultRegistry.clear();
+        reservoir = new HdrHistogramReservoir(HIGHEST_NANOS, DIGITS, WINDOW_SECONDS, SLOTS);
+    }
+
+    @Test
+    public void testQuantiles() {
+        for (int i = 1; i <= SAMPLES; i++) {
+            reservoir.update(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        Snapshot snapshot = reservoir.getSnapshot();
+        assertEquals(SAMPLES, snapshot.size());
+        assertEquals(SAMPLES, reservoir.getCount());
+        double p99Millis = snapshot.get99thPercentile() / TimeUnit.MILLISECONDS.toNanos(1);
+        assertEquals(P99_MILLIS, p99Millis, P99_MILLIS * TOLERANCE);
+        double p999Millis = snapshot.get999thPercentile() / TimeUnit.MILLISECONDS.toNanos(1);
+        assertEquals(P999_MILLIS, p999Millis, P999_MILLIS * TOLERANCE);
+    }
+
+    @Test
+    public void testSnapshotKeepsWindowAcrossReads() {
+        reservoir.update(TimeUnit.MILLISECONDS.toNanos(LATENCY_MILLIS));
+        assertEquals(1, reservoir.getSnapshot().size());
+        // a second read must not lose the values swapped out by the first one
+        assertEquals(1, reservoir.getSnapshot().size());
+    }
+
+    @Test
+    public void testValuesAboveHighestTrackableAreClamped() {
+        reservoir.update(HIGHEST_NANOS * OVERFLOW_FACTOR);
+        Snapshot snapshot = reservoir.getSnapshot();
+        assertEquals(1, snapshot.size());
+        assertTrue(snapshot.getMax() >= HIGHEST_NANOS * (1 - TOLERANCE));
+        assertEquals(HIGHEST_NANOS * OVERFLOW_FACTOR, reservoir.getSum());
+    }
+
+    @Test
+    public void testCollectorExportsSummary() {
+        HdrLatencyCollector collector = new HdrLatencyCollector("test_hdr_seconds", "test",
+            () -> new HdrHistogramReservoir(HIGHEST_NANOS, DIGITS, WINDOW_SECONDS, SLOTS), "api", "method")
+            .register();
+        collector.record(TimeUnit.MILLISECONDS.toNanos(LATENCY_MILLIS), "/v1/test", "GET");
+        List<MetricFamilySamples> families = collector.collect();
+        assertEquals(1, families.size());
+        Double count = CollectorRegistry.defaultRegistry.getSampleValue("test_hdr_seconds_count",
+            new String[] {"api", "method"}, new String[] {"/v1/test", "GET"});
+        assertNotNull(count);
+        assertEquals(1.0, count, 0.0);
+        Double p99 = CollectorRegistry.defaultRegistry.getSampleValue("test_hdr_seconds",
+            new String[] {"api", "method", "quantile"}, new String[] {"/v1/test", "GET", "0.99"});
+        assertNotNull(p99);
+        assertEquals(LATENCY_SECONDS, p99, LATENCY_SECONDS * TOLERANCE);
+    }
+}
@@ -0,0 +1,183 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.metrics;
+
+import io.prometheus.client.CollectorRegistry;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.io.CloseMode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test cases for {@link InstrumentedHttpClientConnectionManager}.
+ *
+ * @author abhishekkumar
+ */
+public class InstrumentedHttpClientConnectionManagerTest {
+
+    private static final int RESPONSE_CODE_200 = 200;
+    private static final int REQUESTS = 3;
+    private static final long LEAK_THRESHOLD_MILLIS = 50;
+    private static final long HOLD_MILLIS = 100;
+    private static final long DISABLED = 0;
+    private static final int DETECTORS = 4;
+    private static final int HTTPS_PORT = 443;
+    private static final int PROXY_PORT = 3128;
+
+    /**
+     * server.
+     */
+    @Rule
+    public final MockWebServer server = new MockWebServer();
+
+    private InstrumentedHttpClientConnectionManager connectionManager;
+    private CloseableHttpClient httpClient;
+
+    /**
+     * enqueue the responses served to every test.
+     */
+    @Before
+    public void setup() {
+        for (int i = 0; i < REQUESTS; i++) {
+            server.enqueue(new MockResponse().setResponseCode(RESPONSE_CODE_200).setBody("ok"));
+        }
+    }
+
+    /**
+     * close the client and its connection manager.
+     */
+    @After
+    public void tearDown() {
+        if (httpClient != null) {
+            httpClient.close(CloseMode.IMMEDIATE);
+        }
+    }
+
+    private void createClient(String client, long leakThresholdMillis) {
+        connectionManager = new InstrumentedHttpClientConnectionManager(client,
+            PoolingHttpClientConnectionManagerBuilder.create().build(), true, leakThresholdMillis);
+        httpClient = HttpClients.custom().setConnectionManager(connectionManager).build();
+    }
+
+    private String route() {
+        return "http://" + server.getHostName() + ":" + server.getPort();
+    }
+
+    @Test
+    public void testLeaseWaitIsRecorded() throws Exception {
+        createClient("lease_wait_test", DISABLED);
+        for (int i = 0; i < REQUESTS; i++) {
+            String body = httpClient.execute(new HttpGet(server.url("/ok").uri()),
+                response -> EntityUtils.toString(response.getEntity()));
+            assertEquals("ok", body);
+        }
+        Double count = CollectorRegistry.defaultRegistry.getSampleValue("http_client_pool_lease_wait_seconds_count",
+            new String[] {"client", "route"}, new String[] {"lease_wait_test", route()});
+        assertNotNull(count);
+        assertEquals(REQUESTS, count, 0.0);
+        assertEquals(0, connectionManager.getTrackedLeases());
+    }
+
+    @Test
+    public void testReleasedConnectionsAreNotReported() throws Exception {
+        createClient("released_test", LEAK_THRESHOLD_MILLIS);
+        httpClient.execute(new HttpGet(server.url("/ok").uri()),
+            response -> EntityUtils.toString(response.getEntity()));
+        assertEquals(0, connectionManager.getTrackedLeases());
+        TimeUnit.MILLISECONDS.sleep(HOLD_MILLIS);
+        assertEquals(0, connectionManager.detectLeaks());
+    }
+
+    @Test
+    public void testHeldConnectionIsReportedOnce() throws Exception {
+        createClient("leak_test", LEAK_THRESHOLD_MILLIS);
+        try (ClassicHttpResponse response = httpClient.executeOpen(null, new HttpGet(server.url("/ok").uri()),
+            null)) {
+            assertEquals(1, connectionManager.getTrackedLeases());
+            TimeUnit.MILLISECONDS.sleep(HOLD_MILLIS);
+            // the detector thread may already have reported it, either way it is reported only once
+            assertTrue(connectionManager.detectLeaks() <= 1);
+            assertEquals(0, connectionManager.detectLeaks());
+            Double leaked = CollectorRegistry.defaultRegistry.getSampleValue(
+                "http_client_pool_leaked_connections_total",
+                new String[] {"client", "route"}, new String[] {"leak_test", route()});
+            assertNotNull(leaked);
+            assertEquals(1.0, leaked, 0.0);
+            EntityUtils.consume(response.getEntity());
+        }
+        assertEquals(0, connectionManager.getTrackedLeases());
+    }
+
+    @Test
+    public void testConcurrentDetectionReportsOnce() throws Exception {
+        createClient("concurrent_leak_test", LEAK_THRESHOLD_MILLIS);
+        ExecutorService detectors = Executors.newFixedThreadPool(DETECTORS);
+        try (ClassicHttpResponse response = httpClient.executeOpen(null, new HttpGet(server.url("/ok").uri()),
+            null)) {
+            TimeUnit.MILLISECONDS.sleep(HOLD_MILLIS);
+            List<Callable<Integer>> calls = new ArrayList<>();
+            for (int i = 0; i < DETECTORS; i++) {
+                calls.add(connectionManager::detectLeaks);
+            }
+            for (Future<Integer> leaked : detectors.invokeAll(calls)) {
+                assertTrue(leaked.get() <= 1);
+            }
+            // reported once by the calls and the detector thread together
+            Double leaked = CollectorRegistry.defaultRegistry.getSampleValue(
+                "http_client_pool_leaked_connections_total",
+                new String[] {"client", "route"}, new String[] {"concurrent_leak_test", route()});
+            assertNotNull(leaked);
+            assertEquals(1.0, leaked, 0.0);
+            EntityUtils.consume(response.getEntity());
+        } finally {
+            detectors.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testProxiedAndDirectRoutesHaveDistinctLabels() {
+        HttpHost target = new HttpHost("https", "example.com", HTTPS_PORT);
+        HttpRoute direct = new HttpRoute(target);
+        HttpRoute proxied = new HttpRoute(target, new HttpHost("http", "proxy", PROXY_PORT));
+        assertEquals("https://example.com:443", HttpClientPoolCollector.routeName(direct));
+        assertEquals("https://example.com:443 via http://proxy:3128", HttpClientPoolCollector.routeName(proxied));
+    }
+}
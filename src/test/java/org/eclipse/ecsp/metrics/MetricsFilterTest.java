@@ -19,6 +19,10 @@
 package org.eclipse.ecsp.metrics;
 
 import io.prometheus.client.CollectorRegistry;
+import io.prometheus.client.Counter;
+import io.prometheus.metrics.model.registry.PrometheusRegistry;
+import io.prometheus.metrics.model.snapshots.HistogramSnapshot;
+import io.prometheus.metrics.model.snapshots.HistogramSnapshot.HistogramDataPointSnapshot;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.FilterConfig;
 import jakarta.servlet.ServletException;
@@ -29,6 +33,7 @@ import org.junit.Test;
 import org.mockito.Mockito;
 import java.io.IOException;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -43,6 +48,16 @@ public class MetricsFilterTest {
      * INT_2.
      */
     public static final int INT_2 = 2;
+
+    /**
+     * NATIVE_SCHEMA.
+     */
+    public static final int NATIVE_SCHEMA = 3;
+
+    /**
+     * NATIVE_MAX_BUCKETS.
+     */
+    public static final int NATIVE_MAX_BUCKETS = 100;
     private HttpServletRequest request;
     private HttpServletResponse response;
     private FilterChain chain;
@@ -54,6 +69,7 @@ public class MetricsFilterTest {
     @Before
     public void setup() {
         CollectorRegistry.defaultRegistry.clear();
+        NativeHistograms.reset();
         request = Mockito.mock(HttpServletRequest.class);
         Mockito.when(request.getRequestURI()).thenReturn("/index.html");
         Mockito.when(request.getMethod()).thenReturn("GET");
@@ -102,4 +118,37 @@ public class MetricsFilterTest {
         
         filter.destroy();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testEnabledWithNativeHistograms() throws IOException, ServletException {
+        filter.setMetricsEnabled(true);
+        filter.setApiProcessingDurationBuckets(new double[] {1, INT_2});
+        filter.setNodeName("localhost");
+        filter.setNativeHistogramsEnabled(true);
+        filter.setNativeHistogramInitialSchema(NATIVE_SCHEMA);
+        filter.setNativeHistogramMaxBuckets(NATIVE_MAX_BUCKETS);
+        filter.init(Mockito.mock(FilterConfig.class));
+        filter.doFilter(request, response, chain);
+        Mockito.verify(chain, Mockito.times(1)).doFilter(request, response);
+
+        HistogramSnapshot histogram = (HistogramSnapshot) PrometheusRegistry.defaultRegistry.scrape(
+            "api_request_processing_duration_seconds"::equals).get(0);
+        HistogramDataPointSnapshot dataPoint = histogram.getDataPoints().get(0);
+        assertTrue(dataPoint.hasNativeHistogramData());
+        assertFalse(dataPoint.hasClassicHistogramData());
+        assertEquals(1, dataPoint.getCount());
+        assertEquals(NATIVE_SCHEMA, dataPoint.getNativeSchema());
+        assertEquals("localhost", dataPoint.getLabels().get("node"));
+    }
+
+    @Test
+    public void testSimpleclientBridgedAgainAfterReset() {
+        Counter.build().name("test_bridge_total").help("test").register();
+        NativeHistograms.bridgeSimpleclient();
+        assertEquals(1, PrometheusRegistry.defaultRegistry.scrape("test_bridge"::equals).size());
+        NativeHistograms.reset();
+        assertEquals(0, PrometheusRegistry.defaultRegistry.scrape("test_bridge"::equals).size());
+        NativeHistograms.bridgeSimpleclient();
+        assertEquals(1, PrometheusRegistry.defaultRegistry.scrape("test_bridge"::equals).size());
+    }
+}
@@ -8,6 +8,7 @@ import io.prometheus.client.Histogram;
 import io.prometheus.client.hotspot.DefaultExports;
 import jakarta.servlet.http.HttpServletRequest;
 import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
@@ -21,6 +22,7 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -28,6 +30,7 @@ class PerformanceMonitorAspectTest {
     public static final double DOUBLE_POINT_5 = 0.05;
     public static final double DOUBLE_POINT_1 = 0.1;
     public static final double DOUBLE_POINT_2 = 0.2;
+    public static final int TIMED_CALLS = 4;
 
     static {
         CollectorRegistry.defaultRegistry.clear();
@@ -214,4 +217,34 @@ class PerformanceMonitorAspectTest {
         String anonymized = (String) ReflectionTestUtils.invokeMethod(aspect, "anonymizeUrl", url);
         assertEquals("http://example.com/users/{uid}/vehicles/{vid}/test", anonymized);
     }
+
+    @Test
+    void testLegacyTimersAreCachedPerMethod() throws Throwable {
+        ReflectionTestUtils.setField(aspect, "newAgeMetricsEnabled", false);
+        MethodSignature controllerSignature = mock(MethodSignature.class);
+        doReturn("TestController").when(controllerSignature).getDeclaringTypeName();
+        when(controllerSignature.getMethod()).thenReturn(Object.class.getMethod("toString"));
+        when(controllerSignature.toLongString()).thenReturn("controllerMethod");
+        MethodSignature serviceSignature = mock(MethodSignature.class);
+        doReturn("TestService").when(serviceSignature).getDeclaringTypeName();
+        when(serviceSignature.getMethod()).thenReturn(Object.class.getMethod("hashCode"));
+
+        ProceedingJoinPoint serviceJoinPoint = mock(ProceedingJoinPoint.class);
+        when(serviceJoinPoint.getSignature()).thenReturn(serviceSignature);
+        when(serviceJoinPoint.toLongString()).thenReturn("serviceMethod");
+        when(joinPoint.getSignature()).thenReturn(controllerSignature);
+        when(joinPoint.toLongString()).thenReturn("controllerMethod");
+        when(joinPoint.proceed()).thenAnswer(invocation -> aspect.monitor(serviceJoinPoint));
+
+        Timer timer = mock(Timer.class);
+        when(timer.time()).thenReturn(mock(Timer.Context.class));
+        when(registry.timer(anyString())).thenReturn(timer);
+
+        aspect.monitor(joinPoint);
+        aspect.monitor(joinPoint);
+
+        verify(registry, times(1)).timer("api=controllerMethod,method=controllerMethod");
+        verify(registry, times(1)).timer("api=controllerMethod,method=serviceMethod");
+        verify(timer, times(TIMED_CALLS)).time();
+    }
 }
@@ -0,0 +1,136 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.metrics;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.UniformReservoir;
+import org.eclipse.ecsp.metrics.RollingWindowTimer.IntervalSnapshot;
+import org.eclipse.ecsp.metrics.RollingWindowTimer.Window;
+import org.junit.Test;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test cases for {@link RollingWindowTimer}.
+ *
+ * @author abhishekkumar
+ */
+public class RollingWindowTimerTest {
+
+    private static final long DURATION_MILLIS = 20;
+    private static final int INT_2 = 2;
+    private static final int INT_3 = 3;
+    private static final long START_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final int MINUTES_PAST_ONE_MINUTE_WINDOW = 2;
+    private static final int MINUTES_PAST_FIFTEEN_MINUTE_WINDOW = 16;
+    private static final int BUSY_MINUTE_UPDATES = 10_000;
+    private static final long FAST_MILLIS = 1;
+    private static final long SLOW_MILLIS = 100;
+    private static final double TOLERANCE = 0.05;
+
+    private final AtomicLong now = new AtomicLong(START_MILLIS);
+    private final Clock clock = new Clock() {
+        @Override
+        public long getTick() {
+            return TimeUnit.MILLISECONDS.toNanos(now.get());
+        }
+
+        @Override
+        public long getTime() {
+            return now.get();
+        }
+    };
+
+    private void advanceMinutes(int minutes) {
+        now.addAndGet(TimeUnit.MINUTES.toMillis(minutes));
+    }
+
+    @Test
+    public void testAllUpdatePathsFeedWindowsAndInterval() throws Exception {
+        RollingWindowTimer timer = new RollingWindowTimer(new UniformReservoir());
+        timer.update(DURATION_MILLIS, TimeUnit.MILLISECONDS);
+        assertEquals("ok", timer.time(() -> "ok"));
+        timer.time(() -> { });
+        assertEquals(INT_3, timer.getCount());
+        for (Window window : Window.values()) {
+            assertEquals(INT_3, timer.getCount(window));
+        }
+        IntervalSnapshot interval = timer.markInterval();
+        assertEquals(INT_3, interval.count());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(DURATION_MILLIS), interval.snapshot().getMax());
+
+        timer.time().stop();
+        assertEquals(1, timer.markInterval().count());
+        assertEquals(INT_3 + 1, timer.getSnapshot().size());
+        assertEquals(INT_3 + 1, timer.getCount(Window.ONE_MINUTE));
+    }
+
+    @Test
+    public void testDurationsLeaveTheWindows() {
+        RollingWindowTimer timer = new RollingWindowTimer(new UniformReservoir(), clock);
+        timer.update(DURATION_MILLIS, TimeUnit.MILLISECONDS);
+        advanceMinutes(MINUTES_PAST_ONE_MINUTE_WINDOW);
+        timer.update(DURATION_MILLIS, TimeUnit.MILLISECONDS);
+        assertEquals(1, timer.getCount(Window.ONE_MINUTE));
+        assertEquals(INT_2, timer.getCount(Window.FIVE_MINUTES));
+        assertEquals(1, timer.getSnapshot(Window.ONE_MINUTE).size());
+
+        advanceMinutes(MINUTES_PAST_FIFTEEN_MINUTE_WINDOW);
+        for (Window window : Window.values()) {
+            assertEquals(0, timer.getCount(window));
+            assertEquals(0, timer.getSnapshot(window).size());
+        }
+        assertEquals(INT_2, timer.getCount());
+    }
+
+    @Test
+    public void testSamplesAreBoundedAndWeightedByCount() {
+        RollingWindowTimer timer = new RollingWindowTimer(new UniformReservoir(), clock);
+        // a busy minute of fast calls followed by a quiet minute of slow calls
+        for (int i = 0; i < BUSY_MINUTE_UPDATES; i++) {
+            timer.update(FAST_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        advanceMinutes(1);
+        for (int i = 0; i < RollingWindowTimer.SAMPLES_PER_MINUTE; i++) {
+            timer.update(SLOW_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        assertEquals(BUSY_MINUTE_UPDATES + RollingWindowTimer.SAMPLES_PER_MINUTE,
+            timer.getCount(Window.FIVE_MINUTES));
+        Snapshot snapshot = timer.getSnapshot(Window.FIVE_MINUTES);
+        assertTrue(snapshot.size() <= INT_2 * RollingWindowTimer.SAMPLES_PER_MINUTE);
+        // the slow calls are about 2.5% of the window, the median stays fast and the p99 is slow
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(FAST_MILLIS), snapshot.getMedian(), 0.0);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(SLOW_MILLIS), snapshot.get99thPercentile(),
+            TimeUnit.MILLISECONDS.toNanos(SLOW_MILLIS) * TOLERANCE);
+    }
+
+    @Test
+    public void testWindowFromLabel() {
+        assertEquals(Window.FIVE_MINUTES, Window.fromLabel("5M"));
+        assertEquals(INT_2, Window.FIFTEEN_MINUTES.ordinal());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownWindow() {
+        Window.fromLabel("1h");
+    }
+}
@@ -0,0 +1,116 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.metrics;
+
+import io.prometheus.client.CollectorRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Test cases for {@link SloTracker}.
+ *
+ * @author abhishekkumar
+ */
+public class SloTrackerTest {
+
+    private static final String ROUTE = "/v1/users/{userId}";
+    private static final String NODE = "localhost";
+    private static final long THRESHOLD_MILLIS = 300;
+    private static final double OBJECTIVE = 0.99;
+    private static final long FAST_MILLIS = 100;
+    private static final long SLOW_MILLIS = 500;
+    private static final int REQUESTS = 100;
+    private static final double BURN_RATE = 1.0;
+    private static final double TOLERANCE = 1e-9;
+    private static final long START_MILLIS = TimeUnit.DAYS.toMillis(1);
+    private static final long SIX_MINUTES = 6;
+    private static final long OTHER_THRESHOLD_MILLIS = 250;
+    private static final double OTHER_OBJECTIVE = 0.995;
+    private static final double LOW_OBJECTIVE = 0.9;
+
+    private final AtomicLong now = new AtomicLong(START_MILLIS);
+    private SloTracker tracker;
+
+    /**
+     * register a tracker with a controllable clock.
+     */
+    @Before
+    public void setup() {
+        CollectorRegistry.defaultRegistry.clear();
+        tracker = new SloTracker(SloTracker.parseRoutes(ROUTE + "|" + THRESHOLD_MILLIS + "|" + OBJECTIVE),
+            NODE, now::get).register();
+    }
+
+    @Test
+    public void testParseRoutes() {
+        List<SloTracker.Route> routes = SloTracker.parseRoutes(" /a|100|0.9 ,/b/{id}|250|0.995,");
+        assertEquals(List.of(new SloTracker.Route("/a", FAST_MILLIS, LOW_OBJECTIVE),
+            new SloTracker.Route("/b/{id}", OTHER_THRESHOLD_MILLIS, OTHER_OBJECTIVE)), routes);
+        assertEquals(List.of(), SloTracker.parseRoutes(""));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseRoutesInvalidObjective() {
+        SloTracker.parseRoutes("/a|100|99");
+    }
+
+    @Test
+    public void testGoodAndBadCounts() {
+        tracker.record(ROUTE, TimeUnit.MILLISECONDS.toNanos(FAST_MILLIS));
+        tracker.record(ROUTE, TimeUnit.MILLISECONDS.toNanos(SLOW_MILLIS));
+        tracker.record("/v1/other", TimeUnit.MILLISECONDS.toNanos(SLOW_MILLIS));
+        tracker.record(null, TimeUnit.MILLISECONDS.toNanos(SLOW_MILLIS));
+        assertEquals(1.0, requests("good"), 0.0);
+        assertEquals(1.0, requests("bad"), 0.0);
+        assertNull(CollectorRegistry.defaultRegistry.getSampleValue("api_slo_requests_total",
+            new String[] {"route", "node", "result"}, new String[] {"/v1/other", NODE, "bad"}));
+    }
+
+    @Test
+    public void testBurnRateWindows() {
+        // 1% bad requests burns the 99% objective's budget at rate 1
+        for (int i = 1; i < REQUESTS; i++) {
+            tracker.record(ROUTE, TimeUnit.MILLISECONDS.toNanos(FAST_MILLIS));
+        }
+        tracker.record(ROUTE, TimeUnit.MILLISECONDS.toNanos(SLOW_MILLIS));
+        assertEquals(BURN_RATE, burnRate("5m"), TOLERANCE);
+        assertEquals(BURN_RATE, burnRate("6h"), TOLERANCE);
+
+        // the bad request leaves the 5m window but stays in the longer ones
+        now.addAndGet(TimeUnit.MINUTES.toMillis(SIX_MINUTES));
+        tracker.record(ROUTE, TimeUnit.MILLISECONDS.toNanos(FAST_MILLIS));
+        assertEquals(0.0, burnRate("5m"), TOLERANCE);
+        assertEquals(BURN_RATE * REQUESTS / (REQUESTS + 1), burnRate("30m"), TOLERANCE);
+    }
+
+    private double requests(String result) {
+        return CollectorRegistry.defaultRegistry.getSampleValue("api_slo_requests_total",
+            new String[] {"route", "node", "result"}, new String[] {ROUTE, NODE, result});
+    }
+
+    private double burnRate(String window) {
+        return CollectorRegistry.defaultRegistry.getSampleValue("api_slo_burn_rate",
+            new String[] {"route", "node", "window"}, new String[] {ROUTE, NODE, window});
+    }
+}
@@ -0,0 +1,216 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.metrics.jfr;
+
+import com.codahale.metrics.MetricRegistry;
+import io.prometheus.client.CollectorRegistry;
+import io.prometheus.client.Histogram;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.FilterConfig;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.eclipse.ecsp.entities.IgniteEvent;
+import org.eclipse.ecsp.kafka.service.KafkaService;
+import org.eclipse.ecsp.metrics.MetricsFilter;
+import org.eclipse.ecsp.metrics.PerformanceMonitorAspect;
+import org.eclipse.ecsp.transform.GenericIgniteEventTransformer;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.HandlerMapping;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test cases for the JFR events emitted by {@link MetricsFilter}, {@link KafkaService} and
+ * {@link PerformanceMonitorAspect}.
+ *
+ * @author abhishekkumar
+ */
+public class JfrEventsTest {
+
+    private static final String API_REQUEST_EVENT = "org.eclipse.ecsp.ApiRequest";
+    private static final String KAFKA_PUBLISH_EVENT = "org.eclipse.ecsp.KafkaPublish";
+    private static final String CONTROLLER_INVOCATION_EVENT = "org.eclipse.ecsp.ControllerInvocation";
+    private static final int STATUS_OK = 200;
+    private static final String ROUTE = "/v1/users/{userId}";
+    private static final String TOPIC = "test-topic";
+    private static final String KAFKA_KEY = "VIN1";
+    private static final byte[] KAFKA_VALUE = "{\"EventID\":\"Speed\"}".getBytes(StandardCharsets.UTF_8);
+    private static final String HANDLER = "UserController.getUser(..)";
+    private static final int UNASSIGNED = -1;
+
+    private HttpServletRequest request;
+    private HttpServletResponse response;
+    private FilterChain chain;
+    private MetricsFilter filter;
+
+    /**
+     * setting up the registry and the request mocks.
+     */
+    @Before
+    public void setup() {
+        CollectorRegistry.defaultRegistry.clear();
+        request = Mockito.mock(HttpServletRequest.class);
+        Mockito.when(request.getMethod()).thenReturn("GET");
+        Mockito.when(request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE))
+            .thenReturn(ROUTE);
+        response = Mockito.mock(HttpServletResponse.class);
+        Mockito.when(response.getStatus()).thenReturn(STATUS_OK);
+        chain = Mockito.mock(FilterChain.class);
+        filter = new MetricsFilter();
+        filter.setMetricsEnabled(true);
+        filter.setApiProcessingDurationBuckets(new double[] {1});
+        filter.setNodeName("localhost");
+    }
+
+    @Test
+    public void testRequestEventRecorded() throws Throwable {
+        filter.setJfrEnabled(true);
+        filter.init(Mockito.mock(FilterConfig.class));
+        List<RecordedEvent> events = record(API_REQUEST_EVENT, () -> filter.doFilter(request, response, chain));
+        assertEquals(1, events.size());
+        RecordedEvent event = events.get(0);
+        assertEquals("GET", event.getString("method"));
+        assertEquals(ROUTE, event.getString("route"));
+        assertEquals(STATUS_OK, event.getInt("status"));
+    }
+
+    @Test
+    public void testNoEventWhenDisabled() throws Throwable {
+        filter.setJfrEnabled(false);
+        filter.init(Mockito.mock(FilterConfig.class));
+        assertTrue(record(API_REQUEST_EVENT, () -> filter.doFilter(request, response, chain)).isEmpty());
+    }
+
+    @Test
+    public void testKafkaPublishEventRecorded() throws Throwable {
+        MockProducer<byte[], byte[]> producer =
+            new MockProducer<>(true, new ByteArraySerializer(), new ByteArraySerializer());
+        GenericIgniteEventTransformer transformer = Mockito.mock(GenericIgniteEventTransformer.class);
+        IgniteEvent igniteEvent = Mockito.mock(IgniteEvent.class);
+        Mockito.when(transformer.toBlob(igniteEvent)).thenReturn(KAFKA_VALUE);
+        KafkaService kafkaService = new KafkaService(producer, transformer);
+        ReflectionTestUtils.setField(kafkaService, "jfrEnabled", true);
+        ReflectionTestUtils.setField(kafkaService, "isSynchronousPublish", true);
+
+        List<RecordedEvent> events = record(KAFKA_PUBLISH_EVENT,
+            () -> kafkaService.sendIgniteEvent(KAFKA_KEY, igniteEvent, TOPIC));
+        assertEquals(1, events.size());
+        RecordedEvent event = events.get(0);
+        assertEquals(TOPIC, event.getString("topic"));
+        assertEquals(0, event.getInt("partition"));
+        assertEquals(0L, event.getLong("offset"));
+        assertEquals(KAFKA_KEY.length() + KAFKA_VALUE.length, event.getLong("bytes"));
+        assertTrue(event.getBoolean("acknowledged"));
+    }
+
+    @Test
+    public void testKafkaPublishEventNotAcknowledged() throws Throwable {
+        MockProducer<byte[], byte[]> producer =
+            new MockProducer<>(false, new ByteArraySerializer(), new ByteArraySerializer());
+        GenericIgniteEventTransformer transformer = Mockito.mock(GenericIgniteEventTransformer.class);
+        IgniteEvent igniteEvent = Mockito.mock(IgniteEvent.class);
+        Mockito.when(transformer.toBlob(igniteEvent)).thenReturn(KAFKA_VALUE);
+        KafkaService kafkaService = new KafkaService(producer, transformer);
+        ReflectionTestUtils.setField(kafkaService, "jfrEnabled", true);
+        // the publish is interrupted before the broker acknowledges it
+        Thread.currentThread().interrupt();
+
+        AtomicBoolean interruptRestored = new AtomicBoolean();
+        List<RecordedEvent> events = record(KAFKA_PUBLISH_EVENT, () -> {
+            kafkaService.sendIgniteEvent(KAFKA_KEY, igniteEvent, TOPIC);
+            interruptRestored.set(Thread.interrupted());
+        });
+        assertTrue(interruptRestored.get());
+        assertEquals(1, events.size());
+        RecordedEvent event = events.get(0);
+        assertEquals(TOPIC, event.getString("topic"));
+        assertEquals(UNASSIGNED, event.getInt("partition"));
+        assertEquals(UNASSIGNED, event.getLong("offset"));
+        assertFalse(event.getBoolean("acknowledged"));
+    }
+
+    @Test
+    public void testControllerInvocationEventRecorded() throws Throwable {
+        PerformanceMonitorAspect aspect = new PerformanceMonitorAspect(Mockito.mock(MetricRegistry.class), request);
+        ReflectionTestUtils.setField(aspect, "newAgeMetricsEnabled", true);
+        ReflectionTestUtils.setField(aspect, "jfrEnabled", true);
+        ReflectionTestUtils.setField(aspect, "nodeName", "localhost");
+        ReflectionTestUtils.setField(aspect, "latencyHisto", Histogram.build().name("test_jfr_seconds")
+            .help("test").labelNames("api", "method", "node").create());
+        Signature signature = Mockito.mock(Signature.class);
+        Mockito.when(signature.getDeclaringType()).thenReturn(UserController.class);
+        Mockito.when(signature.toShortString()).thenReturn(HANDLER);
+        ProceedingJoinPoint joinPoint = Mockito.mock(ProceedingJoinPoint.class);
+        Mockito.when(joinPoint.getSignature()).thenReturn(signature);
+
+        List<RecordedEvent> events = record(CONTROLLER_INVOCATION_EVENT, () -> aspect.monitor(joinPoint));
+        assertEquals(1, events.size());
+        RecordedEvent event = events.get(0);
+        assertEquals(ROUTE, event.getString("api"));
+        assertEquals("GET", event.getString("method"));
+        assertEquals(HANDLER, event.getString("handler"));
+    }
+
+    private List<RecordedEvent> record(String eventName, RecordedCall call) throws Throwable {
+        Path file = Files.createTempFile("api-common", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(eventName).withoutThreshold();
+            recording.start();
+            call.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                .filter(e -> eventName.equals(e.getEventType().getName()))
+                .toList();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * invocation recorded by the test, which may throw.
+     */
+    private interface RecordedCall {
+        void run() throws Throwable;
+    }
+
+    /**
+     * rest controller advised by the aspect.
+     */
+    @RestController
+    private static class UserController {
+    }
+}
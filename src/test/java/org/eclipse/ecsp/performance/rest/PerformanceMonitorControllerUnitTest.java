@@ -0,0 +1,168 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.performance.rest;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.codahale.metrics.UniformReservoir;
+import com.codahale.metrics.jvm.MemoryUsageGaugeSet;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.ServletContext;
+import org.eclipse.ecsp.constants.Constants;
+import org.eclipse.ecsp.exceptions.BadRequestException;
+import org.eclipse.ecsp.metrics.RollingWindowTimer;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit test cases for the json metrics api of {@link PerformanceMonitorController}.
+ *
+ * @author abhishekkumar
+ */
+public class PerformanceMonitorControllerUnitTest {
+
+    private static final String FAST = "api=fast,method=execution(fast)";
+    private static final String SLOW = "api=slow,method=execution(slow)";
+    private static final String BUSY = "api=busy,method=execution(busy)";
+    private static final long FAST_MILLIS = 1;
+    private static final long SLOW_MILLIS = 500;
+    private static final long BUSY_MILLIS = 10;
+    private static final int BUSY_CALLS = 5;
+    private static final int TOTAL = 3;
+    private static final int LIMIT = 10;
+    private static final int INT_2 = 2;
+
+    private static final String ROLLING = "api=rolling,method=execution(rolling)";
+
+    private MetricRegistry registry;
+    private PerformanceMonitorController controller;
+
+    /**
+     * register timers with distinct latency and counts.
+     */
+    @Before
+    public void setup() {
+        registry = new MetricRegistry();
+        registry.timer(FAST).update(FAST_MILLIS, TimeUnit.MILLISECONDS);
+        registry.timer(SLOW).update(SLOW_MILLIS, TimeUnit.MILLISECONDS);
+        for (int i = 0; i < BUSY_CALLS; i++) {
+            registry.timer(BUSY).update(BUSY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        registry.timer("not-an-api-timer");
+        controller = new PerformanceMonitorController(registry, Mockito.mock(ServletContext.class));
+    }
+
+    @Test
+    public void testSortByName() throws Exception {
+        JsonNode json = get(null, "name", 0, LIMIT);
+        assertEquals(TOTAL, json.get("total").asInt());
+        assertEquals(BUSY, json.get("timers").get(0).get("name").asText());
+        assertEquals(FAST, json.get("timers").get(1).get("name").asText());
+        assertEquals(SLOW, json.get("timers").get(INT_2).get("name").asText());
+    }
+
+    @Test
+    public void testTopByP99() throws Exception {
+        JsonNode json = get(null, "P99", 0, 1);
+        assertEquals(TOTAL, json.get("total").asInt());
+        assertEquals(1, json.get("timers").size());
+        assertEquals(SLOW, json.get("timers").get(0).get("name").asText());
+        assertEquals(SLOW_MILLIS, json.get("timers").get(0).get("p99Ms").asDouble(), 1.0);
+    }
+
+    @Test
+    public void testSortByCountWithOffset() throws Exception {
+        JsonNode json = get(null, "count", 1, LIMIT);
+        assertEquals(INT_2, json.get("timers").size());
+        // busy is first by count and skipped by the offset, ties are ordered by name
+        assertEquals(FAST, json.get("timers").get(0).get("name").asText());
+        assertEquals(SLOW, json.get("timers").get(1).get("name").asText());
+    }
+
+    @Test
+    public void testFilterByApi() throws Exception {
+        JsonNode json = get("slow", "name", 0, LIMIT);
+        assertEquals(1, json.get("total").asInt());
+        assertEquals(1, json.get("timers").get(0).get("count").asLong());
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void testInvalidSort() throws Exception {
+        controller.getJson(null, "latency", 0, LIMIT, null);
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void testInvalidLimit() throws Exception {
+        controller.getJson(null, "name", 0, PerformanceMonitorController.MAX_LIMIT + 1, null);
+    }
+
+    @Test
+    public void testRollingWindowAndMark() throws Exception {
+        Timer timer = registry.timer(ROLLING, () -> new RollingWindowTimer(new UniformReservoir()));
+        timer.update(SLOW_MILLIS, TimeUnit.MILLISECONDS);
+        JsonNode json = get("rolling", "name", 0, LIMIT, "5m");
+        assertEquals(1, json.get("timers").get(0).get("count").asLong());
+
+        JsonNode marked = read(controller.markInterval());
+        assertEquals(1, marked.get("timers").size());
+        assertEquals(ROLLING, marked.get("timers").get(0).get("name").asText());
+        assertEquals(1, marked.get("timers").get(0).get("count").asLong());
+        // the next interval starts empty, lifetime and window stats are kept
+        assertEquals(0, read(controller.markInterval()).get("timers").get(0).get("count").asLong());
+        assertEquals(1, get("rolling", "name", 0, LIMIT, null).get("timers").get(0).get("count").asLong());
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void testInvalidWindow() throws Exception {
+        controller.getJson(null, "name", 0, LIMIT, "2m");
+    }
+
+    @Test
+    public void testResetKeepsJvmMetrics() {
+        registry.register(Constants.MEMORY_METRICS_PREFIX, new MemoryUsageGaugeSet());
+        assertEquals("success", controller.get());
+        assertTrue(registry.getTimers().isEmpty());
+        assertFalse(registry.getGauges().isEmpty());
+    }
+
+    private JsonNode get(String api, String sort, int offset, int limit) throws BadRequestException, IOException {
+        return get(api, sort, offset, limit, null);
+    }
+
+    private JsonNode get(String api, String sort, int offset, int limit, String window)
+        throws BadRequestException, IOException {
+        return read(controller.getJson(api, sort, offset, limit, window));
+    }
+
+    private JsonNode read(ResponseEntity<StreamingResponseBody> response) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        return new ObjectMapper().readTree(out.toByteArray());
+    }
+}
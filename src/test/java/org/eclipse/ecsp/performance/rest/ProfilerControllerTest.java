@@ -0,0 +1,90 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.performance.rest;
+
+import org.eclipse.ecsp.metrics.ApiStackSampler;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Test cases for {@link ProfilerController}.
+ *
+ * @author abhishekkumar
+ */
+public class ProfilerControllerTest {
+
+    private static final String STACK = "/v1/test;java.lang.Thread.run 2\n";
+
+    private ApiStackSampler stackSampler;
+    private ProfilerController controller;
+
+    /**
+     * mock the sampler output.
+     */
+    @Before
+    public void setup() throws IOException {
+        stackSampler = mock(ApiStackSampler.class);
+        doAnswer(invocation -> {
+            Writer writer = invocation.getArgument(0);
+            writer.write(STACK);
+            writer.flush();
+            return null;
+        }).when(stackSampler).writeCollapsed(any(), any());
+        controller = new ProfilerController(stackSampler);
+    }
+
+    @Test
+    public void testProfileIsWrittenAsText() throws IOException {
+        ResponseEntity<StreamingResponseBody> response = controller.getProfile("all", false);
+        assertEquals(MediaType.TEXT_PLAIN, response.getHeaders().getContentType());
+        assertEquals(STACK, write(response));
+        verify(stackSampler).writeCollapsed(any(), eq(null));
+        verify(stackSampler, never()).reset();
+    }
+
+    @Test
+    public void testProfileForApiWithReset() throws IOException {
+        String body = write(controller.getProfile("/v1/test", true));
+        assertTrue(body.startsWith("/v1/test;"));
+        verify(stackSampler).writeCollapsed(any(), eq("/v1/test"));
+        verify(stackSampler).reset();
+    }
+
+    private static String write(ResponseEntity<StreamingResponseBody> response) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,57 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+package org.eclipse.ecsp.testutils;
+
+import org.eclipse.ecsp.annotations.Monitored;
+
+/**
+ * Beans advised by the performance monitor in the tests, outside of the metrics and configurations packages
+ * which are never advised.
+ *
+ * @author abhishekkumar
+ */
+public final class MonitoringSamples {
+
+    private MonitoringSamples() {
+    }
+
+    /**
+     * service with one monitored method.
+     */
+    public static class Service {
+        @Monitored
+        public String annotated() {
+            return "annotated";
+        }
+
+        public String plain() {
+            return "plain";
+        }
+    }
+
+    /**
+     * service monitored as a whole.
+     */
+    @Monitored
+    public static class MonitoredService {
+        public String plain() {
+            return "plain";
+        }
+    }
+}
@@ -0,0 +1,298 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.utils;
+
+import org.eclipse.ecsp.exceptions.BadRequestException;
+import org.eclipse.ecsp.nosqldao.IgniteQuery;
+import org.junit.After;
+import org.junit.Test;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * FleetHistoryFanOutTest contains the test cases for {@link FleetHistoryFanOut}.
+ *
+ * @author abhishekkumar
+ */
+public class FleetHistoryFanOutTest {
+
+    private static final int THREADS = 2;
+    private static final int PAGE_SIZE = 4;
+    private static final int EVENTS_PER_VEHICLE = 7;
+    private static final long TIMESTAMP_STEP = 3;
+    /**
+     * every second event of a vehicle has the same timestamp on all the vehicles.
+     */
+    private static final int SHARED_TIMESTAMP_EVERY = 2;
+    private static final long SINCE = 100L;
+    private static final long UNTIL = 200L;
+    private static final long TIMESTAMP = 150L;
+    private static final long TIMEOUT_MILLIS = 10000L;
+    private static final List<String> VEHICLES = List.of("v1", "v2", "v3");
+    private static final int FLEET_SIZE = 200;
+    private static final int CURSOR_VERSION = 2;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    private final FleetHistoryFanOut<Event> fanOut = new FleetHistoryFanOut<>(executor, Event::timestamp,
+        Event::id);
+    private final List<Event> events = new ArrayList<>();
+
+    /**
+     * Histories with equal timestamps across vehicles, ids are unique.
+     */
+    public FleetHistoryFanOutTest() {
+        long id = 0;
+        for (int v = 0; v < VEHICLES.size(); v++) {
+            for (int i = 0; i < EVENTS_PER_VEHICLE; i++) {
+                long shift = i % SHARED_TIMESTAMP_EVERY == 0 ? 0 : v;
+                events.add(new Event(VEHICLES.get(v), i * TIMESTAMP_STEP + shift, id++));
+            }
+        }
+    }
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testTraversalMatchesGlobalSortDesc() throws BadRequestException {
+        assertEquals(sorted(true), traverse("desc"));
+    }
+
+    @Test
+    public void testTraversalMatchesGlobalSortAsc() throws BadRequestException {
+        assertEquals(sorted(false), traverse("asc"));
+    }
+
+    @Test
+    public void testLastPageHasNoCursor() throws BadRequestException {
+        KeysetPagination.Page<Event> page = fanOut.page(VEHICLES, "desc", null, events.size(), slices("desc"));
+        assertEquals(events.size(), page.getRecords().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void testCursorWithOtherSortOrder() throws BadRequestException {
+        String cursor = fanOut.page(VEHICLES, "desc", null, PAGE_SIZE, slices("desc")).getNextCursor();
+        fanOut.page(VEHICLES, "asc", cursor, PAGE_SIZE, slices("asc"));
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void testEmptyPageIsRejected() throws BadRequestException {
+        fanOut.page(VEHICLES, "desc", null, 0, slices("desc"));
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void testPageSizeWithoutRoomForTheExtraRecordIsRejected() throws BadRequestException {
+        fanOut.page(VEHICLES, "desc", null, Integer.MAX_VALUE, slices("desc"));
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void testInvalidCursor() throws BadRequestException {
+        fanOut.page(VEHICLES, "desc", "AAAA", PAGE_SIZE, slices("desc"));
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void testEmbeddedCursorWithOtherSortOrder() throws BadRequestException, IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            byte[] position = KeysetCursor.of(TIMESTAMP, 1L, "asc").toBytes();
+            out.writeByte(CURSOR_VERSION);
+            out.writeBoolean(true);
+            out.writeInt(VEHICLES.size());
+            // no exhausted vehicle, then the position of v1
+            out.writeByte(0);
+            out.writeInt(1);
+            out.writeInt(0);
+            out.writeShort(position.length);
+            out.write(position);
+        }
+        String cursor = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+        fanOut.page(VEHICLES, "desc", cursor, PAGE_SIZE, slices("desc"));
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void testCursorOfOtherVehicles() throws BadRequestException {
+        String cursor = fanOut.page(VEHICLES, "desc", null, PAGE_SIZE, slices("desc")).getNextCursor();
+        fanOut.page(VEHICLES.subList(0, VEHICLES.size() - 1), "desc", cursor, PAGE_SIZE, slices("desc"));
+    }
+
+    @Test
+    public void testCursorDoesNotGrowWithExhaustedVehicles() throws BadRequestException {
+        List<String> fleet = new ArrayList<>(VEHICLES);
+        for (int i = fleet.size(); i < FLEET_SIZE; i++) {
+            fleet.add("vehicle-without-history-" + i);
+        }
+        String cursor = fanOut.page(fleet, "desc", null, PAGE_SIZE, slices("desc")).getNextCursor();
+        // one bit per exhausted vehicle, one position per vehicle with further records
+        assertTrue(cursor.length() < FLEET_SIZE);
+        List<Event> all = new ArrayList<>();
+        while (cursor != null) {
+            KeysetPagination.Page<Event> page = fanOut.page(fleet, "desc", cursor, PAGE_SIZE, slices("desc"));
+            all.addAll(page.getRecords());
+            cursor = page.getNextCursor();
+        }
+        assertEquals(events.size() - PAGE_SIZE, all.size());
+    }
+
+    @Test
+    public void testRejectedSliceCancelsTheStartedOnes() {
+        List<Runnable> started = new ArrayList<>();
+        List<String> fetched = new ArrayList<>();
+        FleetHistoryFanOut<Event> saturated = new FleetHistoryFanOut<>(command -> {
+            if (!started.isEmpty()) {
+                throw new RejectedExecutionException("saturated");
+            }
+            started.add(command);
+        }, Event::timestamp, Event::id);
+        assertThrows(RejectedExecutionException.class, () -> saturated.page(VEHICLES, "desc", null, PAGE_SIZE,
+            (vehicleId, after, limit) -> {
+                fetched.add(vehicleId);
+                return List.of();
+            }));
+        // the slice started before the rejection is cancelled and does not query
+        started.forEach(Runnable::run);
+        assertTrue(fetched.isEmpty());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSliceFailureIsRethrown() throws BadRequestException {
+        fanOut.page(VEHICLES, "desc", null, PAGE_SIZE, (vehicleId, after, limit) -> {
+            throw new IllegalStateException(vehicleId);
+        });
+    }
+
+    @Test(timeout = TIMEOUT_MILLIS, expected = IllegalStateException.class)
+    public void testSliceFailureCancelsTheOtherSlices() throws BadRequestException {
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            // without the cancellation the page waits for the blocked slice of v2
+            fanOut.page(VEHICLES, "desc", null, PAGE_SIZE, (vehicleId, after, limit) -> {
+                if ("v1".equals(vehicleId)) {
+                    throw new IllegalStateException(vehicleId);
+                }
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return List.of();
+            });
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void testIgniteSlicesRunTheTemplateQueries() {
+        PaginationQueryTemplate template = new PaginationQueryTemplate("eventIdKey", "timestampKey",
+            "vehicleIdKey");
+        List<IgniteQuery> queries = new ArrayList<>();
+        FleetHistoryFanOut.SliceQuery<Event> igniteSlices = FleetHistoryFanOut.igniteSlices(template, SINCE,
+            UNTIL, "eventId", "desc", query -> {
+                queries.add(query);
+                return List.of();
+            });
+        KeysetCursor after = KeysetCursor.of(TIMESTAMP, "1212", "desc");
+        igniteSlices.fetch("v1", null, PAGE_SIZE);
+        igniteSlices.fetch("v2", after, PAGE_SIZE);
+        assertEquals(template.bind("v1", SINCE, UNTIL, "eventId", "desc", PAGE_SIZE).toString(),
+            queries.get(0).toString());
+        assertEquals(PAGE_SIZE, queries.get(0).getPageSize());
+        assertEquals(template.bindAfter("v2", SINCE, UNTIL, "eventId", after, PAGE_SIZE).toString(),
+            queries.get(1).toString());
+        assertEquals(PAGE_SIZE, queries.get(1).getPageSize());
+    }
+
+    @Test
+    public void testIgniteSlicesResolveUntilOnce() throws InterruptedException {
+        PaginationQueryTemplate template = new PaginationQueryTemplate("eventIdKey", "timestampKey",
+            "vehicleIdKey");
+        List<IgniteQuery> queries = new ArrayList<>();
+        FleetHistoryFanOut.SliceQuery<Event> igniteSlices = FleetHistoryFanOut.igniteSlices(template, SINCE,
+            null, null, "desc", query -> {
+                queries.add(query);
+                return List.of();
+            });
+        igniteSlices.fetch("v1", null, PAGE_SIZE);
+        Thread.sleep(1);
+        igniteSlices.fetch("v1", null, PAGE_SIZE);
+        assertEquals(queries.get(0).toString(), queries.get(1).toString());
+    }
+
+    private List<Event> traverse(String sortOrder) throws BadRequestException {
+        List<Event> all = new ArrayList<>();
+        String cursor = null;
+        do {
+            KeysetPagination.Page<Event> page = fanOut.page(VEHICLES, sortOrder, cursor, PAGE_SIZE, slices(sortOrder));
+            assertTrue(page.getRecords().size() <= PAGE_SIZE);
+            all.addAll(page.getRecords());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return all;
+    }
+
+    private List<Event> sorted(boolean descending) {
+        Comparator<Event> byTimestamp = Comparator.comparingLong(Event::timestamp);
+        return events.stream().sorted((descending ? byTimestamp.reversed() : byTimestamp)
+            .thenComparing(Comparator.comparingLong(Event::id).reversed())).toList();
+    }
+
+    /**
+     * in memory equivalent of the keyset queries of the vehicles.
+     */
+    private FleetHistoryFanOut.SliceQuery<Event> slices(String sortOrder) {
+        boolean descending = "desc".equals(sortOrder);
+        return (vehicleId, after, limit) -> {
+            Stream<Event> vehicleEvents = sorted(descending).stream().filter(e -> e.vehicleId().equals(vehicleId));
+            if (after != null) {
+                long id = (Long) after.getId();
+                vehicleEvents = vehicleEvents.filter(e -> (descending ? e.timestamp() < after.getTimestamp()
+                    : e.timestamp() > after.getTimestamp()) || e.timestamp() == after.getTimestamp() && e.id() < id);
+            }
+            return vehicleEvents.limit(limit).toList();
+        };
+    }
+
+    /**
+     * history record.
+     *
+     * @param vehicleId vehicle of the event
+     * @param timestamp event timestamp
+     * @param id        event id
+     */
+    private record Event(String vehicleId, long timestamp, long id) {
+    }
+}
@@ -0,0 +1,96 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.utils;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import java.io.IOException;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link JsonFieldExtractorTest} contains test cases for {@link JsonFieldExtractor}.
+ *
+ * @author abhishekkumar
+ */
+public class JsonFieldExtractorTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String EVENT = "{\"EventID\":\"Speed\",\"Version\":\"1.0\",\"Timestamp\":1700000000000,"
+        + "\"Data\":{\"value\":12.50,\"unit\":\"kmph\",\"flags\":[1,2],\"nested\":{\"id\":\"n1\"}},"
+        + "\"VehicleId\":\"v1\",\"active\":true,\"removed\":null}";
+
+    @Test
+    public void testTopLevelAndNestedPaths() {
+        JsonFieldExtractor extractor = JsonFieldExtractor.of("EventID", "Data.unit", "Data.nested.id", "missing");
+        assertArrayEquals(new String[] {"Speed", "kmph", "n1", null}, JsonUtils.getValuesAsString(extractor, EVENT));
+    }
+
+    @Test
+    public void testTextMatchesJsonNodeAsText() throws IOException {
+        String[] paths = {"Timestamp", "Data.value", "Data.flags", "Data", "active", "removed"};
+        String[] values = JsonUtils.getValuesAsString(JsonFieldExtractor.of(paths), EVENT);
+        JsonNode tree = MAPPER.readTree(EVENT);
+        for (int i = 0; i < paths.length; i++) {
+            assertEquals(paths[i], tree.at("/" + paths[i].replace('.', '/')).asText(), values[i]);
+        }
+    }
+
+    @Test
+    public void testCaseInsensitiveMatchPrefersExact() {
+        assertEquals("v1", JsonUtils.getValuesAsString(JsonFieldExtractor.of("vehicleid"), EVENT)[0]);
+        assertEquals("kmph", JsonUtils.getValuesAsString(JsonFieldExtractor.of("data.UNIT"), EVENT)[0]);
+        String json = "{\"KEY\":\"upper\",\"key\":\"exact\"}";
+        assertEquals("exact", JsonUtils.getValuesAsString(JsonFieldExtractor.of("key"), json)[0]);
+        assertEquals("upper", JsonUtils.getValuesAsString(JsonFieldExtractor.of("Key"), json)[0]);
+        assertNull(JsonUtils.getValuesAsString(JsonFieldExtractor.ofKey("Key", false), json)[0]);
+    }
+
+    @Test
+    public void testStopsAfterLastField() throws IOException {
+        // the document is truncated after the requested field, a tree parse would fail
+        String truncated = "{\"EventID\":\"Speed\",\"Data\":{\"value\":";
+        try (JsonParser parser = MAPPER.createParser(truncated)) {
+            assertEquals("Speed", JsonFieldExtractor.of("EventID").extractText(parser)[0]);
+        }
+        assertNull(JsonUtils.getValuesAsString(JsonFieldExtractor.of("missing"), truncated));
+    }
+
+    @Test
+    public void testNodes() throws IOException {
+        try (JsonParser parser = MAPPER.createParser(EVENT)) {
+            JsonNode[] nodes = JsonFieldExtractor.of("Data", "removed", "Data.nested.id").extractNodes(parser);
+            assertEquals(MAPPER.readTree(EVENT).get("Data"), nodes[0]);
+            assertTrue(nodes[1].isNull());
+            assertEquals("n1", nodes[nodes.length - 1].asText());
+        }
+    }
+
+    @Test
+    public void testNonObjectDocument() {
+        assertNull(JsonUtils.getValuesAsString(JsonFieldExtractor.of("key"), "[{\"key\":1}]")[0]);
+        assertNull(JsonUtils.getValuesAsString(JsonFieldExtractor.of("key"), null));
+    }
+}
@@ -0,0 +1,73 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link JsonFieldIndexTest} contains test cases for {@link JsonFieldIndex}.
+ *
+ * @author abhishekkumar
+ */
+public class JsonFieldIndexTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String EVENT = "{\"EventID\":\"Speed\",\"VehicleId\":\"v1\",\"KEY\":\"upper\","
+        + "\"key\":\"exact\",\"Key\":\"title\",\"Tags\":[\"a\",\"b\"],\"Count\":3}";
+
+    @Test
+    public void testLookupsMatchSafeGetString() throws IOException {
+        JsonNode node = MAPPER.readTree(EVENT);
+        JsonFieldIndex index = JsonFieldIndex.of(node);
+        for (String key : List.of("EventID", "eventid", "VEHICLEID", "key", "kEY", "Key", "count", "missing")) {
+            assertEquals(key, JsonUtils.safeGetStringFromJsonNode(key, node), index.getString(key));
+        }
+    }
+
+    @Test
+    public void testExtract() throws IOException {
+        JsonFieldIndex index = JsonFieldIndex.of(MAPPER.readTree(EVENT));
+        Map<String, String> values = index.extract(Set.of("eventId", "vehicleid", "missing"));
+        assertEquals(Map.of("eventId", "Speed", "vehicleid", "v1"), values);
+    }
+
+    @Test
+    public void testValuesAsList() throws IOException {
+        JsonFieldIndex index = JsonFieldIndex.of(MAPPER.readTree(EVENT));
+        assertEquals(List.of("a", "b"), index.getValuesAsList("tags"));
+        assertTrue(index.getValuesAsList("missing").isEmpty());
+    }
+
+    @Test
+    public void testNonObjectNodes() throws IOException {
+        assertNull(JsonFieldIndex.of(null).get("key"));
+        assertNull(JsonFieldIndex.of(MAPPER.readTree("[1]")).get("key"));
+    }
+}
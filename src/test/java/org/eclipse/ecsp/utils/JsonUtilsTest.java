@@ -20,6 +20,7 @@ package org.eclipse.ecsp.utils;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.eclipse.ecsp.domain.Version;
 import org.eclipse.ecsp.entities.IgniteEvent;
@@ -27,13 +28,20 @@ import org.eclipse.ecsp.entities.IgniteEventImpl;
 import org.junit.Assert;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 /**
  * {@link JsonUtilsTest} contains test cases for {@link JsonUtils}.
@@ -47,6 +55,10 @@ public class JsonUtilsTest {
     
     private static ObjectMapper jsonMapper = new ObjectMapper();
     
+    private static final int STREAMED_ELEMENTS = 25;
+    
+    private static final int BATCH_SIZE = 10;
+    
     /**
      * inner class used to test cases.
      */
@@ -186,4 +198,86 @@ public class JsonUtilsTest {
         assertNull(JsonUtils.safeGetStringFromJsonNode("key", null));
     }
     
+    @Test
+    public void parseInputJsonBytesAndStreamTest() throws IOException {
+        byte[] json = "{\"val\":\"test\"}".getBytes(StandardCharsets.UTF_8);
+        assertEquals("test", JsonUtils.parseInputJson(json, Inner.class).getVal());
+        assertEquals("test", JsonUtils.parseInputJson(new ByteArrayInputStream(json), Inner.class).getVal());
+    }
+    
+    @Test
+    public void parseJsonAsListBytesAndStreamTest() throws IOException {
+        byte[] json = "[{\"val\":\"a\"},{\"val\":\"b\"}]".getBytes(StandardCharsets.UTF_8);
+        assertEquals("b", JsonUtils.parseJsonAsList(json, Inner.class).get(1).getVal());
+        List<Inner> list = JsonUtils.parseJsonAsList(new ByteArrayInputStream(json), Inner.class);
+        assertEquals("a", list.get(0).getVal());
+    }
+    
+    @Test
+    public void streamJsonArrayTest() throws IOException {
+        try (Stream<Inner> stream = JsonUtils.streamJsonArray(innerArray(STREAMED_ELEMENTS), Inner.class)) {
+            List<String> values = stream.map(Inner::getVal).toList();
+            assertEquals(STREAMED_ELEMENTS, values.size());
+            assertEquals("v" + (STREAMED_ELEMENTS - 1), values.get(STREAMED_ELEMENTS - 1));
+        }
+    }
+    
+    @Test
+    public void streamJsonArrayInBatchesTest() throws IOException {
+        try (Stream<List<Inner>> batches = JsonUtils.streamJsonArray(innerArray(STREAMED_ELEMENTS), Inner.class,
+                BATCH_SIZE)) {
+            List<Integer> sizes = batches.map(List::size).toList();
+            assertEquals(List.of(BATCH_SIZE, BATCH_SIZE, STREAMED_ELEMENTS - BATCH_SIZE - BATCH_SIZE), sizes);
+        }
+        try (Stream<List<Inner>> batches = JsonUtils.streamJsonArray(innerArray(0), Inner.class, BATCH_SIZE)) {
+            assertEquals(0, batches.count());
+        }
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void streamJsonArrayInvalidBatchSizeTest() throws IOException {
+        JsonUtils.streamJsonArray(innerArray(1), Inner.class, 0);
+    }
+    
+    @Test
+    public void readJsonArrayTest() throws IOException {
+        try (MappingIterator<Inner> iterator = JsonUtils.readJsonArray(innerArray(1), Inner.class)) {
+            assertEquals("v0", iterator.next().getVal());
+            Assert.assertFalse(iterator.hasNext());
+        }
+    }
+    
+    private static InputStream innerArray(int size) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"val\":\"v").append(i).append("\"}");
+        }
+        return new ByteArrayInputStream(json.append(']').toString().getBytes(StandardCharsets.UTF_8));
+    }
+    
+    @Test
+    public void binaryPayloadFormatsTest() throws IOException {
+        Inner inner = new Inner("test");
+        byte[] json = JsonUtils.getObjectValueAsBytes(inner, PayloadFormat.JSON);
+        assertEquals("{\"val\":\"test\"}", new String(json, StandardCharsets.UTF_8));
+        for (PayloadFormat format : PayloadFormat.values()) {
+            byte[] bytes = JsonUtils.getObjectValueAsBytes(inner, format);
+            assertEquals(format.name(), "test", JsonUtils.parseInputJson(bytes, Inner.class, format).getVal());
+        }
+        // field names are back referenced, so repeated objects are smaller than in text json
+        List<Inner> inners = Collections.nCopies(BATCH_SIZE, inner);
+        Assert.assertTrue(JsonUtils.getObjectValueAsBytes(inners, PayloadFormat.SMILE).length
+            < JsonUtils.getObjectValueAsBytes(inners).length);
+    }
+    
+    @Test
+    public void readersAndWritersAreCachedTest() {
+        assertSame(JsonUtils.reader(Inner.class), JsonUtils.reader(Inner.class));
+        assertSame(JsonUtils.listReader(Inner.class), JsonUtils.listReader(Inner.class));
+        assertNotSame(JsonUtils.reader(Inner.class), JsonUtils.listReader(Inner.class));
+        assertSame(JsonUtils.writer(Inner.class), JsonUtils.writer(Inner.class));
+        assertEquals("{\"val\":\"test\"}", JsonUtils.getObjectValueAsString(new Inner("test")));
+        assertEquals("null", JsonUtils.getObjectValueAsString(null));
+    }
+    
 }
@@ -0,0 +1,164 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.utils;
+
+import org.bson.types.ObjectId;
+import org.eclipse.ecsp.exceptions.BadRequestException;
+import org.eclipse.ecsp.nosqldao.IgniteQuery;
+import org.junit.Test;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * KeysetPaginationTest contains the test cases for {@link KeysetPagination} and {@link KeysetCursor}.
+ *
+ * @author abhishekkumar
+ */
+public class KeysetPaginationTest {
+
+    private static final long SINCE = 100000L;
+    private static final long UNTIL = 20000L;
+    private static final long TIMESTAMP = 500L;
+    private static final long LONG_ID = 42L;
+    private static final int PAGE_SIZE = 2;
+    private static final int MAX_OBJECT_ID_TOKEN_LENGTH = 32;
+    private static final int TRUNCATED_CHARS = 2;
+    private static final long FIRST_ID = 1L;
+    private static final long SECOND_ID = 0L;
+    private static final long THIRD_ID = 3L;
+    /**
+     * timestamp then id.
+     */
+    private static final int SORT_FIELDS = 2;
+
+    private final KeysetPagination pagination = new KeysetPagination("eventIdKey", "timestampKey", "vehicleIdKey");
+
+    @Test
+    public void testCursorRoundTrip() throws BadRequestException {
+        for (Object id : List.of(new ObjectId(), "1212", LONG_ID, (int) LONG_ID)) {
+            KeysetCursor cursor = KeysetCursor.of(TIMESTAMP, id, "desc");
+            KeysetCursor decoded = KeysetCursor.decode(cursor.encode());
+            assertEquals(cursor, decoded);
+            assertEquals(id.getClass(), decoded.getId().getClass());
+            assertTrue(decoded.isDescending());
+        }
+        assertEquals("asc", KeysetCursor.decode(KeysetCursor.of(TIMESTAMP, "1", null).encode()).getSortOrder());
+    }
+
+    @Test
+    public void testCursorIsCompact() {
+        String token = KeysetCursor.of(System.currentTimeMillis(), new ObjectId(), "desc").encode();
+        assertTrue(token, token.length() <= MAX_OBJECT_ID_TOKEN_LENGTH);
+        assertTrue(token, token.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    public void testInvalidCursors() {
+        String valid = KeysetCursor.of(TIMESTAMP, new ObjectId(), "asc").encode();
+        for (String token : List.of("", "not a token", "AAAA", valid.substring(0, valid.length() - TRUNCATED_CHARS),
+            valid + "AA")) {
+            try {
+                KeysetCursor.decode(token);
+                throw new AssertionError("decoded " + token);
+            } catch (BadRequestException e) {
+                assertTrue(e.getMessage().contains("cursor"));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsupportedIdType() {
+        KeysetCursor.of(TIMESTAMP, new Object(), "asc");
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void testCursorWithOtherSortOrder() throws BadRequestException {
+        String cursor = KeysetCursor.of(TIMESTAMP, "1212", "asc").encode();
+        pagination.buildQuery(pagination.basicCriteria("1111", SINCE, UNTIL, "eventId"), "desc", cursor,
+            PAGE_SIZE);
+    }
+
+    @Test
+    public void testPageReturnsNextCursorFromLastRecord() throws BadRequestException {
+        List<long[]> results = List.of(new long[] {TIMESTAMP, FIRST_ID}, new long[] {TIMESTAMP, SECOND_ID},
+            new long[] {TIMESTAMP - 1, THIRD_ID});
+        KeysetPagination.Page<long[]> page = pagination.page(results, PAGE_SIZE, "desc", r -> r[0], r -> r[1]);
+        assertEquals(PAGE_SIZE, page.getRecords().size());
+        assertEquals(KeysetCursor.of(TIMESTAMP, SECOND_ID, "desc"), KeysetCursor.decode(page.getNextCursor()));
+
+        page = pagination.page(results.subList(0, PAGE_SIZE), PAGE_SIZE, "desc", r -> r[0], r -> r[1]);
+        assertEquals(PAGE_SIZE, page.getRecords().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    public void testBuildQueryWithCursor() throws BadRequestException {
+        String cursor = KeysetCursor.of(TIMESTAMP, "1212", "desc").encode();
+        IgniteQuery query = pagination.buildQuery(pagination.basicCriteria("1111", SINCE, UNTIL, "eventId"),
+            "desc", cursor, PAGE_SIZE);
+        assertEquals(
+            "(((vehicleIdKey=1111)"
+                + "and(timestampKey>=100000)"
+                + "and(timestampKey<=20000)"
+                + "and(eventIdKey=eventId)"
+                + "and(timestampKey<500))"
+                + "or((vehicleIdKey=1111)"
+                + "and(timestampKey>=100000)"
+                + "and(timestampKey<=20000)"
+                + "and(eventIdKey=eventId)"
+                + "and(timestampKey=500)"
+                + "and(_id<1212)))",
+            query.toString());
+        assertEquals(PAGE_SIZE + 1, query.getPageSize());
+        assertEquals(SORT_FIELDS, query.getOrderBys().size());
+    }
+
+    @Test
+    public void testBuildQueryFirstPage() throws BadRequestException {
+        IgniteQuery query = pagination.buildQuery(pagination.basicCriteria("1111", SINCE, UNTIL, "eventId"),
+            "asc", null, PAGE_SIZE);
+        assertEquals(PAGE_SIZE + 1, query.getPageSize());
+        assertEquals(SORT_FIELDS, query.getOrderBys().size());
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void testBuildQueryRejectsEmptyPage() throws BadRequestException {
+        pagination.buildQuery(pagination.basicCriteria("1111", SINCE, UNTIL, "eventId"), "desc", null, 0);
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void testBuildQueryRejectsPageSizeWithoutRoomForTheExtraRecord() throws BadRequestException {
+        pagination.buildQuery(pagination.basicCriteria("1111", SINCE, UNTIL, "eventId"), "desc", null,
+            Integer.MAX_VALUE);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPageRejectsEmptyPage() {
+        pagination.page(List.of(new long[] {TIMESTAMP, FIRST_ID}), 0, "desc", r -> r[0], r -> r[1]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPageRejectsPageSizeWithoutRoomForTheExtraRecord() {
+        pagination.page(List.of(new long[] {TIMESTAMP, FIRST_ID}), Integer.MAX_VALUE, "desc", r -> r[0],
+            r -> r[1]);
+    }
+}
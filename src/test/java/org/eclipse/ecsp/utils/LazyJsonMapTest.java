@@ -0,0 +1,101 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+
+package org.eclipse.ecsp.utils;
+
+import org.junit.Test;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link LazyJsonMapTest} contains test cases for {@link LazyJsonMap}.
+ *
+ * @author abhishekkumar
+ */
+public class LazyJsonMapTest {
+
+    private static final String EVENT = "{\"EventID\" : \"Speed\", \"Version\":\"1.0\",\"Timestamp\":1700000000000,"
+        + "\"Data\":{\"value\":12.5,\"unit\":\"kmph\",\"tags\":[\"a\",{\"b\":null}]},\"Valid\":true,"
+        + "\"Missing\":null,\"Escaped\":\"a\\\"}b\",\"Count\":3 }";
+
+    private static final long TIMESTAMP = 1700000000000L;
+
+    @Test
+    public void testMatchesGetJsonAsMap() {
+        Map<String, Object> expected = JsonUtils.getJsonAsMap(EVENT);
+        LazyJsonMap lazy = JsonUtils.getJsonAsLazyMap(EVENT);
+        assertEquals(expected.size(), lazy.size());
+        for (Map.Entry<String, Object> entry : expected.entrySet()) {
+            assertEquals(entry.getKey(), entry.getValue(), lazy.get(entry.getKey()));
+        }
+        assertEquals(List.copyOf(expected.keySet()), List.copyOf(lazy.keySet()));
+        assertEquals(expected, lazy);
+        assertEquals(lazy, expected);
+    }
+
+    @Test
+    public void testTypedAccess() {
+        LazyJsonMap lazy = JsonUtils.getJsonAsLazyMap(EVENT.getBytes(StandardCharsets.UTF_8));
+        assertEquals(Long.valueOf(TIMESTAMP), lazy.get("Timestamp", Long.class));
+        assertEquals("a\"}b", lazy.get("Escaped", String.class));
+        assertEquals("kmph", lazy.get("Data", Map.class).get("unit"));
+        assertNull(lazy.get("Missing", String.class));
+        assertNull(lazy.get("Absent", String.class));
+    }
+
+    @Test
+    public void testContainsKeyWithoutValue() {
+        LazyJsonMap lazy = JsonUtils.getJsonAsLazyMap(EVENT);
+        assertTrue(lazy.containsKey("Missing"));
+        assertNull(lazy.get("Missing"));
+        assertFalse(lazy.containsKey("eventid"));
+    }
+
+    @Test
+    public void testDuplicateKeyKeepsLastValue() {
+        LazyJsonMap lazy = JsonUtils.getJsonAsLazyMap("{\"a\":1,\"b\":2,\"a\":\"x\"}");
+        assertEquals(JsonUtils.getJsonAsMap("{\"a\":1,\"b\":2,\"a\":\"x\"}"), lazy);
+        assertEquals(List.of("a", "b"), List.copyOf(lazy.keySet()));
+    }
+
+    @Test
+    public void testInvalidJsonIsEmpty() {
+        assertTrue(JsonUtils.getJsonAsLazyMap("[1,2]").isEmpty());
+        assertTrue(JsonUtils.getJsonAsLazyMap("{\"a\":").isEmpty());
+        assertTrue(JsonUtils.getJsonAsLazyMap("").isEmpty());
+    }
+
+    @Test
+    public void testNullJsonIsEmpty() {
+        assertEquals(JsonUtils.getJsonAsMap(null), JsonUtils.getJsonAsLazyMap((String) null));
+        assertTrue(JsonUtils.getJsonAsLazyMap((byte[]) null).isEmpty());
+        assertNull(new LazyJsonMap(null).get("EventID", String.class));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testReadOnly() {
+        JsonUtils.getJsonAsLazyMap(EVENT).put("EventID", "x");
+    }
+}
@@ -0,0 +1,134 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.utils;
+
+import org.junit.Test;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * PageCountEstimatorTest contains the test cases for {@link PageCountEstimator}.
+ *
+ * @author abhishekkumar
+ */
+public class PageCountEstimatorTest {
+
+    private static final int TOTAL_BUCKETS = 16;
+    private static final int SAMPLED_BUCKETS = 4;
+    private static final long TTL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final long MAX_ENTRIES = 100;
+    private static final long SINCE = 1_000_000L;
+    private static final long UNTIL = 2_000_000L - 1;
+    private static final long STEP = 10L;
+    private static final double TOLERANCE = 0.01;
+    private static final long STATS = 12345L;
+    private static final int STATS_REQUESTS = 3;
+
+    private final PageCountEstimator estimator = new PageCountEstimator(TOTAL_BUCKETS, SAMPLED_BUCKETS, TTL_MILLIS,
+        MAX_ENTRIES, 0L);
+    private final AtomicInteger queries = new AtomicInteger();
+
+    /**
+     * one record every STEP milliseconds.
+     */
+    private long count(long since, long until) {
+        queries.incrementAndGet();
+        return Math.floorDiv(until, STEP) - Math.floorDiv(since - 1, STEP);
+    }
+
+    @Test
+    public void testSampledEstimateIsCloseAndCached() {
+        long exact = count(SINCE, UNTIL);
+        queries.set(0);
+        PageCountEstimator.Count estimate = estimator.sampled("v1", SINCE, UNTIL, false, this::count);
+        assertFalse(estimate.isExact());
+        assertEquals(exact, estimate.getValue(), exact * TOLERANCE);
+        assertEquals(SAMPLED_BUCKETS, queries.get());
+        assertEquals(estimate.getValue(), estimator.sampled("v1", SINCE, UNTIL, false, this::count).getValue());
+        assertEquals(SAMPLED_BUCKETS, queries.get());
+    }
+
+    @Test
+    public void testExactOptIn() {
+        PageCountEstimator.Count count = estimator.sampled("v1", SINCE, UNTIL, true, this::count);
+        assertTrue(count.isExact());
+        assertEquals(count(SINCE, UNTIL), count.getValue());
+    }
+
+    @Test
+    public void testSmallWindowIsCountedExactly() {
+        PageCountEstimator.Count count = estimator.sampled("v1", SINCE, SINCE + STEP, false, this::count);
+        assertTrue(count.isExact());
+        assertEquals(1, queries.get());
+    }
+
+    @Test
+    public void testFromStatsIsCached() {
+        AtomicInteger calls = new AtomicInteger();
+        for (int i = 0; i < STATS_REQUESTS; i++) {
+            assertEquals(STATS, estimator.fromStats("events", () -> {
+                calls.incrementAndGet();
+                return STATS;
+            }).getValue());
+        }
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testOtherUntilIsEstimatedAgain() {
+        long first = estimator.sampled("v1", SINCE, UNTIL, false, this::count).getValue();
+        long longer = estimator.sampled("v1", SINCE, UNTIL + (UNTIL - SINCE + 1), false, this::count).getValue();
+        assertEquals(SAMPLED_BUCKETS + SAMPLED_BUCKETS, queries.get());
+        assertEquals(first + first, longer, first * TOLERANCE);
+    }
+
+    @Test
+    public void testWindowEndingNowIsCachedOnce() {
+        estimator.sampled("v1", SINCE, null, false, this::count);
+        estimator.sampled("v1", SINCE, 0L, false, this::count);
+        assertEquals(SAMPLED_BUCKETS, queries.get());
+    }
+
+    @Test
+    public void testMissingSinceStartsAtMinTimestamp() {
+        PageCountEstimator recent = new PageCountEstimator(TOTAL_BUCKETS, SAMPLED_BUCKETS, TTL_MILLIS, MAX_ENTRIES,
+            SINCE);
+        long exact = count(SINCE, UNTIL);
+        PageCountEstimator.Count estimate = recent.sampled("v1", null, UNTIL, false, this::count);
+        assertEquals(exact, estimate.getValue(), exact * TOLERANCE);
+        assertEquals(exact, recent.sampled("v1", null, UNTIL, true, this::count).getValue());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidConfiguration() {
+        new PageCountEstimator(SAMPLED_BUCKETS, TOTAL_BUCKETS, TTL_MILLIS, MAX_ENTRIES, 0L);
+    }
+
+    @Test
+    public void testStatsAndSampledKeysDoNotCollide() {
+        PageCountEstimator.Count sampled = estimator.sampled("v1", SINCE, UNTIL, false, this::count);
+        String windowKey = "v1|" + SINCE + "|" + UNTIL;
+        assertEquals(STATS, estimator.fromStats(windowKey, () -> STATS).getValue());
+        assertEquals(sampled.getValue(), estimator.sampled("v1", SINCE, UNTIL, false, this::count).getValue());
+    }
+}
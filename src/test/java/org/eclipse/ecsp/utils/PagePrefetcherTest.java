@@ -0,0 +1,254 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.utils;
+
+import io.prometheus.client.CollectorRegistry;
+import org.eclipse.ecsp.exceptions.BadRequestException;
+import org.junit.After;
+import org.junit.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * PagePrefetcherTest contains the test cases for {@link PagePrefetcher}.
+ *
+ * @author abhishekkumar
+ */
+public class PagePrefetcherTest {
+
+    private static final int PAGE_SIZE = 3;
+    /**
+     * a page of 40 percent of the cache bound.
+     */
+    private static final int LARGE_PAGE_SIZE = 40;
+    private static final int RECORDS = 100;
+    private static final int QUERIES = 10;
+    private static final long MAX_RECORDS = 100;
+    private static final long TTL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final long WAIT_MILLIS = 50;
+    private static final long TIMEOUT_MILLIS = 10000L;
+    private static final String QUERY = "vehicle|desc|3";
+    private static final int PAGE_AND_PREFETCH = 2;
+    /**
+     * one prefetch after each of two served pages.
+     */
+    private static final int PREFETCHES_OF_TWO_PAGES = 2;
+
+    private final KeysetPagination pagination = new KeysetPagination("eventIdKey", "timestampKey", "vehicleIdKey");
+    private final List<Long> records = new ArrayList<>();
+    private final AtomicInteger fetches = new AtomicInteger();
+    private final List<PagePrefetcher<Long>> prefetchers = new ArrayList<>();
+
+    /**
+     * records with descending timestamps.
+     */
+    public PagePrefetcherTest() {
+        for (long i = RECORDS; i > 0; i--) {
+            records.add(i);
+        }
+    }
+
+    private PagePrefetcher<Long> track(PagePrefetcher<Long> prefetcher) {
+        prefetchers.add(prefetcher);
+        return prefetcher;
+    }
+
+    /**
+     * releases the names of the prefetchers.
+     */
+    @After
+    public void tearDown() {
+        prefetchers.forEach(PagePrefetcher::close);
+    }
+
+    /**
+     * in memory keyset query over the records, the record is its own timestamp and id.
+     */
+    private KeysetPagination.Page<Long> fetch(String cursor) {
+        return fetch(cursor, PAGE_SIZE);
+    }
+
+    private KeysetPagination.Page<Long> fetch(String cursor, int pageSize) {
+        fetches.incrementAndGet();
+        long after;
+        try {
+            after = cursor == null ? Long.MAX_VALUE : KeysetCursor.decode(cursor).getTimestamp();
+        } catch (BadRequestException e) {
+            throw new IllegalArgumentException(e);
+        }
+        List<Long> result = records.stream().filter(r -> r < after).limit(pageSize + 1).toList();
+        return pagination.page(result, pageSize, "desc", r -> r, r -> r);
+    }
+
+    @Test
+    public void testNextPageIsServedFromCache() {
+        PagePrefetcher<Long> prefetcher = track(new PagePrefetcher<>("test_hit", true, Runnable::run,
+            MAX_RECORDS, TTL_MILLIS, WAIT_MILLIS));
+        Function<String, KeysetPagination.Page<Long>> fetch = this::fetch;
+        KeysetPagination.Page<Long> first = prefetcher.page(QUERY, null, fetch);
+        // the executor runs the prefetch inline
+        assertEquals(PAGE_AND_PREFETCH, fetches.get());
+        KeysetPagination.Page<Long> second = prefetcher.page(QUERY, first.getNextCursor(), fetch);
+        assertEquals(records.subList(PAGE_SIZE, PAGE_SIZE + PAGE_SIZE), second.getRecords());
+        // served from the cache, only the third page was fetched
+        assertEquals(PAGE_AND_PREFETCH + 1, fetches.get());
+        Double hits = CollectorRegistry.defaultRegistry.getSampleValue("api_pagination_prefetch_requests_total",
+            new String[] {"cache", "result"}, new String[] {"test_hit", "hit"});
+        assertNotNull(hits);
+        assertEquals(1.0, hits, 0.0);
+    }
+
+    @Test
+    public void testOtherQueryKeyMisses() {
+        PagePrefetcher<Long> prefetcher = track(new PagePrefetcher<>("test_miss", true, Runnable::run,
+            MAX_RECORDS, TTL_MILLIS, WAIT_MILLIS));
+        String cursor = prefetcher.page(QUERY, null, this::fetch).getNextCursor();
+        prefetcher.page("other", cursor, this::fetch);
+        Double misses = CollectorRegistry.defaultRegistry.getSampleValue("api_pagination_prefetch_requests_total",
+            new String[] {"cache", "result"}, new String[] {"test_miss", "miss"});
+        assertNotNull(misses);
+        assertEquals(1.0, misses, 0.0);
+    }
+
+    @Test
+    public void testMemoryBound() {
+        PagePrefetcher<Long> prefetcher = track(new PagePrefetcher<>("test_bound", true, Runnable::run,
+            PAGE_SIZE, TTL_MILLIS, WAIT_MILLIS));
+        for (int i = 0; i < QUERIES; i++) {
+            prefetcher.page(QUERY + i, null, this::fetch);
+        }
+        assertEquals(1, prefetcher.size());
+    }
+
+    @Test
+    public void testLargePageIsCached() {
+        PagePrefetcher<Long> prefetcher = track(new PagePrefetcher<>("test_large", true, Runnable::run,
+            MAX_RECORDS, TTL_MILLIS, WAIT_MILLIS));
+        Function<String, KeysetPagination.Page<Long>> fetch = cursor -> fetch(cursor, LARGE_PAGE_SIZE);
+        KeysetPagination.Page<Long> first = prefetcher.page(QUERY, null, fetch);
+        assertEquals(1, prefetcher.size());
+        KeysetPagination.Page<Long> second = prefetcher.page(QUERY, first.getNextCursor(), fetch);
+        assertEquals(records.subList(LARGE_PAGE_SIZE, LARGE_PAGE_SIZE + LARGE_PAGE_SIZE), second.getRecords());
+        Double hits = CollectorRegistry.defaultRegistry.getSampleValue("api_pagination_prefetch_requests_total",
+            new String[] {"cache", "result"}, new String[] {"test_large", "hit"});
+        assertNotNull(hits);
+        assertEquals(1.0, hits, 0.0);
+    }
+
+    @Test(timeout = TIMEOUT_MILLIS)
+    public void testRejectedPrefetchFallsBackToFetch() {
+        PagePrefetcher<Long> prefetcher = track(new PagePrefetcher<>("test_rejected", true, command -> {
+            throw new RejectedExecutionException("saturated");
+        }, MAX_RECORDS, TTL_MILLIS, WAIT_MILLIS));
+        KeysetPagination.Page<Long> first = prefetcher.page(QUERY, null, this::fetch);
+        assertEquals(records.subList(0, PAGE_SIZE), first.getRecords());
+        KeysetPagination.Page<Long> second = prefetcher.page(QUERY, first.getNextCursor(), this::fetch);
+        assertEquals(records.subList(PAGE_SIZE, PAGE_SIZE + PAGE_SIZE), second.getRecords());
+        Double failures = CollectorRegistry.defaultRegistry.getSampleValue("api_pagination_prefetch_failures_total",
+            new String[] {"cache"}, new String[] {"test_rejected"});
+        assertNotNull(failures);
+        assertEquals(PREFETCHES_OF_TWO_PAGES, failures, 0.0);
+    }
+
+    /**
+     * the request waits for the never run prefetch for the short wait, not for the ttl of a minute.
+     */
+    @Test(timeout = TIMEOUT_MILLIS)
+    public void testWaitForPrefetchIsBounded() {
+        List<Runnable> queued = new ArrayList<>();
+        // the prefetches are never run
+        PagePrefetcher<Long> prefetcher = track(new PagePrefetcher<>("test_wait", true, queued::add,
+            MAX_RECORDS, TTL_MILLIS, WAIT_MILLIS));
+        KeysetPagination.Page<Long> first = prefetcher.page(QUERY, null, this::fetch);
+        KeysetPagination.Page<Long> second = prefetcher.page(QUERY, first.getNextCursor(), this::fetch);
+        assertEquals(records.subList(PAGE_SIZE, PAGE_SIZE + PAGE_SIZE), second.getRecords());
+        assertEquals(PREFETCHES_OF_TWO_PAGES, queued.size());
+    }
+
+    @Test
+    public void testDisabledFetchesDirectly() {
+        PagePrefetcher<Long> prefetcher = track(new PagePrefetcher<>("test_disabled", false, Runnable::run,
+            MAX_RECORDS, TTL_MILLIS, WAIT_MILLIS));
+        KeysetPagination.Page<Long> first = prefetcher.page(QUERY, null, this::fetch);
+        prefetcher.page(QUERY, first.getNextCursor(), this::fetch);
+        assertEquals(PAGE_AND_PREFETCH, fetches.get());
+        assertEquals(0, prefetcher.size());
+    }
+
+    @Test
+    public void testFailedPrefetchFallsBackToFetch() {
+        PagePrefetcher<Long> prefetcher = track(new PagePrefetcher<>("test_failure", true, Runnable::run,
+            MAX_RECORDS, TTL_MILLIS, WAIT_MILLIS));
+        KeysetPagination.Page<Long> first = prefetcher.page(QUERY, null, cursor -> {
+            if (cursor != null) {
+                throw new IllegalStateException("down");
+            }
+            return fetch(null);
+        });
+        KeysetPagination.Page<Long> second = prefetcher.page(QUERY, first.getNextCursor(), this::fetch);
+        assertEquals(records.subList(PAGE_SIZE, PAGE_SIZE + PAGE_SIZE), second.getRecords());
+        Double failures = CollectorRegistry.defaultRegistry.getSampleValue("api_pagination_prefetch_failures_total",
+            new String[] {"cache"}, new String[] {"test_failure"});
+        assertNotNull(failures);
+        assertEquals(1.0, failures, 0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateNameIsRejected() {
+        track(new PagePrefetcher<>("test_duplicate", true, Runnable::run, MAX_RECORDS, TTL_MILLIS, WAIT_MILLIS));
+        new PagePrefetcher<Long>("test_duplicate", true, Runnable::run, MAX_RECORDS, TTL_MILLIS, WAIT_MILLIS);
+    }
+
+    @Test
+    public void testNameIsReleasedOnClose() {
+        PagePrefetcher<Long> prefetcher = new PagePrefetcher<>("test_close", true, Runnable::run, MAX_RECORDS,
+            TTL_MILLIS, WAIT_MILLIS);
+        prefetcher.page(QUERY, null, this::fetch);
+        prefetcher.close();
+        assertEquals(0, prefetcher.size());
+        assertNull(CollectorRegistry.defaultRegistry.getSampleValue("api_pagination_prefetch_cached_pages",
+            new String[] {"cache"}, new String[] {"test_close"}));
+        track(new PagePrefetcher<>("test_close", true, Runnable::run, MAX_RECORDS, TTL_MILLIS, WAIT_MILLIS));
+    }
+
+    @Test
+    public void testMetricsAreRegisteredAgainAfterClear() {
+        CollectorRegistry.defaultRegistry.clear();
+        PagePrefetcher<Long> prefetcher = track(new PagePrefetcher<>("test_clear", true, Runnable::run,
+            MAX_RECORDS, TTL_MILLIS, WAIT_MILLIS));
+        String cursor = prefetcher.page(QUERY, null, this::fetch).getNextCursor();
+        prefetcher.page(QUERY, cursor, this::fetch);
+        Double hits = CollectorRegistry.defaultRegistry.getSampleValue("api_pagination_prefetch_requests_total",
+            new String[] {"cache", "result"}, new String[] {"test_clear", "hit"});
+        assertNotNull(hits);
+        assertEquals(1.0, hits, 0.0);
+        Double cached = CollectorRegistry.defaultRegistry.getSampleValue("api_pagination_prefetch_cached_pages",
+            new String[] {"cache"}, new String[] {"test_clear"});
+        assertNotNull(cached);
+        assertEquals(prefetcher.size(), cached, 0.0);
+    }
+}
@@ -0,0 +1,117 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.utils;
+
+import org.eclipse.ecsp.nosqldao.IgniteOrderBy;
+import org.eclipse.ecsp.nosqldao.IgniteQuery;
+import org.junit.Test;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * PaginationQueryTemplateTest contains the test cases for {@link PaginationQueryTemplate}.
+ *
+ * @author abhishekkumar
+ */
+public class PaginationQueryTemplateTest {
+
+    private static final long SINCE = 100000L;
+    private static final long UNTIL = 20000L;
+    private static final long TIMESTAMP = 500L;
+    private static final int PAGE_SIZE = 20;
+    /**
+     * timestamp then id.
+     */
+    private static final int SORT_FIELDS = 2;
+
+    private final ApiPaginationUtils paginationUtils =
+        new ApiPaginationUtils("eventIdKey", "timestampKey", "vehicleIdKey");
+    private final PaginationQueryTemplate template = paginationUtils.getQueryTemplate();
+
+    @Test
+    public void testBindMatchesApiPaginationUtils() {
+        for (String sortOrder : new String[] {"asc", "desc"}) {
+            for (Long since : new Long[] {null, SINCE}) {
+                for (String eventId : new String[] {null, "eventId"}) {
+                    IgniteQuery expected = new IgniteQuery(
+                        paginationUtils.buildBasicCriteriaGroup("1111", since, UNTIL, eventId));
+                    paginationUtils.buildSortByAndLimit(expected, sortOrder, null, PAGE_SIZE);
+                    IgniteQuery query = template.bind("1111", since, UNTIL, eventId, sortOrder, PAGE_SIZE);
+                    assertEquals(expected.toString(), query.toString());
+                    assertEquals(expected.getPageSize(), query.getPageSize());
+                    assertEquals(expected.getPageNumber(), query.getPageNumber());
+                    assertSameSort(expected.getOrderBys(), query.getOrderBys());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testBindAfterMatchesApiPaginationUtils() {
+        paginationUtils.setTimestamp(TIMESTAMP);
+        paginationUtils.setObjectId("1212");
+        IgniteQuery expected = paginationUtils.buildIgniteQuery(
+            paginationUtils.buildBasicCriteriaGroup("1111", SINCE, UNTIL, "eventId"),
+            paginationUtils.buildBasicCriteriaGroup("1111", SINCE, UNTIL, "eventId"), "desc");
+        IgniteQuery query = template.bindAfter("1111", SINCE, UNTIL, "eventId",
+            KeysetCursor.of(TIMESTAMP, "1212", "desc"), PAGE_SIZE);
+        assertEquals(expected.toString(), query.toString());
+        assertEquals(PAGE_SIZE, query.getPageSize());
+    }
+
+    @Test
+    public void testSortFieldsAndDirection() {
+        List<IgniteOrderBy> desc = template.bind("1111", SINCE, UNTIL, null, "desc", PAGE_SIZE).getOrderBys();
+        assertEquals(SORT_FIELDS, desc.size());
+        assertEquals("timestampKey", desc.get(0).getFieldName());
+        assertFalse(desc.get(0).isAsc());
+        assertEquals("_id", desc.get(1).getFieldName());
+        assertFalse(desc.get(1).isAsc());
+
+        List<IgniteOrderBy> asc = template.bindAfter("1111", SINCE, UNTIL, null,
+            KeysetCursor.of(TIMESTAMP, "1212", "asc"), PAGE_SIZE).getOrderBys();
+        assertEquals(SORT_FIELDS, asc.size());
+        assertEquals("timestampKey", asc.get(0).getFieldName());
+        assertTrue(asc.get(0).isAsc());
+        assertEquals("_id", asc.get(1).getFieldName());
+        assertFalse(asc.get(1).isAsc());
+    }
+
+    @Test
+    public void testSortIsNotShared() {
+        IgniteQuery first = template.bind("1111", SINCE, UNTIL, null, "desc", PAGE_SIZE);
+        IgniteQuery second = template.bind("2222", null, null, "eventId", "desc", PAGE_SIZE);
+        assertNotSame(first.getOrderBys().get(0), second.getOrderBys().get(0));
+        // changing the sort of one query leaves the others unchanged
+        first.getOrderBys().get(0).asc();
+        assertFalse(second.getOrderBys().get(0).isAsc());
+    }
+
+    private static void assertSameSort(List<IgniteOrderBy> expected, List<IgniteOrderBy> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getFieldName(), actual.get(i).getFieldName());
+            assertEquals(expected.get(i).isAsc(), actual.get(i).isAsc());
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/********************************************************************************
+ * Copyright (c) 2023-24 Harman International
+ *
+ * <p>Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * <p>http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * <p>Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and\
+ * limitations under the License.
+ *
+ * <p>SPDX-License-Identifier: Apache-2.0
+ ********************************************************************************/
+
+
+package org.eclipse.ecsp.utils;
+
+import org.eclipse.ecsp.nosqldao.IgniteQuery;
+import org.junit.Test;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * TimeRangeSplitterTest contains the test cases for {@link TimeRangeSplitter}.
+ *
+ * @author abhishekkumar
+ */
+public class TimeRangeSplitterTest {
+
+    private static final long HOUR = 3_600_000L;
+    private static final long UNTIL = 1_700_000_000_000L;
+    private static final int GROWTH = 4;
+    private static final int MAX_BUCKETS = 12;
+    private static final int LIMIT = 5;
+    private static final int DENSE_RECORDS = 50;
+    private static final long SPARSE_STEP = 97 * HOUR;
+    private static final long OLD_RECORD = 1_000_000L;
+    private static final int RECENT_RECORDS = 3;
+    private static final long ASCENDING_STEP = 1000 * HOUR;
+    private static final long CURSOR_AGE = 10 * HOUR;
+    private static final int PAGE_SIZE = 20;
+
+    private final TimeRangeSplitter splitter = new TimeRangeSplitter(HOUR, GROWTH, MAX_BUCKETS, 0L);
+    private final List<Long> timestamps = new ArrayList<>();
+    private final List<long[]> buckets = new ArrayList<>();
+
+    private List<Long> fetch(long since, long until, int limit, boolean descending) {
+        buckets.add(new long[] {since, until});
+        Comparator<Long> order = descending ? Comparator.reverseOrder() : Comparator.naturalOrder();
+        return timestamps.stream().filter(t -> t >= since && t <= until).sorted(order).limit(limit).toList();
+    }
+
+    private List<Long> expected(long since, long until, boolean descending) {
+        return fetch(since, until, LIMIT, descending);
+    }
+
+    @Test
+    public void testDenseVehicleQueriesOneBucket() {
+        for (int i = 0; i < DENSE_RECORDS; i++) {
+            timestamps.add(UNTIL - i);
+        }
+        List<Long> records = splitter.scan(null, UNTIL, "desc", LIMIT, (s, u, l) -> fetch(s, u, l, true));
+        assertEquals(1, buckets.size());
+        assertEquals(expected(0, UNTIL, true), records);
+    }
+
+    @Test
+    public void testSparseVehicleReachesOldRecords() {
+        timestamps.add(OLD_RECORD);
+        for (int i = 0; i < RECENT_RECORDS; i++) {
+            timestamps.add(UNTIL - i * SPARSE_STEP);
+        }
+        List<Long> records = splitter.scan(null, UNTIL, "desc", LIMIT, (s, u, l) -> fetch(s, u, l, true));
+        assertTrue(buckets.size() <= MAX_BUCKETS);
+        assertEquals(expected(0, UNTIL, true), records);
+        assertTrue(records.contains(OLD_RECORD));
+    }
+
+    @Test
+    public void testBucketsDoNotOverlap() {
+        timestamps.add(OLD_RECORD);
+        splitter.scan(null, UNTIL, "desc", LIMIT, (s, u, l) -> fetch(s, u, l, true));
+        for (int i = 1; i < buckets.size(); i++) {
+            assertEquals(buckets.get(i - 1)[0] - 1, buckets.get(i)[1]);
+        }
+        assertEquals(0L, buckets.get(buckets.size() - 1)[0]);
+    }
+
+    @Test
+    public void testAscendingScan() {
+        for (long t = OLD_RECORD; t < UNTIL; t += ASCENDING_STEP) {
+            timestamps.add(t);
+        }
+        List<Long> records = splitter.scan(OLD_RECORD, UNTIL, "asc", LIMIT, (s, u, l) -> fetch(s, u, l, false));
+        assertEquals(expected(OLD_RECORD, UNTIL, false), records);
+        assertEquals(OLD_RECORD, buckets.get(0)[0]);
+    }
+
+    @Test
+    public void testSingleBucket() {
+        timestamps.add(OLD_RECORD);
+        new TimeRangeSplitter(HOUR, GROWTH, 1, 0L).scan(null, UNTIL, "desc", LIMIT,
+            (s, u, l) -> fetch(s, u, l, true));
+        assertEquals(1, buckets.size());
+        assertEquals(0L, buckets.get(0)[0]);
+        assertEquals(UNTIL, buckets.get(0)[1]);
+    }
+
+    @Test
+    public void testDescendingScanStartsAtTheCursor() {
+        for (int i = 0; i < DENSE_RECORDS; i++) {
+            timestamps.add(UNTIL - i * HOUR);
+        }
+        long position = UNTIL - CURSOR_AGE;
+        List<Long> records = splitter.scan(null, UNTIL, "desc", KeysetCursor.of(position, 1L, "desc"), LIMIT,
+            (s, u, l) -> fetch(s, u, l, true));
+        assertEquals(position, buckets.get(0)[1]);
+        assertEquals(expected(0, position, true), records);
+    }
+
+    @Test
+    public void testAscendingScanStartsAtTheCursor() {
+        for (long t = OLD_RECORD; t < UNTIL; t += ASCENDING_STEP) {
+            timestamps.add(t);
+        }
+        long position = OLD_RECORD + ASCENDING_STEP;
+        List<Long> records = splitter.scan(OLD_RECORD, UNTIL, "asc", KeysetCursor.of(position, 1L, "asc"), LIMIT,
+            (s, u, l) -> fetch(s, u, l, false));
+        assertEquals(position, buckets.get(0)[0]);
+        assertEquals(expected(position, UNTIL, false), records);
+    }
+
+    @Test
+    public void testIgniteBucketsClampToTheCursor() {
+        PaginationQueryTemplate template = new PaginationQueryTemplate("eventIdKey", "timestampKey",
+            "vehicleIdKey");
+        List<IgniteQuery> queries = new ArrayList<>();
+        long position = UNTIL - CURSOR_AGE;
+        KeysetCursor desc = KeysetCursor.of(position, "1212", "desc");
+        TimeRangeSplitter.BucketQuery<Long> descBuckets = TimeRangeSplitter.igniteBuckets(template, "v1", null,
+            "desc", desc, query -> {
+                queries.add(query);
+                return List.of();
+            });
+        assertTrue(descBuckets.fetch(position + 1, UNTIL, PAGE_SIZE).isEmpty());
+        assertTrue(queries.isEmpty());
+        descBuckets.fetch(OLD_RECORD, UNTIL, PAGE_SIZE);
+        assertEquals(template.bindAfter("v1", OLD_RECORD, position, null, desc, PAGE_SIZE).toString(),
+            queries.get(0).toString());
+
+        KeysetCursor asc = KeysetCursor.of(position, "1212", "asc");
+        TimeRangeSplitter.BucketQuery<Long> ascBuckets = TimeRangeSplitter.igniteBuckets(template, "v1", null,
+            "asc", asc, query -> {
+                queries.add(query);
+                return List.of();
+            });
+        assertTrue(ascBuckets.fetch(OLD_RECORD, position - 1, PAGE_SIZE).isEmpty());
+        assertEquals(1, queries.size());
+        ascBuckets.fetch(OLD_RECORD, UNTIL, PAGE_SIZE);
+        assertEquals(template.bindAfter("v1", position, UNTIL, null, asc, PAGE_SIZE).toString(),
+            queries.get(1).toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidConfiguration() {
+        new TimeRangeSplitter(0L, GROWTH, MAX_BUCKETS, 0L);
+    }
+
+    @Test
+    public void testInvalidLimit() {
+        for (int limit : new int[] {0, -LIMIT}) {
+            try {
+                splitter.scan(null, UNTIL, "desc", limit, (s, u, l) -> fetch(s, u, l, true));
+                fail("limit " + limit + " accepted");
+            } catch (IllegalArgumentException e) {
+                assertEquals("Scan limit must be at least 1, got " + limit, e.getMessage());
+            }
+        }
+        assertTrue(buckets.isEmpty());
+    }
+}